@@ -36,6 +36,7 @@ import javax.persistence.Table;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
 
 
 import static com.google.common.collect.Lists.newArrayList;
@@ -47,6 +48,8 @@ import static java.util.stream.Collectors.toList;
 @ToString(exclude = {"permissions", "instances"})
 @NoArgsConstructor
 public class SavedFilter implements Serializable {
+    private static final int PERMISSIONS_BATCH_SIZE = 100;
+
     /**
      * SQL like operator for the filter
      */
@@ -94,7 +97,9 @@ public class SavedFilter implements Serializable {
     @Column(name = "dataset_class", updatable = false)
     private String datasetClass;
 
+    // permissions of listed filters are loaded together rather than one query per filter
     @JsonIgnore
+    @BatchSize(size = PERMISSIONS_BATCH_SIZE)
     @OneToMany(fetch = FetchType.LAZY, mappedBy = "savedFilter", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<SavedFilterPermission> permissions = newArrayList();
 
@@ -96,18 +96,26 @@ public class SavedFilterInstance implements Serializable {
 
     public Filters<HasSubject> getFilters() {
         if (filters == null) {
-            switch (filterView) {
-                case AES:
-                    return fromString(json, AeFilters.class);
-                case LABS:
-                    return fromString(json, LabFilters.class);
-                case POPULATION:
-                    return fromString(json, PopulationFilters.class);
-                default:
-                    throw new IllegalArgumentException("Invalid filterView: " + filterView);
-            }
-        } else {
-            return filters;
+            filters = parseFilters();
+        }
+        return filters;
+    }
+
+    public void setJson(String json) {
+        this.json = json;
+        this.filters = null;
+    }
+
+    private Filters<HasSubject> parseFilters() {
+        switch (filterView) {
+            case AES:
+                return fromString(id, json, AeFilters.class);
+            case LABS:
+                return fromString(id, json, LabFilters.class);
+            case POPULATION:
+                return fromString(id, json, PopulationFilters.class);
+            default:
+                throw new IllegalArgumentException("Invalid filterView: " + filterView);
         }
     }
 
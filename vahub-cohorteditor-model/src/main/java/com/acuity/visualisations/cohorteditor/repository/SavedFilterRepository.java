@@ -17,6 +17,7 @@
 package com.acuity.visualisations.cohorteditor.repository;
 
 import com.acuity.visualisations.cohorteditor.entity.SavedFilter;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.Query;
@@ -38,5 +39,34 @@ public interface SavedFilterRepository extends CrudRepository<SavedFilter, Long>
             + "ORDER BY sf.createdDate DESC")
     List<SavedFilter> listByUser(@Param("prid") String prid);
 
+    /**
+     * Same as {@link #listByUser(String)}, restricted in the query to the filters saved for one of the dataset ids
+     * and to the filters saved for several datasets, which are matched against the requested datasets by the caller
+     */
+    @Query("SELECT DISTINCT sf "
+            + "FROM SavedFilter sf "
+            + "JOIN FETCH sf.instances "
+            + "WHERE (sf.id IN ("
+            + "   SELECT sf.id "
+            + "       FROM SavedFilter sf "
+            + "     JOIN sf.permissions p "
+            + "     WHERE p.prid = :prid"
+            + ") "
+            + "OR sf.owner = :prid) "
+            + "AND (sf.datasetId IN :datasetIds OR sf.datasetId LIKE :multipleDatasetsPattern) "
+            + "ORDER BY sf.createdDate DESC")
+    List<SavedFilter> listByUserAndDatasetIds(@Param("prid") String prid,
+                                              @Param("datasetIds") Collection<String> datasetIds,
+                                              @Param("multipleDatasetsPattern") String multipleDatasetsPattern);
+
+    /**
+     * Loads the saved filter with its instances only, as needed to apply it
+     */
+    @Query("SELECT sf "
+            + "FROM SavedFilter sf "
+            + "LEFT JOIN FETCH sf.instances "
+            + "WHERE sf.id = :id")
+    SavedFilter loadWithInstancesById(@Param("id") Long id);
+
     List<SavedFilter> findByName(String name);
 }
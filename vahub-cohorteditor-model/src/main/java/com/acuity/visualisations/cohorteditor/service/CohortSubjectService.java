@@ -17,61 +17,95 @@
 package com.acuity.visualisations.cohorteditor.service;
 
 import com.acuity.visualisations.cohorteditor.entity.SavedFilter;
+import com.acuity.visualisations.common.cache.DatasetsKey;
+import com.acuity.visualisations.rawdatamodel.dataproviders.PopulationDatasetsDataProvider;
 import com.acuity.visualisations.rawdatamodel.filters.AeFilters;
 import com.acuity.visualisations.rawdatamodel.filters.Filters;
 import com.acuity.visualisations.rawdatamodel.filters.PopulationFilters;
 import com.acuity.visualisations.rawdatamodel.service.event.AeService;
 import com.acuity.visualisations.rawdatamodel.service.PopulationService;
+import com.acuity.visualisations.rawdatamodel.vo.Subject;
 import com.acuity.va.security.acl.domain.Datasets;
-import com.google.common.collect.Sets;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 import java.util.function.BinaryOperator;
-
-import static com.google.common.collect.Sets.newHashSet;
-import static java.util.stream.Collectors.toList;
+import java.util.stream.Stream;
 
 @Service
 public class CohortSubjectService {
+    private static final int SUBJECT_CODE_INDEXES_CACHE_SIZE = 100;
+
     @Autowired
     private PopulationService populationService;
     @Autowired
     private AeService aeService;
+    @Autowired
+    private PopulationDatasetsDataProvider populationDatasetsDataProvider;
 
+    /**
+     * Subject code indexes of the datasets populations, holding the memoized subject bitmaps of every filter block.
+     * An index is rebuilt, and so are the bitmaps, once the loaded population is no longer the same instance,
+     * i.e. after the datasets are refreshed
+     */
+    private final Cache<DatasetsKey, SubjectCodeIndex> subjectCodeIndexes = CacheBuilder.newBuilder()
+            .maximumSize(SUBJECT_CODE_INDEXES_CACHE_SIZE)
+            .build();
 
     public List<String> getDistinctSubjectIds(
             Datasets datasets,
             List<Filters> filters,
             SavedFilter.Operator operator) {
-        // Get subject ids for each filters
-        Set<Set<String>> filteredSubjectsLists = newHashSet();
+        SubjectCodeIndex index = getSubjectCodeIndex(datasets);
 
-        filters.forEach(f -> {
-            List<String> subjects;
-            if (f instanceof PopulationFilters) {
-                subjects = populationService.getFilteredData(datasets, (PopulationFilters) f)
-                        .stream()
-                        .map(e -> e.getSubject().getSubjectCode())
-                        .distinct()
-                        .collect(toList());
-            } else if (f instanceof AeFilters) {
-                subjects = aeService.getFilteredData(datasets, (AeFilters) f, PopulationFilters.empty())
-                        .stream()
-                        .map(e -> e.getSubject().getSubjectCode())
-                        .distinct()
-                        .collect(toList());
-            } else {
-                throw new IllegalStateException("Unknown filters type " + f.getClass() + ". " + f);
-            }
+        BinaryOperator<BitSet> op = (operator == SavedFilter.Operator.OR) ? CohortSubjectService::or : CohortSubjectService::and;
 
-            filteredSubjectsLists.add(newHashSet(subjects));
-        });
+        BitSet subjects = filters.stream()
+                .map(f -> index.getBitmap(f, () -> getSubjectCodes(datasets, f)))
+                .reduce(op).get();
+        return index.toSubjectCodes(subjects);
+    }
 
-        BinaryOperator<Set<String>> op = (operator == SavedFilter.Operator.OR) ? Sets::union : Sets::intersection;
+    private SubjectCodeIndex getSubjectCodeIndex(Datasets datasets) {
+        Collection<Subject> population = populationDatasetsDataProvider.loadData(datasets);
+        DatasetsKey key = new DatasetsKey(datasets);
+        SubjectCodeIndex index = subjectCodeIndexes.getIfPresent(key);
+        if (index == null || !index.isOf(population)) {
+            index = SubjectCodeIndex.of(population);
+            subjectCodeIndexes.put(key, index);
+        }
+        return index;
+    }
+
+    private Stream<String> getSubjectCodes(Datasets datasets, Filters f) {
+        if (f instanceof PopulationFilters) {
+            return populationService.getFilteredData(datasets, (PopulationFilters) f)
+                    .stream()
+                    .map(e -> e.getSubject().getSubjectCode());
+        } else if (f instanceof AeFilters) {
+            return aeService.getFilteredData(datasets, (AeFilters) f, PopulationFilters.empty())
+                    .stream()
+                    .map(e -> e.getSubject().getSubjectCode());
+        } else {
+            throw new IllegalStateException("Unknown filters type " + f.getClass() + ". " + f);
+        }
+    }
+
+    // memoized bitmaps are shared, so they are combined into a copy
+    private static BitSet or(BitSet left, BitSet right) {
+        BitSet result = (BitSet) left.clone();
+        result.or(right);
+        return result;
+    }
 
-        return filteredSubjectsLists.stream().reduce(op).get().stream().collect(toList());
+    private static BitSet and(BitSet left, BitSet right) {
+        BitSet result = (BitSet) left.clone();
+        result.and(right);
+        return result;
     }
 }
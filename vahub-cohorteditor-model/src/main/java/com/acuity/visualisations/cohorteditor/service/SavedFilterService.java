@@ -23,10 +23,14 @@ import com.acuity.visualisations.cohorteditor.vo.SavedFilterVO;
 import com.acuity.visualisations.common.util.Security;
 import com.acuity.va.security.acl.domain.Dataset;
 import com.acuity.va.security.acl.domain.Datasets;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import com.acuity.va.security.auth.common.ISecurityResourceClient;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -41,6 +45,9 @@ import static java.util.stream.Collectors.toSet;
 @Service
 @Transactional(readOnly = true)
 public class SavedFilterService {
+    private static final long PERMISSIONS_CACHE_TTL_SECONDS = 60;
+    private static final int PERMISSIONS_CACHE_SIZE = 1000;
+    private static final String MULTIPLE_DATASETS_PATTERN = "%" + SavedFilterVOConverter.DATASET_DELIMITER + "%";
 
     @Autowired
     private SavedFilterRepository savedFilterRepository;
@@ -53,8 +60,16 @@ public class SavedFilterService {
     @Autowired
     private ISecurityResourceClient securityResourceClient;
 
+    /**
+     * Remote permission checks of users on the sets of datasets, kept shortly as listings are repeated
+     */
+    private final Cache<List<Object>, Boolean> permissions = CacheBuilder.newBuilder()
+            .expireAfterWrite(PERMISSIONS_CACHE_TTL_SECONDS, TimeUnit.SECONDS)
+            .maximumSize(PERMISSIONS_CACHE_SIZE)
+            .build();
+
     public List<String> getDistinctSubjects(Datasets datasets, Long savedFilterId) {
-        SavedFilter savedFilter = savedFilterRepository.loadTreeById(savedFilterId);
+        SavedFilter savedFilter = savedFilterRepository.loadWithInstancesById(savedFilterId);
         return cohortSubjectService.getDistinctSubjectIds(datasets, savedFilter.getFilters(), savedFilter.getOperator());
     }
 
@@ -62,17 +77,29 @@ public class SavedFilterService {
         String user = security.getUser();
 
         Set<String> datasetIdsInRequest = datasets.stream().map(Dataset::getId).map(String::valueOf).collect(toSet());
-        List<SavedFilter> savedFilters = savedFilterRepository.listByUser(user).stream()
+        if (datasetIdsInRequest.isEmpty() || !hasPermission(user, datasets)) {
+            return newArrayList();
+        }
+
+        List<SavedFilter> savedFilters = savedFilterRepository.listByUserAndDatasetIds(user, datasetIdsInRequest, MULTIPLE_DATASETS_PATTERN)
+                                                              .stream()
                                                               .filter(sf -> stream(sf.getDatasetId()
                                                                                      .split(SavedFilterVOConverter.DATASET_DELIMITER))
                                                                       .allMatch(datasetIdsInRequest::contains))
                                                               .collect(toList());
+        return savedFilters.stream().map(savedFilterVOConverter::toVo).collect(toList());
+    }
 
-        boolean hasPermission = securityResourceClient.hasPermissionForUser(user, datasets, VIEW_VISUALISATIONS.getMask());
-        if (!hasPermission) {
-            return newArrayList();
+    private boolean hasPermission(String user, List<Dataset> datasets) {
+        // ids of datasets of different types can be equal, so the type is a part of the key
+        Set<List<Object>> typedDatasetIds = datasets.stream().map(d -> Arrays.<Object>asList(d.getClass(), d.getId())).collect(toSet());
+        List<Object> key = Arrays.asList(user, typedDatasetIds);
+        Boolean hasPermission = permissions.getIfPresent(key);
+        if (hasPermission == null) {
+            hasPermission = securityResourceClient.hasPermissionForUser(user, datasets, VIEW_VISUALISATIONS.getMask());
+            permissions.put(key, hasPermission);
         }
-        return savedFilters.stream().map(savedFilterVOConverter::toVo).collect(toList());
+        return hasPermission;
     }
 
     @Transactional
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.cohorteditor.service;
+
+import com.acuity.visualisations.rawdatamodel.filters.Filters;
+import com.acuity.visualisations.rawdatamodel.vo.Subject;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Distinct subject codes of a loaded population numbered in population order, so that sets of subjects are kept as bitmaps.
+ * Bitmaps of filters are memoized along with the index, so they live as long as the population they were calculated for
+ */
+final class SubjectCodeIndex {
+    private static final int FILTER_BITMAPS_CACHE_SIZE = 200;
+
+    private final WeakReference<Collection<Subject>> population;
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<String> codes = new ArrayList<>();
+    private final Cache<Filters, BitSet> filterBitmaps = CacheBuilder.newBuilder()
+            .maximumSize(FILTER_BITMAPS_CACHE_SIZE)
+            .build();
+
+    private SubjectCodeIndex(Collection<Subject> population) {
+        this.population = new WeakReference<>(population);
+        population.forEach(subject -> ordinals.computeIfAbsent(subject.getSubjectCode(), code -> {
+            codes.add(code);
+            return codes.size() - 1;
+        }));
+    }
+
+    static SubjectCodeIndex of(Collection<Subject> population) {
+        return new SubjectCodeIndex(population);
+    }
+
+    boolean isOf(Collection<Subject> currentPopulation) {
+        return population.get() == currentPopulation;
+    }
+
+    /**
+     * @return bitmap of the subjects matching the filters, calculated from the subject codes on the first request
+     */
+    BitSet getBitmap(Filters filters, Supplier<Stream<String>> subjectCodes) {
+        BitSet bitmap = filterBitmaps.getIfPresent(filters);
+        if (bitmap == null) {
+            bitmap = toBitmap(subjectCodes.get());
+            filterBitmaps.put(filters, bitmap);
+        }
+        return bitmap;
+    }
+
+    List<String> toSubjectCodes(BitSet bitmap) {
+        List<String> subjectCodes = new ArrayList<>(bitmap.cardinality());
+        bitmap.stream().forEach(ordinal -> subjectCodes.add(codes.get(ordinal)));
+        return subjectCodes;
+    }
+
+    private BitSet toBitmap(Stream<String> subjectCodes) {
+        BitSet bitmap = new BitSet(codes.size());
+        subjectCodes.forEach(code -> {
+            Integer ordinal = ordinals.get(code);
+            if (ordinal != null) {
+                bitmap.set(ordinal);
+            }
+        });
+        return bitmap;
+    }
+}
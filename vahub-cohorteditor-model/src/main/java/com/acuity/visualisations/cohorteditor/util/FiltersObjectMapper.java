@@ -19,8 +19,11 @@ package com.acuity.visualisations.cohorteditor.util;
 import com.acuity.visualisations.rawdatamodel.filters.Filters;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import java.io.StringWriter;
+import java.util.Objects;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -30,8 +33,18 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public final class FiltersObjectMapper {
 
+    private static final int PARSED_FILTERS_CACHE_SIZE = 1000;
+
     private static ObjectMapper mapper;
 
+    /**
+     * Filters parsed from the json of saved filter instances by instance id. The json is the version of an instance,
+     * so a cached value is only reused for the very same json
+     */
+    private static final Cache<Long, ParsedFilters> PARSED_FILTERS = CacheBuilder.newBuilder()
+            .maximumSize(PARSED_FILTERS_CACHE_SIZE)
+            .build();
+
     private FiltersObjectMapper() {
     }
 
@@ -60,4 +73,40 @@ public final class FiltersObjectMapper {
             return null;
         }
     }
+
+    /**
+     * Same as {@link #fromString(String, Class)}, but parses the json of a saved instance only once.
+     * The returned filters are shared between the loads of the instance, so they must not be modified
+     */
+    public static Filters fromString(Long instanceId, String json, Class filterClazz) {
+        if (instanceId == null) {
+            return fromString(json, filterClazz);
+        }
+        ParsedFilters parsed = PARSED_FILTERS.getIfPresent(instanceId);
+        if (parsed == null || !parsed.isOf(json, filterClazz)) {
+            Filters filters = fromString(json, filterClazz);
+            if (filters == null) {
+                return null;
+            }
+            parsed = new ParsedFilters(json, filterClazz, filters);
+            PARSED_FILTERS.put(instanceId, parsed);
+        }
+        return parsed.filters;
+    }
+
+    private static final class ParsedFilters {
+        private final String json;
+        private final Class filterClazz;
+        private final Filters filters;
+
+        private ParsedFilters(String json, Class filterClazz, Filters filters) {
+            this.json = json;
+            this.filterClazz = filterClazz;
+            this.filters = filters;
+        }
+
+        private boolean isOf(String json, Class filterClazz) {
+            return this.filterClazz == filterClazz && Objects.equals(this.json, json);
+        }
+    }
 }
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.cohorteditor.repository;
+
+import com.acuity.visualisations.cohorteditor.builder.SavedFilterBuilder;
+import com.acuity.visualisations.cohorteditor.entity.SavedFilter;
+import com.acuity.visualisations.cohorteditor.util.SavedFilterVOConverter;
+import com.acuity.visualisations.rawdatamodel.filters.PopulationFilters;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class WhenListingSavedFiltersByDatasets {
+
+    private static final String PRID = "ksnd199";
+    private static final String OTHER_PRID = "kdbg488";
+    private static final String MULTIPLE_DATASETS_PATTERN = "%" + SavedFilterVOConverter.DATASET_DELIMITER + "%";
+
+    // required by the custom repository implementation only
+    @MockBean
+    private SavedFilterVOConverter savedFilterVOConverter;
+    @Autowired
+    private SavedFilterRepository savedFilterRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+
+    @Before
+    public void setUp() {
+        persist(savedFilter("own dataset 1", PRID, "1").grantPermission(OTHER_PRID).grantPermission("knml167"));
+        persist(savedFilter("own dataset 2", PRID, "2"));
+        persist(savedFilter("own datasets 1 and 2", PRID, "1::2"));
+        persist(savedFilter("shared dataset 1", OTHER_PRID, "1").grantPermission(PRID));
+        persist(savedFilter("not shared dataset 1", OTHER_PRID, "1"));
+        persist(savedFilter("own dataset 3", PRID, "3"));
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void shouldListFiltersOfUserForDatasetsInOneStatement() {
+        // When
+        List<SavedFilter> result = savedFilterRepository.listByUserAndDatasetIds(PRID, newHashSet("1"), MULTIPLE_DATASETS_PATTERN);
+
+        // Then
+        assertThat(result).extracting(SavedFilter::getName)
+                .containsOnly("own dataset 1", "own datasets 1 and 2", "shared dataset 1");
+        assertThat(result).allMatch(sf -> sf.getInstances().size() == 1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldLoadPermissionsOfListedFiltersInOneStatement() {
+        // Given
+        List<SavedFilter> result = savedFilterRepository.listByUserAndDatasetIds(PRID, newHashSet("1", "2"), MULTIPLE_DATASETS_PATTERN);
+
+        // When
+        int permissions = result.stream().mapToInt(sf -> sf.getPermissions().size()).sum();
+
+        // Then
+        assertThat(result).hasSize(4);
+        assertThat(permissions).isEqualTo(3);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldLoadFilterWithInstancesInOneStatement() {
+        // Given
+        Long id = savedFilterRepository.findByName("own dataset 2").get(0).getId();
+        entityManager.clear();
+        statistics.clear();
+
+        // When
+        SavedFilter savedFilter = savedFilterRepository.loadWithInstancesById(id);
+
+        // Then
+        assertThat(savedFilter.getFilters()).containsExactly(new PopulationFilters());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private static SavedFilterBuilder savedFilter(String name, String owner, String datasetId) {
+        SavedFilterBuilder builder = new SavedFilterBuilder(name)
+                .withOwner(owner)
+                .addCohortFilter(new PopulationFilters());
+        builder.build().setDatasetId(datasetId);
+        return builder;
+    }
+
+    private void persist(SavedFilterBuilder builder) {
+        entityManager.persist(builder.build());
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.cohorteditor.service;
+
+import com.acuity.visualisations.cohorteditor.entity.SavedFilter;
+import com.acuity.visualisations.rawdatamodel.dataproviders.PopulationDatasetsDataProvider;
+import com.acuity.visualisations.rawdatamodel.filters.AeFilters;
+import com.acuity.visualisations.rawdatamodel.filters.Filters;
+import com.acuity.visualisations.rawdatamodel.filters.PopulationFilters;
+import com.acuity.visualisations.rawdatamodel.filters.SetFilter;
+import com.acuity.visualisations.rawdatamodel.service.PopulationService;
+import com.acuity.visualisations.rawdatamodel.service.event.AeService;
+import com.acuity.visualisations.rawdatamodel.vo.AeRaw;
+import com.acuity.visualisations.rawdatamodel.vo.FilterQuery;
+import com.acuity.visualisations.rawdatamodel.vo.FilterResult;
+import com.acuity.visualisations.rawdatamodel.vo.Subject;
+import com.acuity.visualisations.rawdatamodel.vo.wrappers.Ae;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.acuity.visualisations.config.util.TestConstants.DUMMY_ACUITY_DATASETS;
+import static com.google.common.collect.Lists.newArrayList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class WhenRunningCohortSubjectService {
+
+    @Mock
+    private PopulationService mockPopulationService;
+    @Mock
+    private AeService mockAeService;
+    @Mock
+    private PopulationDatasetsDataProvider mockPopulationDatasetsDataProvider;
+    @InjectMocks
+    private CohortSubjectService cohortSubjectService;
+
+    private static final Subject SUBJECT_1 = Subject.builder().subjectId("sid1").subjectCode("E01").build();
+    private static final Subject SUBJECT_2 = Subject.builder().subjectId("sid2").subjectCode("E02").build();
+    private static final Subject SUBJECT_3 = Subject.builder().subjectId("sid3").subjectCode("E03").build();
+    private static final Subject SUBJECT_4 = Subject.builder().subjectId("sid4").subjectCode("E04").build();
+    private static final List<Subject> POPULATION = newArrayList(SUBJECT_1, SUBJECT_2, SUBJECT_3, SUBJECT_4);
+
+    private final PopulationFilters firstThreeSubjects = subjectFilters("E01", "E02", "E03");
+    private final PopulationFilters lastTwoSubjects = subjectFilters("E03", "E04");
+    private final AeFilters aeFilters = new AeFilters();
+
+    @Before
+    public void setUp() {
+        when(mockPopulationDatasetsDataProvider.loadData(DUMMY_ACUITY_DATASETS)).thenReturn(POPULATION);
+        when(mockPopulationService.getFilteredData(DUMMY_ACUITY_DATASETS, firstThreeSubjects))
+                .thenReturn(populationResult(SUBJECT_1, SUBJECT_2, SUBJECT_3));
+        when(mockPopulationService.getFilteredData(DUMMY_ACUITY_DATASETS, lastTwoSubjects))
+                .thenReturn(populationResult(SUBJECT_3, SUBJECT_4));
+
+        aeFilters.setPt(new SetFilter<>(newArrayList("pt1")));
+        List<Ae> aes = newArrayList(new Ae(AeRaw.builder().id("ae1").subjectId("sid2").build(), SUBJECT_2),
+                new Ae(AeRaw.builder().id("ae2").subjectId("sid2").build(), SUBJECT_2),
+                new Ae(AeRaw.builder().id("ae3").subjectId("sid4").build(), SUBJECT_4));
+        when(mockAeService.getFilteredData(DUMMY_ACUITY_DATASETS, aeFilters, PopulationFilters.empty()))
+                .thenReturn(new FilterResult<>(new FilterQuery<>(aes, aeFilters, POPULATION, PopulationFilters.empty())).withResults(aes, aes));
+    }
+
+    @Test
+    public void shouldIntersectSubjectsOfFiltersWithAndOperator() {
+        // When
+        List<String> result = cohortSubjectService.getDistinctSubjectIds(DUMMY_ACUITY_DATASETS,
+                newArrayList(firstThreeSubjects, lastTwoSubjects), SavedFilter.Operator.AND);
+
+        // Then
+        assertThat(result).containsExactly("E03");
+    }
+
+    @Test
+    public void shouldUniteSubjectsOfFiltersWithOrOperator() {
+        // When
+        List<String> result = cohortSubjectService.getDistinctSubjectIds(DUMMY_ACUITY_DATASETS,
+                newArrayList(lastTwoSubjects, aeFilters), SavedFilter.Operator.OR);
+
+        // Then
+        assertThat(result).containsExactly("E02", "E03", "E04");
+    }
+
+    @Test
+    public void shouldFilterDataOncePerFilterWhilePopulationIsTheSame() {
+        // When
+        for (int i = 0; i < 3; i++) {
+            cohortSubjectService.getDistinctSubjectIds(DUMMY_ACUITY_DATASETS, newArrayList(firstThreeSubjects, aeFilters), SavedFilter.Operator.AND);
+            cohortSubjectService.getDistinctSubjectIds(DUMMY_ACUITY_DATASETS, newArrayList(firstThreeSubjects, lastTwoSubjects), SavedFilter.Operator.OR);
+        }
+
+        // Then
+        verify(mockPopulationService, times(1)).getFilteredData(DUMMY_ACUITY_DATASETS, firstThreeSubjects);
+        verify(mockPopulationService, times(1)).getFilteredData(DUMMY_ACUITY_DATASETS, lastTwoSubjects);
+        verify(mockAeService, times(1)).getFilteredData(DUMMY_ACUITY_DATASETS, aeFilters, PopulationFilters.empty());
+    }
+
+    @Test
+    public void shouldFilterDataAgainAfterPopulationIsReloaded() {
+        // Given
+        List<Filters> filters = newArrayList(firstThreeSubjects, aeFilters);
+        List<String> before = cohortSubjectService.getDistinctSubjectIds(DUMMY_ACUITY_DATASETS, filters, SavedFilter.Operator.AND);
+        when(mockPopulationDatasetsDataProvider.loadData(DUMMY_ACUITY_DATASETS)).thenReturn(new ArrayList<>(POPULATION));
+
+        // When
+        List<String> after = cohortSubjectService.getDistinctSubjectIds(DUMMY_ACUITY_DATASETS, filters, SavedFilter.Operator.AND);
+
+        // Then
+        assertThat(before).containsExactly("E02");
+        assertThat(after).containsExactly("E02");
+        verify(mockPopulationService, times(2)).getFilteredData(DUMMY_ACUITY_DATASETS, firstThreeSubjects);
+        verify(mockAeService, times(2)).getFilteredData(DUMMY_ACUITY_DATASETS, aeFilters, PopulationFilters.empty());
+    }
+
+    private static PopulationFilters subjectFilters(String... subjectCodes) {
+        PopulationFilters filters = new PopulationFilters();
+        filters.setSubjectId(new SetFilter<>(newArrayList(subjectCodes)));
+        return filters;
+    }
+
+    private static FilterResult<Subject> populationResult(Subject... subjects) {
+        List<Subject> filtered = newArrayList(subjects);
+        return new FilterResult<>(new FilterQuery<Subject>(POPULATION, PopulationFilters.empty())).withResults(POPULATION, filtered);
+    }
+}
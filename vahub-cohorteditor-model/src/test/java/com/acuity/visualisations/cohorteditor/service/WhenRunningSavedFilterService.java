@@ -0,0 +1,82 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.cohorteditor.service;
+
+import com.acuity.visualisations.cohorteditor.repository.SavedFilterRepository;
+import com.acuity.visualisations.common.util.Security;
+import com.acuity.va.security.acl.domain.AcuityDataset;
+import com.acuity.va.security.acl.domain.Dataset;
+import com.acuity.va.security.acl.domain.DetectDataset;
+import com.acuity.va.security.auth.common.ISecurityResourceClient;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static com.acuity.va.security.acl.permissions.AcuityPermissions.VIEW_VISUALISATIONS;
+import static com.google.common.collect.Lists.newArrayList;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class WhenRunningSavedFilterService {
+
+    private static final String USER = "kdbg488";
+
+    @Mock
+    private SavedFilterRepository mockSavedFilterRepository;
+    @Mock
+    private Security mockSecurity;
+    @Mock
+    private ISecurityResourceClient mockSecurityResourceClient;
+    @InjectMocks
+    private SavedFilterService savedFilterService;
+
+    @Test
+    public void shouldCheckPermissionOncePerUserAndDatasets() {
+        // Given
+        when(mockSecurity.getUser()).thenReturn(USER);
+        when(mockSecurityResourceClient.hasPermissionForUser(eq(USER), anyListOf(Dataset.class), eq(VIEW_VISUALISATIONS.getMask())))
+                .thenReturn(true);
+
+        // When
+        savedFilterService.listByUserAndDatasets(newArrayList(new AcuityDataset(1L)));
+        savedFilterService.listByUserAndDatasets(newArrayList(new AcuityDataset(1L)));
+
+        // Then
+        verify(mockSecurityResourceClient, times(1)).hasPermissionForUser(eq(USER), anyListOf(Dataset.class), eq(VIEW_VISUALISATIONS.getMask()));
+    }
+
+    @Test
+    public void shouldCheckPermissionSeparatelyForDatasetsOfDifferentTypesWithSameIds() {
+        // Given
+        when(mockSecurity.getUser()).thenReturn(USER);
+        when(mockSecurityResourceClient.hasPermissionForUser(eq(USER), anyListOf(Dataset.class), eq(VIEW_VISUALISATIONS.getMask())))
+                .thenReturn(true);
+
+        // When
+        savedFilterService.listByUserAndDatasets(newArrayList(new AcuityDataset(1L)));
+        savedFilterService.listByUserAndDatasets(newArrayList(new DetectDataset(1L)));
+
+        // Then
+        verify(mockSecurityResourceClient, times(2)).hasPermissionForUser(eq(USER), anyListOf(Dataset.class), eq(VIEW_VISUALISATIONS.getMask()));
+    }
+}
@@ -17,6 +17,8 @@
 package com.acuity.visualisations.common.aspect;
 
 import static com.google.common.collect.Lists.newArrayList;
+
+import java.util.List;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -25,7 +27,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StopWatch;
 
 /**
- * This can time spring beans methods.  
+ * This can time spring beans methods. Times are logged and recorded into the {@link #TIMER_NAME} timer
+ * tagged by class, method, dataset type and exception.
  * 
  * @author ksnd199
  */
@@ -34,16 +37,33 @@ import org.springframework.util.StopWatch;
 @Order(20) // after caching at 10.  Dont want to log cached times 
 public class TimeMeAspect extends TimeMeLog {
 
+    public static final String TIMER_NAME = "vahub.timeme";
+
     @Around("within(@com.acuity.visualisations.common.aspect.TimeMe *)")
     public Object logTimeMethod(ProceedingJoinPoint joinPoint) throws Throwable {
         StopWatch stopWatch = new StopWatch();
         stopWatch.start();
+        long start = System.nanoTime();
+        List<Object> args = newArrayList(joinPoint.getArgs());
+        Class<?> targetClass = joinPoint.getTarget().getClass();
+        String exception = NO_EXCEPTION;
 
-        Object result = joinPoint.proceed();
+        try {
+            Object result = joinPoint.proceed();
 
-        String classAndMethod = joinPoint.getTarget().getClass().getName() + "." + joinPoint.getSignature().getName();
-        logExecutionTime(classAndMethod, stopWatch, newArrayList(joinPoint.getArgs())); // log the method call
+            String classAndMethod = targetClass.getName() + "." + joinPoint.getSignature().getName();
+            logExecutionTime(classAndMethod, stopWatch, args); // log the method call
 
-        return result;
+            return result;
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            recordExecutionTime(TIMER_NAME, System.nanoTime() - start,
+                    "class", targetClass.getSimpleName(),
+                    "method", joinPoint.getSignature().getName(),
+                    "datasetType", findDatasetType(args),
+                    "exception", exception);
+        }
     }
 }
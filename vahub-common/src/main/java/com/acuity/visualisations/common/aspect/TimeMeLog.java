@@ -20,22 +20,33 @@ import com.acuity.va.security.acl.domain.Datasets;
 import com.acuity.va.security.acl.domain.DatasetsRequest;
 import com.google.common.collect.Range;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.util.StopWatch;
 
 import static java.util.stream.Collectors.toList;
 
 /**
- * Util for logging 
+ * Util for logging and recording execution times
  * 
  * @author ksnd199
  */
 @Slf4j
 public abstract class TimeMeLog {
+    protected static final String NO_DATASETS = "none";
+    protected static final String NO_EXCEPTION = "none";
     private static final int MAX_TIME_BEFORE_LOG_ARGS = 2000; // 2 secs
     private static final int MAX_COLLECTION_SIZE_TO_LOG = 100;
     private static final String LOG_MESSAGE_FORMAT = "%s%s execution time: %dms (Time range: %s)";
@@ -47,6 +58,36 @@ public abstract class TimeMeLog {
     private static final Range<Long> RANGE5_10 = Range.closedOpen(5000L, 10000L);
     private static final Range<Long> RANGE10_PLUS = Range.closedOpen(10000L, Long.MAX_VALUE);
 
+    // not spring managed instances (i.e. mybatis plugins) record into the global registry
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+    // timers registered in the registry by name and tags
+    private final Map<List<String>, Timer> timers = new ConcurrentHashMap<>();
+
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        timers.clear();
+    }
+
+    /**
+     * Records the execution time into a timer with a percentile histogram, so latency percentiles
+     * are available from the metrics endpoint and not only from the logs
+     */
+    protected void recordExecutionTime(String timerName, long nanos, String... tags) {
+        List<String> timerKey = new ArrayList<>(tags.length + 1);
+        timerKey.add(timerName);
+        Collections.addAll(timerKey, tags);
+        timers.computeIfAbsent(timerKey, key -> Timer.builder(timerName)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    protected String findDatasetType(List<Object> queryArgs) {
+        return findDatasets(queryArgs).map(datasets -> String.valueOf(datasets.getShortNameByType())).orElse(NO_DATASETS);
+    }
+
     protected void logExecutionTime(String classAndMethod, StopWatch stopWatch, List<Object> queryArgs) {
         stopWatch.stop();
         long executionTime = stopWatch.getTotalTimeMillis();
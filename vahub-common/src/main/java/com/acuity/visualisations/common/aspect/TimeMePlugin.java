@@ -33,6 +33,7 @@ import org.springframework.util.StopWatch;
 
 /**
  * This adds the execution time to the raw sql from mybatis repositories
+ * and records it into the {@link #TIMER_NAME} timer tagged by statement
  *
  * @author ksnd199
  */
@@ -46,6 +47,8 @@ public class TimeMePlugin extends TimeMeLog implements Interceptor {
     private static final int MAPPED_STATEMENT_INDEX = 0;
     private static final int PARAMETER_INDEX = 1;
 
+    public static final String TIMER_NAME = "vahub.sql";
+
     @Override
     public Object intercept(Invocation invocation) throws Throwable {
 
@@ -64,8 +67,14 @@ public class TimeMePlugin extends TimeMeLog implements Interceptor {
         
         StopWatch stopWatch = new StopWatch();
         stopWatch.start();
+        long start = System.nanoTime();
 
-        Object result = invocation.proceed();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } finally {
+            recordExecutionTime(TIMER_NAME, System.nanoTime() - start, "statement", ms.getId());
+        }
 
         logExecutionTime(ms.getId(), stopWatch, queryArgs);
 
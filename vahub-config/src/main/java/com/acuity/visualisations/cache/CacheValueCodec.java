@@ -0,0 +1,29 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acuity.visualisations.cache;
+
+/**
+ * Converts cached values to bytes and back when caches write their entries to disk.
+ */
+public interface CacheValueCodec {
+
+    byte[] encode(Object value);
+
+    /**
+     * Throws a runtime exception if the bytes weren't written by this codec or were written in an older format
+     */
+    Object decode(byte[] bytes);
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acuity.visualisations.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Stores non null values of the target cache wrapped into {@link EncodedCacheValue}
+ * so that they are written to the disk tier by the cache value codec.
+ * Entries that can't be decoded any more are evicted and treated as missing.
+ */
+@RequiredArgsConstructor
+public class CodecCache implements Cache {
+
+    private static final Object UNDECODABLE = new Object();
+
+    private final Cache target;
+    private final CacheValueCodec codec;
+
+    @Override
+    public String getName() {
+        return target.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return target.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper wrapper = target.get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        Object value = unwrap(key, wrapper.get());
+        return value == UNDECODABLE ? null : new SimpleValueWrapper(value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        Object value = unwrap(key, target.get(key, Object.class));
+        if (value == UNDECODABLE) {
+            return null;
+        }
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = unwrap(key, target.get(key, () -> wrap(valueLoader.call())));
+        if (value == UNDECODABLE) {
+            value = unwrap(key, target.get(key, () -> wrap(valueLoader.call())));
+        }
+        return value == UNDECODABLE ? null : (T) value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        target.put(key, wrap(value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = target.putIfAbsent(key, wrap(value));
+        if (existing == null) {
+            return null;
+        }
+        Object existingValue = unwrap(key, existing.get());
+        if (existingValue == UNDECODABLE) {
+            target.put(key, wrap(value));
+            return null;
+        }
+        return new SimpleValueWrapper(existingValue);
+    }
+
+    @Override
+    public void evict(Object key) {
+        target.evict(key);
+    }
+
+    @Override
+    public void clear() {
+        target.clear();
+    }
+
+    private Object wrap(Object value) {
+        return value == null ? null : new EncodedCacheValue(getName(), value, codec);
+    }
+
+    private Object unwrap(Object key, Object value) {
+        if (!(value instanceof EncodedCacheValue)) {
+            return value;
+        }
+        Object decoded = ((EncodedCacheValue) value).getValue(codec);
+        if (decoded == null) {
+            target.evict(key);
+            return UNDECODABLE;
+        }
+        return decoded;
+    }
+}
@@ -16,33 +16,95 @@
 
 package com.acuity.visualisations.cache;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.EhCache2Metrics;
 import lombok.extern.slf4j.Slf4j;
 import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Ehcache;
 import org.springframework.cache.Cache;
 import org.springframework.cache.ehcache.EhCacheCacheManager;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Overrides EhCacheCacheManager so that any caches in the application that arent configured in the ehcache.xml are then
- * created on the fly.
+ * created on the fly. Cached values are written to the disk tier by the given {@link CacheValueCodec}.
+ * Once {@link #bindMetrics(MeterRegistry)} is called, metrics of the caches are bound, including the caches created later.
  *
  * @author glen
  */
 @Slf4j
 public class CustomEhCacheCacheManager extends EhCacheCacheManager {
+    private final Set<String> cachesWithMetrics = ConcurrentHashMap.newKeySet();
+    private final CacheValueCodec codec;
+    private volatile MeterRegistry meterRegistry;
+
     public CustomEhCacheCacheManager(CacheManager cacheManager) {
+        this(cacheManager, new KryoCacheValueCodec());
+    }
+
+    public CustomEhCacheCacheManager(CacheManager cacheManager, CacheValueCodec codec) {
         super(cacheManager);
+        this.codec = codec;
     }
 
     public CustomEhCacheCacheManager() {
+        this.codec = new KryoCacheValueCodec();
     }
-    
+
     @Override
     public Cache getCache(String name) {
         boolean exists = getCacheManager().cacheExists(name); // used defaultcache implementation
         if (!exists) {
             getCacheManager().addCacheIfAbsent(name);
             log.debug("Created cache " + name + ", " + getCacheManager().getActiveConfigurationText(name));
+            bindMetrics(name);
         }
         return super.getCache(name);
     }
+
+    /**
+     * Binds gets by result, puts, evictions and sizes of all the caches, the ones created on the fly are bound when created
+     */
+    public void bindMetrics(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        for (String name : getCacheManager().getCacheNames()) {
+            bindMetrics(name);
+        }
+    }
+
+    private void bindMetrics(String name) {
+        MeterRegistry registry = meterRegistry;
+        Ehcache cache = getCacheManager().getEhcache(name);
+        if (registry != null && cache != null && cachesWithMetrics.add(name)) {
+            new EhCache2Metrics(cache, Collections.emptyList()).bindTo(registry);
+        }
+    }
+
+    @Override
+    protected Cache decorateCache(Cache cache) {
+        return new CodecCache(super.decorateCache(cache), codec);
+    }
+
+    /**
+     * Sizes of all the caches by cache name
+     */
+    public Map<String, CacheSize> getCacheSizes() {
+        Map<String, CacheSize> sizes = new TreeMap<>();
+        for (String name : getCacheManager().getCacheNames()) {
+            Ehcache cache = getCacheManager().getEhcache(name);
+            if (cache != null) {
+                sizes.put(name, new CacheSize(name,
+                        cache.getStatistics().getLocalHeapSize(),
+                        cache.getStatistics().getLocalDiskSize(),
+                        cache.getStatistics().getLocalDiskSizeInBytes(),
+                        EncodedCacheValue.getEncodedBytes(name)));
+            }
+        }
+        return sizes;
+    }
 }
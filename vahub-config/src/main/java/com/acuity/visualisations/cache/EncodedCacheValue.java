@@ -0,0 +1,140 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acuity.visualisations.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holder put into ehcache instead of the cached value. Ehcache keeps it as is in memory and java-serializes it
+ * only when the entry is spooled to the disk tier, which happens on the disk store's own writer thread.
+ * At that point the value is written by the {@link CacheValueCodec} it was created with rather than by java serialization,
+ * falling back to java serialization for values the codec can't handle. An entry read back from the disk tier
+ * keeps the bytes only, they are decoded by {@link #getValue(CacheValueCodec)} of the cache reading it.
+ */
+@Slf4j
+public final class EncodedCacheValue implements Externalizable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final byte CODEC_FORMAT = 1;
+    private static final byte JAVA_FORMAT = 2;
+
+    private static final Map<String, AtomicLong> ENCODED_BYTES = new ConcurrentHashMap<>();
+
+    private String cacheName;
+    private transient volatile Object value;
+    private transient CacheValueCodec codec;
+    private transient byte format;
+    private transient byte[] bytes;
+
+    /**
+     * Used by java serialization only
+     */
+    public EncodedCacheValue() {
+    }
+
+    public EncodedCacheValue(String cacheName, Object value, CacheValueCodec codec) {
+        this.cacheName = cacheName;
+        this.value = value;
+        this.codec = codec;
+    }
+
+    /**
+     * Total bytes written to disk for the cache since the application start
+     */
+    public static long getEncodedBytes(String cacheName) {
+        AtomicLong bytes = ENCODED_BYTES.get(cacheName);
+        return bytes == null ? 0 : bytes.get();
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    /**
+     * The cached value, decoded by the given codec if the entry was read from disk.
+     * Null if the bytes can't be decoded, e.g. were written by an older version of the application,
+     * so such an entry should be treated as missing.
+     */
+    public Object getValue(CacheValueCodec cacheValueCodec) {
+        Object decoded = value;
+        if (decoded != null || bytes == null) {
+            return decoded;
+        }
+        try {
+            decoded = format == CODEC_FORMAT ? cacheValueCodec.decode(bytes) : javaDeserialize(bytes);
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            log.warn("Ignoring the entry of cache {} that can't be decoded: {}", cacheName, e.getMessage());
+            return null;
+        }
+        value = decoded;
+        return decoded;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        byte writtenFormat = format;
+        byte[] writtenBytes = bytes;
+        if (writtenBytes == null) {
+            writtenFormat = CODEC_FORMAT;
+            try {
+                writtenBytes = codec.encode(value);
+            } catch (RuntimeException e) {
+                log.debug("Falling back to java serialization for {} in cache {}: {}", value.getClass(), cacheName, e.getMessage());
+                writtenFormat = JAVA_FORMAT;
+                writtenBytes = javaSerialize(value);
+            }
+        }
+        out.writeUTF(cacheName);
+        out.writeByte(writtenFormat);
+        out.writeInt(writtenBytes.length);
+        out.write(writtenBytes);
+        ENCODED_BYTES.computeIfAbsent(cacheName, name -> new AtomicLong()).addAndGet(writtenBytes.length);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        cacheName = in.readUTF();
+        format = in.readByte();
+        bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+    }
+    private static byte[] javaSerialize(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object javaDeserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+}
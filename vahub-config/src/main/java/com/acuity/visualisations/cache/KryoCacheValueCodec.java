@@ -0,0 +1,110 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acuity.visualisations.cache;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.pool.KryoPool;
+import com.esotericsoftware.kryo.serializers.CompatibleFieldSerializer;
+import de.javakaffee.kryoserializers.ArraysAsListSerializer;
+import de.javakaffee.kryoserializers.CollectionsEmptyListSerializer;
+import de.javakaffee.kryoserializers.CollectionsEmptyMapSerializer;
+import de.javakaffee.kryoserializers.CollectionsEmptySetSerializer;
+import de.javakaffee.kryoserializers.CollectionsSingletonListSerializer;
+import de.javakaffee.kryoserializers.CollectionsSingletonMapSerializer;
+import de.javakaffee.kryoserializers.CollectionsSingletonSetSerializer;
+import de.javakaffee.kryoserializers.SynchronizedCollectionsSerializer;
+import de.javakaffee.kryoserializers.UnmodifiableCollectionsSerializer;
+import org.objenesis.strategy.StdInstantiatorStrategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Kryo based codec. Common JDK classes are registered, so they are written as small ids,
+ * other classes are written by name once per entry. Fields are written with their names by
+ * {@link CompatibleFieldSerializer}, so entries persisted before a field was added or removed are still readable.
+ */
+public class KryoCacheValueCodec implements CacheValueCodec {
+
+    /**
+     * Version of the encoded layout, should be increased on changes of registered serializers
+     * to make entries on the disk tier rejected instead of being read in a wrong format
+     */
+    private static final int KRYO_FORMAT_VERSION = 1;
+    private static final int BUFFER_SIZE = 4096;
+
+    private final KryoPool pool = new KryoPool.Builder(KryoCacheValueCodec::newKryo).softReferences().build();
+
+    // the Arrays.asList method is deliberately used here without arguments to receive Arrays.ArrayList class object from it
+    @SuppressWarnings("ArraysAsListWithZeroOrOneArgument")
+    private static Kryo newKryo() {
+        Kryo kryo = new Kryo();
+        kryo.setReferences(true);
+        kryo.setRegistrationRequired(false);
+        kryo.setInstantiatorStrategy(new Kryo.DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
+        kryo.setDefaultSerializer(CompatibleFieldSerializer.class);
+        kryo.register(ArrayList.class);
+        kryo.register(HashMap.class);
+        kryo.register(HashSet.class);
+        kryo.register(LinkedHashMap.class);
+        kryo.register(LinkedHashSet.class);
+        kryo.register(TreeMap.class);
+        kryo.register(TreeSet.class);
+        kryo.register(Date.class);
+        kryo.register(Arrays.asList().getClass(), new ArraysAsListSerializer());
+        kryo.register(Collections.emptyList().getClass(), new CollectionsEmptyListSerializer());
+        kryo.register(Collections.emptyMap().getClass(), new CollectionsEmptyMapSerializer());
+        kryo.register(Collections.emptySet().getClass(), new CollectionsEmptySetSerializer());
+        kryo.register(Collections.singletonList("").getClass(), new CollectionsSingletonListSerializer());
+        kryo.register(Collections.singleton("").getClass(), new CollectionsSingletonSetSerializer());
+        kryo.register(Collections.singletonMap("", "").getClass(), new CollectionsSingletonMapSerializer());
+        UnmodifiableCollectionsSerializer.registerSerializers(kryo);
+        SynchronizedCollectionsSerializer.registerSerializers(kryo);
+        return kryo;
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        return pool.run(kryo -> {
+            Output output = new Output(BUFFER_SIZE, -1);
+            output.writeInt(KRYO_FORMAT_VERSION);
+            kryo.writeClassAndObject(output, value);
+            return output.toBytes();
+        });
+    }
+
+    @Override
+    public Object decode(byte[] bytes) {
+        return pool.run(kryo -> {
+            Input input = new Input(bytes);
+            int version = input.readInt();
+            if (version != KRYO_FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported cache value format version " + version);
+            }
+            return kryo.readClassAndObject(input);
+        });
+    }
+}
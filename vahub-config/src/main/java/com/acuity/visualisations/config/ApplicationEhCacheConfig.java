@@ -19,7 +19,8 @@ package com.acuity.visualisations.config;
 import com.acuity.visualisations.cache.CustomEhCacheCacheManager;
 import com.acuity.visualisations.cache.DiskCacheService;
 import com.acuity.visualisations.cache.DiskStoreBootstrapAllCacheLoader;
-import org.springframework.cache.CacheManager;
+import com.acuity.visualisations.cache.KryoCacheValueCodec;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.cache.ehcache.EhCacheFactoryBean;
 import org.springframework.cache.ehcache.EhCacheManagerFactoryBean;
 import org.springframework.context.annotation.Bean;
@@ -43,8 +44,8 @@ public class ApplicationEhCacheConfig {
     }
 
     @Bean
-    public CacheManager cacheManager() {
-        return new CustomEhCacheCacheManager(ehCacheCacheManager().getObject());
+    public CustomEhCacheCacheManager cacheManager() {
+        return new CustomEhCacheCacheManager(ehCacheCacheManager().getObject(), new KryoCacheValueCodec());
     }
 
     @Bean
@@ -60,6 +61,15 @@ public class ApplicationEhCacheConfig {
         return cmfb;
     }
 
+    /**
+     * Gets, puts, evictions and sizes of the ehcache caches, the hit ratio is derived from gets by result.
+     * Caches created on the fly by the cache manager are bound when they are created
+     */
+    @Bean
+    public MeterBinder ehCacheMetrics() {
+        return registry -> cacheManager().bindMetrics(registry);
+    }
+
     @Bean
     public EhCacheFactoryBean ehCacheFactory() {
         EhCacheFactoryBean ehCacheFactory = new EhCacheFactoryBean();
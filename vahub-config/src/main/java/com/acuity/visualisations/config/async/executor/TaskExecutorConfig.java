@@ -19,6 +19,9 @@ package com.acuity.visualisations.config.async.executor;
 import com.acuity.visualisations.config.async.executor.context.MDCTaskContextCapturer;
 import com.acuity.visualisations.config.async.executor.context.SecurityTaskContextCapturer;
 import com.acuity.visualisations.config.async.executor.context.TaskContextCapturer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.task.AsyncTaskExecutor;
@@ -27,6 +30,7 @@ import org.springframework.security.concurrent.DelegatingSecurityContextSchedule
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -34,6 +38,8 @@ import java.util.concurrent.ScheduledExecutorService;
 @Configuration
 public class TaskExecutorConfig {
 
+    private final ThreadPoolTaskExecutor asyncThreadPool = new ThreadPoolTaskExecutor();
+
     @Bean("scheduledTaskExecutor")
     public Executor scheduledTaskExecutor() {
         ScheduledExecutorService executor = Executors.newScheduledThreadPool(16);
@@ -42,7 +48,7 @@ public class TaskExecutorConfig {
 
     @Bean("asyncTaskExecutor")
     public AsyncTaskExecutor delegatingSecurityContextAsyncTaskExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        ThreadPoolTaskExecutor executor = asyncThreadPool;
 
         executor.setCorePoolSize(16);
         executor.setQueueCapacity(1000);
@@ -58,4 +64,14 @@ public class TaskExecutorConfig {
         return new DelegatingAsyncTaskExecutor(executor, capturers);
     }
 
+    /**
+     * Pool size, active threads and queue depth of the async task executor,
+     * the executor is injected to bind the metrics after the pool is initialized
+     */
+    @Bean
+    public MeterBinder asyncTaskExecutorMetrics(@Qualifier("asyncTaskExecutor") AsyncTaskExecutor asyncTaskExecutor) {
+        return registry -> new ExecutorServiceMetrics(asyncThreadPool.getThreadPoolExecutor(), "asyncTaskExecutor",
+                Collections.emptyList()).bindTo(registry);
+    }
+
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acuity.visualisations.cache;
+
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CodecCacheTest {
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    @Test
+    public void shouldWrapValuesAndReturnThemUnwrapped() {
+        ConcurrentMapCache target = new ConcurrentMapCache("test");
+        CodecCache cache = new CodecCache(target, new KryoCacheValueCodec());
+
+        cache.put("a", "value");
+        cache.put("b", null);
+
+        softly.assertThat(target.get("a").get()).isInstanceOf(EncodedCacheValue.class);
+        softly.assertThat(cache.get("a").get()).isEqualTo("value");
+        softly.assertThat(cache.get("a", String.class)).isEqualTo("value");
+        softly.assertThat(cache.get("b").get()).isNull();
+        softly.assertThat(cache.get("c")).isNull();
+        softly.assertThat(cache.get("c", () -> "loaded")).isEqualTo("loaded");
+        softly.assertThat(target.get("c").get()).isInstanceOf(EncodedCacheValue.class);
+        softly.assertThat(cache.putIfAbsent("a", "other").get()).isEqualTo("value");
+        softly.assertThat(cache.getNativeCache()).isSameAs(target.getNativeCache());
+    }
+
+    @Test
+    public void shouldRoundTripValuesThroughJavaSerialization() throws Exception {
+        Map<String, Object> value = new HashMap<>();
+        value.put("list", Arrays.asList(1, 2, 3));
+        value.put("empty", Collections.emptyList());
+        value.put("date", new Date(1000L));
+        value.put("nested", new Nested("name", Collections.singletonList(2.5)));
+
+        KryoCacheValueCodec codec = new KryoCacheValueCodec();
+        EncodedCacheValue read = roundTrip(new EncodedCacheValue("roundTrip", value, codec));
+
+        softly.assertThat(read.getCacheName()).isEqualTo("roundTrip");
+        softly.assertThat(read.getValue(codec)).isEqualTo(value);
+        softly.assertThat(EncodedCacheValue.getEncodedBytes("roundTrip")).isPositive();
+    }
+
+    @Test
+    public void shouldFallBackToJavaSerializationWhenCodecFails() throws Exception {
+        EncodedCacheValue read = roundTrip(new EncodedCacheValue("fallback", "value", new FailingCodec()));
+
+        softly.assertThat(read.getValue(new FailingCodec())).isEqualTo("value");
+    }
+
+    @Test
+    public void shouldTreatUndecodableEntriesAsMissing() throws Exception {
+        ConcurrentMapCache target = new ConcurrentMapCache("test");
+        CodecCache cache = new CodecCache(target, new FailingDecodeCodec());
+
+        target.put("a", roundTrip(new EncodedCacheValue("test", "value", new KryoCacheValueCodec())));
+        softly.assertThat(cache.get("a")).isNull();
+        softly.assertThat(target.get("a")).isNull();
+
+        target.put("b", roundTrip(new EncodedCacheValue("test", "value", new KryoCacheValueCodec())));
+        softly.assertThat(cache.get("b", () -> "loaded")).isEqualTo("loaded");
+
+        target.put("c", roundTrip(new EncodedCacheValue("test", "value", new KryoCacheValueCodec())));
+        softly.assertThat(cache.putIfAbsent("c", "put")).isNull();
+        softly.assertThat(((EncodedCacheValue) target.get("c").get()).getValue(new FailingDecodeCodec())).isEqualTo("put");
+    }
+
+    @Test
+    public void shouldRejectBytesOfAnotherFormatVersion() {
+        KryoCacheValueCodec codec = new KryoCacheValueCodec();
+        byte[] bytes = codec.encode("value");
+        bytes[3]++;
+
+        softly.assertThat(codec.decode(codec.encode("value"))).isEqualTo("value");
+        assertThatThrownBy(() -> codec.decode(bytes)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static EncodedCacheValue roundTrip(EncodedCacheValue value) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (EncodedCacheValue) in.readObject();
+        }
+    }
+
+    private static class FailingCodec implements CacheValueCodec {
+        @Override
+        public byte[] encode(Object value) {
+            throw new IllegalStateException("unsupported");
+        }
+
+        @Override
+        public Object decode(byte[] bytes) {
+            throw new IllegalStateException("unsupported");
+        }
+    }
+
+    private static final class FailingDecodeCodec extends FailingCodec {
+        private final KryoCacheValueCodec codec = new KryoCacheValueCodec();
+
+        @Override
+        public byte[] encode(Object value) {
+            return codec.encode(value);
+        }
+    }
+
+    private static final class Nested {
+        private final String name;
+        private final List<Double> values;
+
+        Nested(String name, List<Double> values) {
+            this.name = name;
+            this.values = values;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Nested && name.equals(((Nested) o).name) && values.equals(((Nested) o).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode();
+        }
+    }
+}
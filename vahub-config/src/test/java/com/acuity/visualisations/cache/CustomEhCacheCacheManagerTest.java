@@ -0,0 +1,80 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acuity.visualisations.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.config.Configuration;
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class CustomEhCacheCacheManagerTest {
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    private CacheManager ehCacheManager;
+
+    @Before
+    public void setUp() {
+        ehCacheManager = CacheManager.newInstance(new Configuration()
+                .name("customEhCacheCacheManagerTest")
+                .defaultCache(new CacheConfiguration().maxEntriesLocalHeap(10))
+                .cache(new CacheConfiguration("configured", 10)));
+    }
+
+    @After
+    public void tearDown() {
+        ehCacheManager.shutdown();
+    }
+
+    @Test
+    public void shouldBindMetricsOfConfiguredAndCreatedCaches() {
+        CustomEhCacheCacheManager cacheManager = new CustomEhCacheCacheManager(ehCacheManager);
+        cacheManager.afterPropertiesSet();
+        MeterRegistry registry = new SimpleMeterRegistry();
+
+        cacheManager.bindMetrics(registry);
+        cacheManager.getCache("created").put("key", "value");
+        cacheManager.getCache("created").get("key");
+        cacheManager.getCache("created").get("other");
+
+        softly.assertThat(registry.find("cache.size").tags("cache", "configured").gauge()).isNotNull();
+        softly.assertThat(registry.find("cache.size").tags("cache", "created").gauge()).isNotNull();
+        softly.assertThat(registry.find("cache.gets").tags("cache", "created", "result", "hit").functionCounter().count())
+                .isEqualTo(1);
+        softly.assertThat(registry.find("cache.gets").tags("cache", "created", "result", "miss").functionCounter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotBindMetricsBeforeRegistryIsGiven() {
+        CustomEhCacheCacheManager cacheManager = new CustomEhCacheCacheManager(ehCacheManager);
+        cacheManager.afterPropertiesSet();
+        MeterRegistry registry = new SimpleMeterRegistry();
+
+        cacheManager.getCache("createdBefore");
+        cacheManager.bindMetrics(registry);
+        cacheManager.bindMetrics(registry);
+
+        softly.assertThat(registry.find("cache.size").tags("cache", "createdBefore").gauges()).hasSize(1);
+    }
+}
@@ -60,6 +60,11 @@ public class CardiacDatasetsDataProvider extends SubjectAwareDatasetsDataProvide
     private static final String INTP = "INTP";
     private static final String ECG = "ECG";
 
+    @Override
+    protected boolean isDataInstanceReused() {
+        return false;
+    }
+
     @Override
     protected Collection<CardiacRaw> getData(Dataset dataset) {
         Collection<CardiacRaw> events = new ArrayList<>();
@@ -44,6 +44,11 @@ public class ConmedDatasetsDataProvider extends SubjectAwareDatasetsDataProvider
         return ConmedRaw.class;
     }
 
+    @Override
+    protected boolean isDataInstanceReused() {
+        return false;
+    }
+
     @Override
     protected Collection<ConmedRaw> getData(Dataset ds) {
         return new ArrayList<>(conmedRepository.getRawData(ds.getId()));
@@ -280,6 +280,11 @@ public class DrugDoseDatasetsDataProvider extends SubjectAwareDatasetsDataProvid
                 .collect(toList());
     }
 
+    @Override
+    protected boolean isDataInstanceReused() {
+        return false;
+    }
+
     @Override
     protected Collection<DrugDoseRaw> getData(Dataset ds) {
         Collection<DrugDoseRaw> drugDoses = drugDoseRepository.getRawData(ds.getId());
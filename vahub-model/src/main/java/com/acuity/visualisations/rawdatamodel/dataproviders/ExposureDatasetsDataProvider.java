@@ -17,23 +17,51 @@
 package com.acuity.visualisations.rawdatamodel.dataproviders;
 
 import com.acuity.visualisations.rawdatamodel.dataproviders.common.SubjectAwareDatasetsRegularDataProvider;
+import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartGroupByOptions;
+import com.acuity.visualisations.rawdatamodel.trellis.grouping.ExposureGroupByOptions;
+import com.acuity.visualisations.rawdatamodel.trellis.grouping.GroupByAttributes;
 import com.acuity.visualisations.rawdatamodel.vo.ExposureRaw;
 import com.acuity.visualisations.rawdatamodel.vo.Subject;
 import com.acuity.visualisations.rawdatamodel.vo.exposure.Cycle;
 import com.acuity.visualisations.rawdatamodel.vo.wrappers.Exposure;
 import com.acuity.va.security.acl.domain.Dataset;
+import com.acuity.va.security.acl.domain.Datasets;
 import org.apache.commons.math3.util.Precision;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Component;
 
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import static com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartGroupByOptions.ChartGroupBySetting.SERIES_BY;
+import static com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartGroupByOptions.GroupByOptionAndParams;
+import static com.acuity.visualisations.rawdatamodel.trellis.grouping.ExposureGroupByOptions.SUBJECT_CYCLE;
 import static com.acuity.visualisations.rawdatamodel.util.Constants.MINUTES_IN_HOUR;
 
 @Component
 public class ExposureDatasetsDataProvider extends SubjectAwareDatasetsRegularDataProvider<ExposureRaw, Exposure> {
 
+    /**
+     * Ids of the events belonging to series of more than one point, a series being the events of one subject cycle in a trellis.
+     * Concentration plots drop one-point series before applying any filters, so this is cached along with the datasets data.
+     */
+    @Cacheable(keyGenerator = "datasetsKeyGenerator", cacheResolver = "refreshableCacheResolver")
+    public Set<String> loadMultiPointSeriesEventIds(Datasets datasets,
+                                                    Set<GroupByOptionAndParams<Exposure, ExposureGroupByOptions>> trellisOptions) {
+        ChartGroupByOptions<Exposure, ExposureGroupByOptions> seriesOptions = ChartGroupByOptions.<Exposure, ExposureGroupByOptions>builder()
+                .withTrellisOptions(trellisOptions)
+                .withOption(SERIES_BY, SUBJECT_CYCLE.getGroupByOptionAndParams())
+                .build();
+        return GroupByAttributes.group(loadData(datasets), seriesOptions).values().stream()
+                .filter(series -> series.size() > 1)
+                .flatMap(Collection::stream)
+                .map(Exposure::getId)
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
     @Override
     protected Collection<ExposureRaw> getData(Dataset dataset) {
         return dataProvider.getData(ExposureRaw.class, dataset, ds -> {
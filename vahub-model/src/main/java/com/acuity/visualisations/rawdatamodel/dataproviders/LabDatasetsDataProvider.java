@@ -51,6 +51,11 @@ public class LabDatasetsDataProvider extends SubjectAwareDatasetsRegularDataProv
     @Autowired
     private PopulationDatasetsDataProvider populationDatasetsDataProvider;
 
+    @Override
+    protected boolean isDataInstanceReused() {
+        return false;
+    }
+
     @Override
     protected Collection<LabRaw> getData(Dataset dataset) {
         final Map<String, Subject> subjects = populationDatasetsDataProvider.loadData(new Datasets(dataset))
@@ -72,6 +72,11 @@ public class LiverDatasetsDataProvider extends SubjectAwareDatasetsDataProvider<
     }
 
 
+    @Override
+    protected boolean isDataInstanceReused() {
+        return false;
+    }
+
     @Override
     protected Collection<LiverRaw> getData(Dataset dataset) {
         Collection<LabRaw> labs = labDatasetsDataProvider.getData(dataset);
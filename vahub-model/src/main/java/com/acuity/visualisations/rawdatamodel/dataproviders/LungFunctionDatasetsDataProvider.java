@@ -47,6 +47,11 @@ public class LungFunctionDatasetsDataProvider
 
     private final PopulationDatasetsDataProvider populationDatasetsDataProvider;
 
+    @Override
+    protected boolean isDataInstanceReused() {
+        return false;
+    }
+
     @Override
     protected Collection<LungFunctionRaw> getData(Dataset dataset) {
         List<LungFunctionRaw> events = new ArrayList<>(rawDataRepository.getRawData(dataset.getId()));
@@ -112,10 +112,8 @@ public class PopulationDatasetsDataProvider extends DatasetsDataProvider<Subject
 
     @Override
     protected Collection<Subject> wrap(Datasets datasets, Collection<Subject> events) {
-        List<Subject> eventsToMerge = events.stream()
-                .map(s -> s.toBuilder().build())
-                .collect(Collectors.toList());
-        return mergeDatasets(datasets, eventsToMerge);
+        // subjects are immutable, merging builds new instances only for the subjects it changes
+        return mergeDatasets(datasets, events);
     }
 
     @Override
@@ -26,6 +26,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.stream.Collectors;
@@ -46,7 +47,7 @@ public class StudyInfoDataProvider extends DatasetsDataProvider<StudyInfo, Study
 
     @Override
     protected Collection<StudyInfo> wrap(Datasets datasets, Collection<StudyInfo> events) {
-        return events;
+        return new ArrayList<>(events);
     }
 
     @Override
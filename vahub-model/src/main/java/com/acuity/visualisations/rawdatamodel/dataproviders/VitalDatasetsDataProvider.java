@@ -39,6 +39,11 @@ import java.util.stream.Collectors;
 @Component
 public class VitalDatasetsDataProvider extends SubjectAwareDatasetsRegularDataProvider<VitalRaw, Vital> {
 
+    @Override
+    protected boolean isDataInstanceReused() {
+        return false;
+    }
+
     @Override
     protected Collection<VitalRaw> getData(Dataset ds) {
         Collection<VitalRaw> events = rawDataRepository.getRawData(ds.getId());
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.dataproviders.common;
+
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Events derived from loaded collections, valid as long as these very collections are the loaded ones.
+ * Sources are weakly referenced, so a projection doesn't keep evicted data in memory
+ */
+final class DataProjection<W> {
+
+    private final List<WeakReference<Object>> sources;
+    private final Collection<W> events;
+
+    private DataProjection(List<WeakReference<Object>> sources, Collection<W> events) {
+        this.sources = sources;
+        this.events = events;
+    }
+
+    static <W> DataProjection<W> of(List<?> sources, Collection<W> events) {
+        return new DataProjection<>(sources.stream().map(WeakReference<Object>::new).collect(Collectors.toList()), events);
+    }
+
+    boolean isDerivedFrom(List<?> currentSources) {
+        if (sources.size() != currentSources.size()) {
+            return false;
+        }
+        for (int i = 0; i < sources.size(); i++) {
+            if (sources.get(i).get() != currentSources.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    Collection<W> getEvents() {
+        return events;
+    }
+}
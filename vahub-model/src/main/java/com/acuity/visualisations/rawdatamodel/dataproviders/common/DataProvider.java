@@ -61,8 +61,17 @@ import static com.acuity.visualisations.rawdatamodel.dataproviders.common.DataPr
 public class DataProvider implements CacheableDataProvider {
 
     public static final int CACHE_WRITE_LOCK_ACQUIRE_TIMEOUT_SEC = 5;
+    /**
+     * Version of the kryo file layout, should be increased on changes of registered serializers
+     * to make existing files ignored instead of being read in a wrong format
+     */
+    private static final int KRYO_FORMAT_VERSION = 2;
     private static final String DETECT = "detect";
     private static final String ACUITY = "visualisations";
+    /**
+     * Placeholder of the keys never loaded, so a cleared reference can be told apart from a missing one
+     */
+    private static final SoftReference<?> NOT_LOADED = new SoftReference<>(null);
     private final ConcurrentMap<Long, ReadWriteLock> datasetKryoLocks = new ConcurrentHashMap<>();
     private final ConcurrentMap<Long, ReadWriteLock> datasetCacheLocks = new ConcurrentHashMap<>();
     private final ReadWriteLock globalLock = new ReentrantReadWriteLock();
@@ -73,6 +82,8 @@ public class DataProvider implements CacheableDataProvider {
 
     private KryoContext kryoContext;
 
+    private final DataProviderStatistics statistics = new DataProviderStatistics();
+
     @Autowired
     public DataProvider(@Value("${kryo.storage.location}") String kryoStorage, KryoContext context) {
         this.kryoStorage = kryoStorage;
@@ -127,12 +138,14 @@ public class DataProvider implements CacheableDataProvider {
         try {
             final ImmutablePair<Dataset, Class> key = new ImmutablePair<>(dataset, clazz);
             //Concurrent hash map computeIfAbsent provides sync by itself, no need to writeLock here:
-            Object o = cache.computeIfAbsent(key, ds -> new SoftReference<>(null)).get();
+            SoftReference<?> reference = cache.computeIfAbsent(key, ds -> NOT_LOADED);
+            Object o = reference.get();
             if (o == null) {
                 datasetCacheLock.readLock().unlock();
                 readLocked = false;
                 if (datasetCacheLock.writeLock().tryLock(CACHE_WRITE_LOCK_ACQUIRE_TIMEOUT_SEC, TimeUnit.SECONDS)) {
                     log.info("Data for {} was evicted from cache, reading again", getDatasetAndClassString(dataset, clazz));
+                    statistics.miss(reference != NOT_LOADED);
                     try {
                         final Collection<T> res = sourceDataSupplier.get();
                         cache.put(key, new SoftReference<Object>(res));
@@ -147,6 +160,7 @@ public class DataProvider implements CacheableDataProvider {
                 }
             } else {
                 log.debug("Data for {} found in cache", getDatasetAndClassString(dataset, clazz));
+                statistics.hit();
                 return (Collection<T>) o;
             }
         } finally {
@@ -168,10 +182,12 @@ public class DataProvider implements CacheableDataProvider {
         try {
             globalLock.readLock().lock();
 
-            return Collections.unmodifiableCollection(getFromCache(
+            // the read-only view is cached itself, so callers get the same instance until it's evicted
+            return getFromCache(
                     clazz,
                     dataset,
-                    () -> readDataset(clazz, dataset, sourceDataSupplier, datasetKryoLock), datasetCacheLock));
+                    () -> Collections.unmodifiableCollection(readDataset(clazz, dataset, sourceDataSupplier, datasetKryoLock)),
+                    datasetCacheLock);
         } finally {
             globalLock.readLock().unlock();
         }
@@ -198,8 +214,10 @@ public class DataProvider implements CacheableDataProvider {
 
                     log.info("Reading {} from {}", getDatasetAndClassString(dataset, clazz), path);
                     final List<T> ts;
+                    long start = System.nanoTime();
                     try (FileInputStream fileInputStream = new FileInputStream(path.toString()); Input input = new Input(fileInputStream)) {
                         ts = (List<T>) kryo.readClassAndObject(input);
+                        statistics.kryoLoaded(input.total(), System.nanoTime() - start);
                         log.info("Read {} items for {}", ts.size(), getDatasetAndClassString(dataset, clazz));
                         return ts;
                     }
@@ -224,11 +242,22 @@ public class DataProvider implements CacheableDataProvider {
         });
     }
 
+    public DataProviderStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Number of datasets entities held in memory, i.e. not collected by the garbage collector yet
+     */
+    public int getCacheSize() {
+        return (int) cache.values().stream().filter(reference -> reference.get() != null).count();
+    }
+
     @Override
     public <T> Path resolvePath(Class<T> clazz, Dataset dataset) {
         int version;
         version = getEntityClassVersion(clazz);
-        String fileName = String.format("%s_v%d_%s_dataset_%s.kryo", clazz.getSimpleName(), version,
+        String fileName = String.format("%s_v%d_f%d_%s_dataset_%s.kryo", clazz.getSimpleName(), version, KRYO_FORMAT_VERSION,
                 dataset.getShortNameByType(), dataset.getId().toString());
         return getKryoStoragePath().resolve(Paths.get(dataset.getShortNameByType(), dataset.getId().toString(), fileName));
     }
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.dataproviders.common;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Exposes {@link DataProvider} cache size, hits, misses, evictions and kryo files reading as metrics
+ */
+@Component
+@RequiredArgsConstructor
+public class DataProviderMetrics implements MeterBinder {
+
+    private static final String PREFIX = "vahub.dataprovider.";
+
+    private final DataProvider dataProvider;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(PREFIX + "cache.size", dataProvider, DataProvider::getCacheSize)
+                .description("Number of datasets entities held in memory")
+                .register(registry);
+        counter(registry, "cache.hits", DataProviderStatistics::getHits);
+        counter(registry, "cache.misses", DataProviderStatistics::getMisses);
+        counter(registry, "cache.evictions", DataProviderStatistics::getEvictions);
+        counter(registry, "kryo.loads", DataProviderStatistics::getKryoLoads);
+        FunctionCounter.builder(PREFIX + "kryo.load.bytes", dataProvider.getStatistics(), DataProviderStatistics::getKryoLoadBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder(PREFIX + "kryo.load.seconds", dataProvider.getStatistics(),
+                s -> s.getKryoLoadNanos() / (double) TimeUnit.SECONDS.toNanos(1))
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    private void counter(MeterRegistry registry, String name, ToDoubleFunction<DataProviderStatistics> count) {
+        FunctionCounter.builder(PREFIX + name, dataProvider.getStatistics(), count).register(registry);
+    }
+}
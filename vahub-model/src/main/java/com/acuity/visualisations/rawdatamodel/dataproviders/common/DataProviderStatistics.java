@@ -0,0 +1,76 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.dataproviders.common;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the {@link DataProvider} in-memory cache and kryo files reading
+ */
+public final class DataProviderStatistics {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder kryoLoads = new LongAdder();
+    private final LongAdder kryoLoadBytes = new LongAdder();
+    private final LongAdder kryoLoadNanos = new LongAdder();
+
+    void hit() {
+        hits.increment();
+    }
+
+    /**
+     * @param evicted whether the data was loaded before, but has been collected by the garbage collector
+     */
+    void miss(boolean evicted) {
+        misses.increment();
+        if (evicted) {
+            evictions.increment();
+        }
+    }
+
+    void kryoLoaded(long bytes, long nanos) {
+        kryoLoads.increment();
+        kryoLoadBytes.add(bytes);
+        kryoLoadNanos.add(nanos);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getKryoLoads() {
+        return kryoLoads.sum();
+    }
+
+    public long getKryoLoadBytes() {
+        return kryoLoadBytes.sum();
+    }
+
+    public long getKryoLoadNanos() {
+        return kryoLoadNanos.sum();
+    }
+}
@@ -21,29 +21,93 @@ import com.acuity.visualisations.common.lookup.CacheableDataProvider;
 import com.acuity.visualisations.rawdatamodel.vo.PrecalculationSupport;
 import com.acuity.va.security.acl.domain.Dataset;
 import com.acuity.va.security.acl.domain.Datasets;
-import lombok.SneakyThrows;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 public abstract class DatasetsDataProvider<R, T> {
+    /**
+     * Set for the loading executor threads, so that nested loading of other datasets is done in the same thread
+     * rather than waiting for the bounded pool it occupies
+     */
+    private static final ThreadLocal<Boolean> LOADING_PARTITION = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
     @Autowired
     protected BeanLookupService lkup;
 
     @Autowired
     protected CacheableDataProvider dataProvider;
 
-    @SneakyThrows
+    @Autowired(required = false)
+    @Qualifier("datasetsLoadingExecutor")
+    private ExecutorService datasetsLoadingExecutor;
+
     public Collection<T> loadData(Datasets datasets) {
-         List<R> events = datasets.getDatasets().stream()
-                .map(this::getData)
-                .flatMap(Collection::stream)
-                .map(e -> e instanceof PrecalculationSupport ? ((PrecalculationSupport<R>) e).runPrecalculations() : e)
+        return wrap(datasets, loadPartitions(datasets));
+    }
+
+    /**
+     * Loads data of every dataset as a separate partition (concurrently, if several datasets are requested)
+     * and returns them as a single concatenated read-only collection, so loading time is bounded by the slowest dataset
+     */
+    protected Collection<R> loadPartitions(Datasets datasets) {
+        Collection<Dataset> datasetList = datasets.getDatasets();
+        if (datasetList.size() == 1) {
+            return new PartitionedCollection<>(Collections.singletonList(loadPartition(datasetList.iterator().next())));
+        }
+        if (datasetsLoadingExecutor == null || LOADING_PARTITION.get()) {
+            return new PartitionedCollection<>(datasetList.stream()
+                    .map(this::loadPartition)
+                    .collect(Collectors.toList()));
+        }
+        List<Future<Collection<R>>> futures = datasetList.stream()
+                .map(dataset -> datasetsLoadingExecutor.submit(() -> loadPartitionInWorker(dataset)))
                 .collect(Collectors.toList());
+        List<Collection<R>> partitions = new ArrayList<>(futures.size());
+        try {
+            for (Future<Collection<R>> future : futures) {
+                partitions.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataProviderException(e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new DataProviderException(e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        return new PartitionedCollection<>(partitions);
+    }
 
-        return wrap(datasets, events);
+    private Collection<R> loadPartitionInWorker(Dataset dataset) {
+        LOADING_PARTITION.set(Boolean.TRUE);
+        try {
+            return loadPartition(dataset);
+        } finally {
+            LOADING_PARTITION.remove();
+        }
+    }
+
+    private Collection<R> loadPartition(Dataset dataset) {
+        return precalculated(getData(dataset));
+    }
+
+    @SuppressWarnings("unchecked")
+    protected Collection<R> precalculated(Collection<R> events) {
+        if (events.stream().noneMatch(e -> e instanceof PrecalculationSupport)) {
+            return events;
+        }
+        return events.stream()
+                .map(e -> e instanceof PrecalculationSupport ? ((PrecalculationSupport<R>) e).runPrecalculations() : e)
+                .collect(Collectors.toList());
     }
 
     protected abstract Collection<T> wrap(Datasets datasets, Collection<R> events);
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.dataproviders.common;
+
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only concatenated view over per-dataset partitions, so that data of several datasets
+ * can be exposed as one collection without copying the partitions.
+ */
+public final class PartitionedCollection<E> extends AbstractCollection<E> implements Serializable {
+
+    private final List<Collection<E>> partitions;
+    private final int size;
+
+    public PartitionedCollection(List<Collection<E>> partitions) {
+        this.partitions = Collections.unmodifiableList(partitions);
+        this.size = partitions.stream().mapToInt(Collection::size).sum();
+    }
+
+    public List<Collection<E>> getPartitions() {
+        return partitions;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private final Iterator<Collection<E>> partitionIterator = partitions.iterator();
+            private Iterator<E> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && partitionIterator.hasNext()) {
+                    current = partitionIterator.next().iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+}
@@ -16,26 +16,124 @@
 
 package com.acuity.visualisations.rawdatamodel.dataproviders.common;
 
+import com.acuity.visualisations.common.cache.DatasetsKey;
 import com.acuity.visualisations.rawdatamodel.dataproviders.PopulationDatasetsDataProvider;
 import com.acuity.visualisations.rawdatamodel.vo.HasStringId;
 import com.acuity.visualisations.rawdatamodel.vo.HasSubjectId;
 import com.acuity.visualisations.rawdatamodel.vo.Subject;
 import com.acuity.visualisations.rawdatamodel.vo.wrappers.SubjectAwareWrapper;
+import com.acuity.va.security.acl.domain.Dataset;
 import com.acuity.va.security.acl.domain.Datasets;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import lombok.AccessLevel;
 import lombok.Getter;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public abstract class SubjectAwareDatasetsDataProvider<T extends HasSubjectId & HasStringId, W extends SubjectAwareWrapper<T>>
         extends DatasetsDataProvider<T, W> {
+    private static final int SUBJECT_INDEXES_CACHE_SIZE = 100;
+    private static final int PROJECTIONS_CACHE_SIZE = 100;
+
     @Autowired
     @Getter(AccessLevel.PROTECTED)
     private PopulationDatasetsDataProvider populationDatasetsDataProvider;
 
+    /**
+     * Per-subject indexes of the loaded dataset collections. Keys are weak and compared by identity,
+     * so an index lives as long as the cached collection it was built for
+     */
+    private final Cache<Collection<T>, SubjectEventIndex<T>> subjectIndexes = CacheBuilder.newBuilder()
+            .weakKeys()
+            .maximumSize(SUBJECT_INDEXES_CACHE_SIZE)
+            .build();
+
+    private final Cache<DatasetsKey, DataProjection<W>> projections = CacheBuilder.newBuilder()
+            .maximumSize(PROJECTIONS_CACHE_SIZE)
+            .build();
+
+    /**
+     * Loads events of the subjects with provided subject id or subject code, same as filtering {@link #loadData}
+     * by the wrapper subject id and code. Events are taken from a per-subject index of every dataset,
+     * so the cost is proportional to the events of the subject rather than to all events of the datasets
+     */
+    public Collection<W> loadSubjectData(Datasets datasets, String subjectIdOrCode) {
+        Set<String> subjectIds = populationDatasetsDataProvider.loadData(datasets).stream()
+                .filter(s -> subjectIdOrCode.equals(s.getSubjectId()) || subjectIdOrCode.equals(s.getSubjectCode()))
+                .map(Subject::getSubjectId)
+                .collect(Collectors.toSet());
+        if (subjectIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<T> events = new ArrayList<>();
+        for (Dataset dataset : datasets.getDatasets()) {
+            Collection<T> data = getData(dataset);
+            if (isDataInstanceReused()) {
+                SubjectEventIndex<T> index = getSubjectIndex(data);
+                subjectIds.forEach(subjectId -> events.addAll(index.get(subjectId)));
+            } else {
+                // an index of data built on every call would never be found again
+                data.stream().filter(e -> subjectIds.contains(e.getSubjectId())).forEach(events::add);
+            }
+        }
+        return wrap(datasets, precalculated(events));
+    }
+
+    /**
+     * Applies the projection to {@link #loadData} and keeps the result for the datasets and projection key.
+     * The result is reused as long as the loaded dataset collections and population are the same instances,
+     * so it is recalculated after the datasets data is refreshed or evicted, and on every call if {@link #isDataInstanceReused()} is false
+     *
+     * @param projectionKey - key identifying the projection among other projections of the same datasets
+     * @param projection - function of the datasets events, must depend on the events and the key only
+     * @return unmodifiable projected events
+     */
+    public Collection<W> loadProjection(Datasets datasets, Object projectionKey,
+                                        Function<Collection<W>, ? extends Collection<W>> projection) {
+        if (!isDataInstanceReused()) {
+            return Collections.unmodifiableList(new ArrayList<>(projection.apply(loadData(datasets))));
+        }
+        List<Object> sources = new ArrayList<>();
+        sources.add(populationDatasetsDataProvider.loadData(datasets));
+        datasets.getDatasets().forEach(dataset -> sources.add(getData(dataset)));
+
+        DatasetsKey key = new DatasetsKey(datasets, datasets, projectionKey);
+        DataProjection<W> cached = projections.getIfPresent(key);
+        if (cached != null && cached.isDerivedFrom(sources)) {
+            return cached.getEvents();
+        }
+        Collection<W> events = Collections.unmodifiableList(new ArrayList<>(projection.apply(loadData(datasets))));
+        projections.put(key, DataProjection.of(sources, events));
+        return events;
+    }
+
+    /**
+     * Whether {@link #getData} returns the same collection instance for a dataset until its data is refreshed,
+     * subject indexes and projections are kept only for such providers.
+     * Providers building the dataset collection on every call must return false
+     */
+    protected boolean isDataInstanceReused() {
+        return true;
+    }
+
+    private SubjectEventIndex<T> getSubjectIndex(Collection<T> events) {
+        SubjectEventIndex<T> index = subjectIndexes.getIfPresent(events);
+        if (index == null) {
+            index = SubjectEventIndex.of(events, HasSubjectId::getSubjectId);
+            subjectIndexes.put(events, index);
+        }
+        return index;
+    }
+
     @Override
     protected Collection<W> wrap(Datasets datasets, Collection<T> events) {
         final Map<String, Subject> subjects = populationDatasetsDataProvider.loadData(datasets)
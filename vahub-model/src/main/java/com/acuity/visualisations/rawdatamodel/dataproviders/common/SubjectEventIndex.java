@@ -0,0 +1,49 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.dataproviders.common;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Events of a loaded dataset collection grouped by subject, in the order of the collection
+ */
+final class SubjectEventIndex<T> {
+
+    private final Map<String, List<T>> eventsBySubject;
+
+    private SubjectEventIndex(Map<String, List<T>> eventsBySubject) {
+        this.eventsBySubject = eventsBySubject;
+    }
+
+    static <T> SubjectEventIndex<T> of(Collection<T> events, Function<? super T, String> subjectIdExtractor) {
+        Map<String, List<T>> eventsBySubject = new HashMap<>();
+        for (T event : events) {
+            eventsBySubject.computeIfAbsent(subjectIdExtractor.apply(event), id -> new ArrayList<>()).add(event);
+        }
+        return new SubjectEventIndex<>(eventsBySubject);
+    }
+
+    List<T> get(String subjectId) {
+        return eventsBySubject.getOrDefault(subjectId, Collections.emptyList());
+    }
+}
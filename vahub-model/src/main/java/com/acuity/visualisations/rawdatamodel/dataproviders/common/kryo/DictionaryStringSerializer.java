@@ -0,0 +1,92 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.dataproviders.common.kryo;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * String serializer writing every distinct string once per serialized graph (i.e. per kryo file),
+ * repeated values are written as an index into this dictionary.
+ * On reading the same index resolves to the same instance, and new values are interned,
+ * so that terms repeated across events and datasets (lab codes, units, arms, PT/HLT/SOC) share one instance in memory.
+ */
+public class DictionaryStringSerializer extends Serializer<String> {
+
+    private static final Interner<String> INTERNER = Interners.newWeakInterner();
+    private static final String WRITE_DICTIONARY = "stringDictionary.write";
+    private static final String READ_DICTIONARY = "stringDictionary.read";
+    private static final int NULL_VALUE = 0;
+    private static final int NEW_VALUE = 1;
+    private static final int FIRST_INDEX = 2;
+
+    public DictionaryStringSerializer() {
+        setImmutable(true);
+        setAcceptsNull(true);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void write(Kryo kryo, Output output, String value) {
+        if (value == null) {
+            output.writeVarInt(NULL_VALUE, true);
+            return;
+        }
+        Map<String, Integer> dictionary = (Map<String, Integer>) kryo.getGraphContext().get(WRITE_DICTIONARY);
+        if (dictionary == null) {
+            dictionary = new HashMap<>();
+            kryo.getGraphContext().put(WRITE_DICTIONARY, dictionary);
+        }
+        Integer index = dictionary.get(value);
+        if (index != null) {
+            output.writeVarInt(index + FIRST_INDEX, true);
+        } else {
+            dictionary.put(value, dictionary.size());
+            output.writeVarInt(NEW_VALUE, true);
+            output.writeString(value);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public String read(Kryo kryo, Input input, Class<String> type) {
+        int index = input.readVarInt(true);
+        if (index == NULL_VALUE) {
+            return null;
+        }
+        List<String> dictionary = (List<String>) kryo.getGraphContext().get(READ_DICTIONARY);
+        if (dictionary == null) {
+            dictionary = new ArrayList<>();
+            kryo.getGraphContext().put(READ_DICTIONARY, dictionary);
+        }
+        if (index != NEW_VALUE) {
+            return dictionary.get(index - FIRST_INDEX);
+        }
+        String value = INTERNER.intern(input.readString());
+        dictionary.add(value);
+        return value;
+    }
+}
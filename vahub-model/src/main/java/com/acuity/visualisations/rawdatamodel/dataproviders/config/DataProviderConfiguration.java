@@ -16,6 +16,7 @@
 
 package com.acuity.visualisations.rawdatamodel.dataproviders.config;
 
+import com.acuity.visualisations.rawdatamodel.dataproviders.common.kryo.DictionaryStringSerializer;
 import com.acuity.visualisations.rawdatamodel.dataproviders.common.kryo.KryoContext;
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.pool.KryoPool;
@@ -28,11 +29,15 @@ import de.javakaffee.kryoserializers.CollectionsSingletonMapSerializer;
 import de.javakaffee.kryoserializers.CollectionsSingletonSetSerializer;
 import de.javakaffee.kryoserializers.SynchronizedCollectionsSerializer;
 import de.javakaffee.kryoserializers.UnmodifiableCollectionsSerializer;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration
 public class DataProviderConfiguration {
@@ -48,6 +53,7 @@ public class DataProviderConfiguration {
     // the Arrays.asList method is deliberately used here without arguments to receive Arrays.ArrayList class object from it
     @SuppressWarnings("ArraysAsListWithZeroOrOneArgument")
     private void registerCustomSerializers(Kryo kryo) {
+        kryo.register(String.class, new DictionaryStringSerializer());
         kryo.register(Arrays.asList().getClass(), new ArraysAsListSerializer());
         kryo.register(Collections.emptyList().getClass(), new CollectionsEmptyListSerializer());
         kryo.register(Collections.emptyMap().getClass(), new CollectionsEmptyMapSerializer());
@@ -69,4 +75,15 @@ public class DataProviderConfiguration {
     public KryoContext kryoContext() {
         return new KryoContext(kryoPool());
     }
+
+    /**
+     * Bounded pool loading datasets of a multi-dataset request concurrently
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService datasetsLoadingExecutor(@Value("${dataproviders.loading.threads:4}") int threads) {
+        return Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+                .setNameFormat("datasets-loading-%d")
+                .setDaemon(true)
+                .build());
+    }
 }
@@ -48,6 +48,8 @@ import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Value;
+import org.apache.commons.lang3.SerializationUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.io.IOException;
@@ -144,8 +146,24 @@ public abstract class BaseEventService<R extends HasSubjectId & HasStringId, T e
     public FilterResult<T> getFilteredData(Datasets datasets, Filters<T> filters,
                                            PopulationFilters populationFilters, ChartGroupByOptionsFiltered<T, G> eventSettings, Predicate<T> eventPredicate) {
 
-        FilterQuery<T> filterQuery = getFilterQuery(datasets, filters, populationFilters, eventSettings, eventPredicate);
-        return eventFilterService.query(filterQuery);
+        // custom predicates can't be compared, so only results filtered by comparable arguments are memoized
+        if (eventPredicate != null) {
+            return eventFilterService.query(getFilterQuery(datasets, filters, populationFilters, eventSettings, eventPredicate));
+        }
+        return FilterResultRequestCache.get(new FilterResultKey(getClass(), datasets, filters, populationFilters, eventSettings),
+                FilterResultKey::copy, () -> eventFilterService.query(getFilterQuery(datasets, filters, populationFilters, eventSettings, null)));
+    }
+
+    /**
+     * Returns {@link FilterResult} of the events of the subject with provided subject id or subject code, which match
+     * the event predicate. Same as filtering all events with empty population filters and a predicate for the subject,
+     * but only events of the subject are taken from the per-subject index of the data provider
+     */
+    public FilterResult<T> getSubjectFilteredData(Datasets datasets, String subjectId, Filters<T> filters, Predicate<T> eventPredicate) {
+        Collection<T> events = getEventDataProvider(datasets, filters).loadSubjectData(datasets, subjectId).stream()
+                .filter(eventPredicate)
+                .collect(toList());
+        return getFilteredData(events, datasets, filters, PopulationFilters.empty());
     }
 
     public FilterResult<T> getFilteredData(Collection<T> events, Datasets datasets, Filters<T> eventFilters,
@@ -286,21 +304,21 @@ public abstract class BaseEventService<R extends HasSubjectId & HasStringId, T e
         final Collection<T> events = getEventDataProvider(datasets).loadData(datasets).stream()
                 .filter(e -> ids.contains(e.getId())).collect(Collectors.toList());
         return getNotEmptyDataRows(doDCommonService.getColumnData(
-                DatasetType.fromDatasets(datasets), events, sortAttrs, from, count, true));
+                DatasetType.fromDatasets(datasets), events, Objects.hash(datasets, ids), sortAttrs, from, count, true));
     }
 
     @Override
     public List<Map<String, String>> getDetailsOnDemandData(Datasets datasets, String subjectId, Filters<T> eventFilters) {
 
-        final FilterResult<T> filteredData = getFilteredData(datasets, eventFilters, PopulationFilters.empty(),
-                null, e -> Objects.equals(subjectId, e.getSubjectCode()) || Objects.equals(subjectId, e.getSubjectId()));
+        final FilterResult<T> filteredData = getSubjectFilteredData(datasets, subjectId, eventFilters,
+                e -> Objects.equals(subjectId, e.getSubjectCode()) || Objects.equals(subjectId, e.getSubjectId()));
         return getNotEmptyDataRows(doDCommonService.getColumnData(DatasetType.fromDatasets(datasets), filteredData.getFilteredEvents(),
                 Collections.emptyList(), 0, Integer.MAX_VALUE, true));
     }
 
     @Override
     public List<Map<String, String>> getSingleSubjectData(Datasets datasets, String subjectId, Filters<T> eventFilters) {
-        final FilterResult<T> filteredData = getFilteredData(datasets, eventFilters, PopulationFilters.empty(), null,
+        final FilterResult<T> filteredData = getSubjectFilteredData(datasets, subjectId, eventFilters,
                 s -> subjectId.equals(s.getSubjectId()) || subjectId.equals(s.getSubjectCode()));
         return ssvCommonService.getColumnData(DatasetType.fromDatasets(datasets), filteredData.getFilteredResult());
     }
@@ -320,8 +338,7 @@ public abstract class BaseEventService<R extends HasSubjectId & HasStringId, T e
 
     protected void writeEventsDoDCsv(Writer writer, DatasetType datasetType, Collection<T> events) {
         Map<String, String> columnsTitles = doDCommonService.getDoDColumns(datasetType, events);
-        List<Map<String, String>> data = doDCommonService.getColumnData(datasetType, events);
-        doDCommonService.writeCsv(data, columnsTitles, writer);
+        doDCommonService.writeCsv(datasetType, events, columnsTitles, writer);
     }
 
     public List<String> getAssociatedAeNumbersFromEventIds(
@@ -351,8 +368,7 @@ public abstract class BaseEventService<R extends HasSubjectId & HasStringId, T e
         Collection<T> events = eventsResolver.apply(datasets);
         final DatasetType datasetType = DatasetType.fromDatasets(datasets);
         Map<String, String> columnsTitles = amlCommonService.getColumns(datasetType, entityCls, entityRawCls);
-        List<Map<String, String>> data = amlCommonService.getColumnData(datasetType, events, false);
-        amlCommonService.writeCsv(data, columnsTitles, writer);
+        amlCommonService.writeCsv(datasetType, events, columnsTitles, false, writer);
     }
 
     protected SelectionDetail getSelectionBySubjectIds(FilterResult<T> filteredEvents, Set<String> subjectIds) {
@@ -369,6 +385,21 @@ public abstract class BaseEventService<R extends HasSubjectId & HasStringId, T e
                 .build();
     }
 
+    @Value
+    private static class FilterResultKey {
+        private Class<?> serviceClass;
+        private Datasets datasets;
+        private Filters<?> filters;
+        private PopulationFilters populationFilters;
+        private ChartGroupByOptionsFiltered<?, ?> eventSettings;
+
+        // filters are mutable beans, so the memoized key keeps copies of them
+        private FilterResultKey copy() {
+            return new FilterResultKey(serviceClass, datasets, filters == null ? null : SerializationUtils.clone(filters),
+                    populationFilters == null ? null : SerializationUtils.clone(populationFilters), eventSettings);
+        }
+    }
+
     private List<Map<String, String>> getNotEmptyDataRows(List<Map<String, String>> data) {
         return data.stream()
                 .filter(row -> row.entrySet().stream()
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.service;
+
+import com.acuity.visualisations.rawdatamodel.vo.FilterResult;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Memoizes {@link FilterResult}s for the duration of the current HTTP request, so chained service calls
+ * filtering the same data with the same arguments within one request do the work once.
+ * Outside of a request (i.e. in async tasks or tests) results are not memoized.
+ * <p>
+ * Keys are stored as copies, so filters changed by a caller later don't match the memoized result,
+ * and each caller gets its own unmodifiable copy of the result, see {@link FilterResult#toUnmodifiable()}.
+ * Hits and misses are exposed as metrics by {@link FilterResultRequestCacheMetrics}.
+ */
+@Slf4j
+@SuppressWarnings("checkstyle:HideUtilityClassConstructor")
+@UtilityClass
+public class FilterResultRequestCache {
+
+    private static final String REQUEST_ATTRIBUTE = FilterResultRequestCache.class.getName();
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    public static <K, T> FilterResult<T> get(K key, UnaryOperator<K> keyCopy, Supplier<FilterResult<T>> filterResultSupplier) {
+        Map<Object, FilterResult<?>> requestResults = getRequestResults();
+        if (requestResults == null) {
+            return filterResultSupplier.get();
+        }
+        FilterResult<T> result = (FilterResult<T>) requestResults.get(key);
+        if (result != null) {
+            HITS.incrementAndGet();
+            log.debug("Filter result found in request cache for {}", key);
+        } else {
+            MISSES.incrementAndGet();
+            result = filterResultSupplier.get();
+            requestResults.put(keyCopy.apply(key), result);
+        }
+        return result.toUnmodifiable();
+    }
+
+    public static long getHits() {
+        return HITS.get();
+    }
+
+    public static long getMisses() {
+        return MISSES.get();
+    }
+
+    public static double getHitRate() {
+        long hits = HITS.get();
+        long total = hits + MISSES.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Object, FilterResult<?>> getRequestResults() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Map<Object, FilterResult<?>> results = (Map<Object, FilterResult<?>>) attributes.getAttribute(REQUEST_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        if (results == null) {
+            results = new ConcurrentHashMap<>();
+            attributes.setAttribute(REQUEST_ATTRIBUTE, results, RequestAttributes.SCOPE_REQUEST);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes {@link FilterResultRequestCache} hits, misses and hit rate as metrics
+ */
+@Component
+public class FilterResultRequestCacheMetrics implements MeterBinder {
+
+    private static final String PREFIX = "vahub.filterresult.requestcache.";
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(PREFIX + "hits", FilterResultRequestCache.class, c -> FilterResultRequestCache.getHits())
+                .register(registry);
+        FunctionCounter.builder(PREFIX + "misses", FilterResultRequestCache.class, c -> FilterResultRequestCache.getMisses())
+                .register(registry);
+        Gauge.builder(PREFIX + "hit.rate", FilterResultRequestCache.class, c -> FilterResultRequestCache.getHitRate())
+                .description("Share of filter results found in the request cache")
+                .register(registry);
+    }
+}
@@ -253,7 +253,8 @@ public class PopulationService implements DoDService<Subject>, SsvSummaryTableSe
         final Collection<Subject> events = populationDatasetsDataProvider.loadData(datasets).stream()
                 .filter(e -> ids.contains(e.getId())).collect(Collectors.toList());
 
-        return doDCommonService.getColumnData(DatasetType.fromDatasets(datasets), events, sortAttrs, from, count, true);
+        return doDCommonService.getColumnData(DatasetType.fromDatasets(datasets), events, Objects.hash(datasets, ids),
+                sortAttrs, from, count, true);
     }
 
     @Override
@@ -270,8 +271,7 @@ public class PopulationService implements DoDService<Subject>, SsvSummaryTableSe
         final FilterResult<Subject> filteredData = getFilteredData(datasets, populationFilters);
 
         Map<String, String> columnsTitles = doDCommonService.getDoDColumns(DatasetType.fromDatasets(datasets), filteredData.getFilteredResult());
-        List<Map<String, String>> data = doDCommonService.getColumnData(DatasetType.fromDatasets(datasets), filteredData.getFilteredResult());
-        doDCommonService.writeCsv(data, columnsTitles, writer);
+        doDCommonService.writeCsv(DatasetType.fromDatasets(datasets), filteredData.getFilteredResult(), columnsTitles, writer);
     }
 
     @Override
@@ -280,8 +280,7 @@ public class PopulationService implements DoDService<Subject>, SsvSummaryTableSe
                 s -> Objects.nonNull(s.getSubjectId()) && ids.contains(s.getSubjectId())).getFilteredResult();
         final DatasetType datasetType = DatasetType.fromDatasets(datasets);
         Map<String, String> columnsTitles = doDCommonService.getDoDColumns(datasetType, subjects);
-        List<Map<String, String>> data = doDCommonService.getColumnData(datasetType, subjects);
-        doDCommonService.writeCsv(data, columnsTitles, writer);
+        doDCommonService.writeCsv(datasetType, subjects, columnsTitles, writer);
     }
 
     @Override
@@ -25,6 +25,7 @@ import com.acuity.visualisations.rawdatamodel.service.event.AeService;
 import com.acuity.visualisations.rawdatamodel.service.BaseEventService;
 import com.acuity.visualisations.rawdatamodel.service.compatibility.AeChordDiagramColoringService;
 import com.acuity.visualisations.rawdatamodel.service.dod.SortAttrs;
+import com.acuity.visualisations.rawdatamodel.service.plots.SelectionGroupIndex;
 import com.acuity.visualisations.rawdatamodel.service.plots.SimpleSelectionMatchingService;
 import com.acuity.visualisations.rawdatamodel.service.ssv.ColorInitializer;
 import com.acuity.visualisations.rawdatamodel.trellis.TrellisOptions;
@@ -36,6 +37,7 @@ import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChordGroupByOptio
 import com.acuity.visualisations.rawdatamodel.util.AlphanumEmptyLastComparator;
 import com.acuity.visualisations.rawdatamodel.util.Attributes;
 import com.acuity.visualisations.rawdatamodel.util.ColorbyCategoriesUtil;
+import com.acuity.visualisations.rawdatamodel.util.DateIntervalIndex;
 import com.acuity.visualisations.rawdatamodel.util.Column;
 import com.acuity.visualisations.rawdatamodel.util.Column.DatasetType;
 import com.acuity.visualisations.rawdatamodel.util.TrellisUtil;
@@ -238,6 +240,10 @@ public class AeChordDiagramService extends BaseEventService<AeRaw, Ae, AeGroupBy
         aesWrappersByTerm.keySet()
                 .forEach(key -> aesWrappersByTerm.put(key, mergeIntersectedWithShift(aesWrappersByTerm.get(key), shift)));
 
+        Map<String, DateIntervalIndex<AesMergingWrapper>> indexByTerm = new HashMap<>();
+        aesWrappersByTerm.forEach((k, v) -> indexByTerm.put(k,
+                DateIntervalIndex.of(v, AesMergingWrapper::getStartDate, AesMergingWrapper::getEndDate)));
+
         List<String> termSorted = new ArrayList<>(aesWrappersByTerm.keySet());
 
         ChordTermWrapper termsWrapper = ChordTermWrapper.empty();
@@ -246,7 +252,7 @@ public class AeChordDiagramService extends BaseEventService<AeRaw, Ae, AeGroupBy
         termSorted.forEach(term -> {
             List<AesMergingWrapper> aesWrapperPerTerm = aesWrappersByTerm.remove(term);
             aesWrappersByTerm.forEach((key, value) -> {
-                List<ChordContributor> width = countAesPeriodsIntersectionsWithShift(aesWrapperPerTerm, value, shift);
+                List<ChordContributor> width = countAesPeriodsIntersectionsWithShift(aesWrapperPerTerm, indexByTerm.get(key), shift);
                 if (!width.isEmpty()) {
                     Map<String, List<ChordContributor>> contributors = new HashMap<>();
                     contributors.put(aesWrapperPerTerm.iterator().next().getSubjectCode(), width);
@@ -293,14 +299,14 @@ public class AeChordDiagramService extends BaseEventService<AeRaw, Ae, AeGroupBy
      * Counts how many aes from {@code aes1} have intersections with {@code aes2} taking into account the {@code shift} param
      *
      * @param aes1  first list of aes
-     * @param aes2  second list of aes
+     * @param aes2  second list of aes indexed by their periods
      * @param shift allows shift a period to check intersection, for instance 11.01.18-13.01.18 and 15.01.18-17.01.18
      *              intersected  with shift 2+ days
      * @return amount of intersections
      */
-    private List<ChordContributor> countAesPeriodsIntersectionsWithShift(List<AesMergingWrapper> aes1, List<AesMergingWrapper> aes2, int shift) {
-        return aes1.stream().map(ae1 -> aes2.stream()
-                .filter(ae2 -> periodsOverlappedWithShift(ae1.getStartDate(), ae1.getEndDate(), ae2.getStartDate(), ae2.getEndDate(), shift))
+    private List<ChordContributor> countAesPeriodsIntersectionsWithShift(List<AesMergingWrapper> aes1,
+                                                                         DateIntervalIndex<AesMergingWrapper> aes2, int shift) {
+        return aes1.stream().map(ae1 -> aes2.overlappingWithShift(ae1.getStartDate(), ae1.getEndDate(), shift).stream()
                 .map(ae2 -> ChordContributor.builder()
                         .startEventIds(ae1.getAes().stream().map(EventWrapper::getId).collect(toSet()))
                         .endEventIds(ae2.getAes().stream().map(EventWrapper::getId).collect(toSet()))
@@ -340,6 +346,13 @@ public class AeChordDiagramService extends BaseEventService<AeRaw, Ae, AeGroupBy
                 .build();
     }
 
+    @Override
+    public List<ChordCalculationObject> getMatchedItems(Collection<ChordCalculationObject> chords,
+            ChartSelection<ChordCalculationObject, ChordGroupByOptions, ChartSelectionItem<ChordCalculationObject, ChordGroupByOptions>> selection) {
+        //chords are calculated per request, so an index of them would never be reused
+        return SelectionGroupIndex.uncached(chords, selection.getSettings()).getMatchedEvents(selection.getSelectionItems());
+    }
+
     private int getContributingEventsCount(Set<ChordContributor> eventIds) {
         return (int) eventIds.stream()
                 .flatMap(e -> Stream.of(e.getStartEventIds(), e.getEndEventIds())
@@ -437,8 +450,7 @@ public class AeChordDiagramService extends BaseEventService<AeRaw, Ae, AeGroupBy
                 eventIds);
         DatasetType datasetType = DatasetType.fromDatasets(datasets);
         Map<String, String> columnsTitles = doDCommonService.getDoDColumns(datasetType, contributors);
-        List<Map<String, String>> data = doDCommonService.getColumnData(datasetType, contributors);
-        doDCommonService.writeCsv(data, columnsTitles, writer);
+        doDCommonService.writeCsv(datasetType, contributors, columnsTitles, writer);
     }
 
     @Override
@@ -63,20 +63,19 @@ public class BarChartUIModelService {
         //fill output data with ranks, sorted categories and sorted series
         return allData.stream().map(bar -> {
 
-            final List<String> categories = bar.getCategories().stream()
+            final CategoryIndex<String> categories = CategoryIndex.of(bar.getCategories().stream()
                     .map(Objects::toString)
-                    .collect(toList());
+                    .collect(toList()));
 
             boolean isCategoryMap = bar.getSeries().get(0).getCategory() instanceof Map;
 
             List<OutputBarChartEntry> series = bar.getSeries().stream()
-                    .sorted(Comparator.comparing(e -> categories.indexOf(
-                            isCategoryMap ? Objects.toString(((Map) e.getCategory()).keySet().iterator().next())
-                                    : e.getCategory().toString())))
                     .map(e -> isCategoryMap
                             ? new TooltipInfoOutputBarChartEntry(e,
                             categories.indexOf(Objects.toString(((Map) e.getCategory()).keySet().iterator().next())) + 1)
-                            : new OutputBarChartEntry(e, categories.indexOf(e.getCategory().toString()) + 1)).collect(toList());
+                            : new OutputBarChartEntry(e, categories.indexOf(e.getCategory().toString()) + 1))
+                    .sorted(Comparator.comparingInt(OutputBarChartEntry::getRank))
+                    .collect(toList());
 
             String name;
             String colorIndex;
@@ -96,7 +95,7 @@ public class BarChartUIModelService {
             } else {
                 name = bar.getName() == null ? "" : bar.getName().toString();
             }
-            return new OutputBarChartData(name, categories, series);
+            return new OutputBarChartData(name, categories.getCategories(), series);
         }).collect(toList());
     }
 
@@ -80,6 +80,7 @@ public class BoxPlotUiModelService {
 
             xCategories = getXCategories(categories);
         }
+        final CategoryIndex<?> xCategoryIndex = CategoryIndex.of(xCategories);
         return groupedByTrellis.entrySet().stream().map(groupByTrellisEntry -> {
             final List<TrellisOption<T, G>> trellisOptions = groupByTrellisEntry.getKey().getTrellisByValues().entrySet().stream()
                     .map(option -> TrellisOption.of(option.getKey(), option.getValue())).collect(Collectors.toList());
@@ -99,7 +100,7 @@ public class BoxPlotUiModelService {
                     .filter(getXCategoriesFilter(mapByXCategory))
                     .map(xAxisValue -> {
                         final BoxplotCalculationObject statEntry = mapByXCategory.get(xAxisValue);
-                        Double xRank = getContinuousAxisValueRank(xAxisValue, () -> xCategories.indexOf(xAxisValue));
+                        Double xRank = getContinuousAxisValueRank(xAxisValue, () -> xCategoryIndex.indexOf(xAxisValue));
                         return OutputBoxplotEntry.of(xAxisValue == null ? Attributes.DEFAULT_EMPTY_VALUE : xAxisValue.toString(), xRank, statEntry);
                     }).sorted(Comparator.comparing(OutputBoxplotEntry::getXRank)).collect(toList());
 
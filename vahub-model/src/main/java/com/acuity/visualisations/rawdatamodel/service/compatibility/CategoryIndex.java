@@ -0,0 +1,59 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.service.compatibility;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ordered chart categories with their positions looked up by value.<br>
+ * UI model services rank every output point by the position of its category, so this replaces
+ * {@code List.indexOf} calls, which make the post-processing quadratic in the number of categories.
+ */
+final class CategoryIndex<C> {
+
+    private final List<C> categories;
+    private final Map<Object, Integer> positions;
+
+    private CategoryIndex(List<C> categories) {
+        this.categories = categories;
+        this.positions = new HashMap<>(categories.size() * 2);
+        for (int i = 0; i < categories.size(); i++) {
+            // keeps the first position like List.indexOf does
+            positions.putIfAbsent(categories.get(i), i);
+        }
+    }
+
+    /**
+     * @param categories categories already in the chart order
+     */
+    static <C> CategoryIndex<C> of(List<C> categories) {
+        return new CategoryIndex<>(categories);
+    }
+
+    List<C> getCategories() {
+        return categories;
+    }
+
+    /**
+     * Same as {@code List.indexOf}: position of the category or -1 if there is no such category
+     */
+    int indexOf(Object category) {
+        return positions.getOrDefault(category, -1);
+    }
+}
@@ -96,6 +96,7 @@ public class OvertimeChartUIModelService {
 
 
         final List<? super Bin<? extends Comparable<?>>> binCategories = Attributes.getBinCategories(xCategories);
+        final CategoryIndex<?> binCategoryIndex = CategoryIndex.of(binCategories);
 
         Map<GroupByKey<Subject, PopulationGroupByOptions>, Map<Object, BarChartEntry<Subject>>> lineByTrellisAndXCategory =
                 lineData.entrySet().stream().collect(
@@ -107,7 +108,7 @@ public class OvertimeChartUIModelService {
 
         final Map<GroupByKey<Subject, PopulationGroupByOptions>, List<OutputBarChartEntry>> lineSeriesWithRankByTrellis =
                 trellisOptions.stream().flatMap(trellis -> binCategories.stream().sorted()
-                        .map(bin -> new ImmutableTriple<>(trellis.limitedByPopulationTrellisOptions(), bin, binCategories.indexOf(bin) + 1)))
+                        .map(bin -> new ImmutableTriple<>(trellis.limitedByPopulationTrellisOptions(), bin, binCategoryIndex.indexOf(bin) + 1)))
                         .map(c ->
                                 new ImmutablePair<>(c.getLeft(), new OutputBarChartEntry(
                                         lineByTrellisAndXCategory.getOrDefault(c.getLeft(), new HashMap<>()).getOrDefault(c.getMiddle(),
@@ -171,10 +172,10 @@ public class OvertimeChartUIModelService {
     protected List<OutputBarChartData> collectToOutputData(List<BarChartData> allData) {
         final AtomicInteger colorCounter = new AtomicInteger(0);
 
-        final List<? super Bin<? extends Comparable<?>>> allCategories = Attributes.getBinCategories(allData.stream()
+        final CategoryIndex<?> allCategories = CategoryIndex.of(Attributes.getBinCategories(allData.stream()
                 .flatMap(e -> e.getCategories().stream())
                 .filter(e -> e instanceof Bin && !(e instanceof EmptyBin)).map(e -> (Bin<? extends Comparable<?>>) e)
-                .collect(Collectors.toCollection(TreeSet::new)));
+                .collect(Collectors.toCollection(TreeSet::new))));
 
         //fill output data with ranks
         return allData.stream().sorted().map(bar -> {
@@ -69,6 +69,7 @@ public class RangePlotUiModelService {
             xCategories = rangePlot.keySet().stream().map(k -> k.getValue(ChartGroupByOptions.ChartGroupBySetting.X_AXIS))
                     .distinct().filter(e -> e != null && !Attributes.DEFAULT_EMPTY_VALUE.equals(e.toString())).sorted().collect(Collectors.toList());
         }
+        final CategoryIndex<?> xCategoryIndex = CategoryIndex.of(xCategories);
         return groupedByTrellis.entrySet().stream().map(groupByTrellisEntry -> {
             final List<TrellisOption<T, G>> trellisOptions = groupByTrellisEntry.getKey().getTrellisByValues().entrySet().stream()
                     .map(option -> TrellisOption.of(option.getKey(), option.getValue())).collect(Collectors.toList());
@@ -93,7 +94,7 @@ public class RangePlotUiModelService {
                                 .filter(Objects::nonNull)
                                 .map(xAxisValue -> OutputRangeChartEntry.of(
                                         xAxisValue.toString(),
-                                        getContinuousAxisValueRank(xAxisValue, () -> xCategories.indexOf(xAxisValue)),
+                                        getContinuousAxisValueRank(xAxisValue, () -> xCategoryIndex.indexOf(xAxisValue)),
                                         mapByXCategory.get(xAxisValue), statType))
                                 .sorted(Comparator.comparing(OutputRangeChartEntry::getXRank)).collect(Collectors.toList());
                         return rangeChartSeries(name == null ? "All" : name.toString(), entries);
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.service.dod;
+
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.Function;
+
+/**
+ * Compiles {@link com.acuity.visualisations.rawdatamodel.util.Column} readers into plain functions.<br>
+ * Public getters of public classes are linked through {@link LambdaMetafactory}, so reading a column is an ordinary
+ * interface call to the getter without reflection or argument arrays. Other readers fall back to a method handle.
+ */
+@Slf4j
+@UtilityClass
+class ColumnAccessors {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType FUNCTION_FACTORY = MethodType.methodType(Function.class);
+    private static final MethodType FUNCTION_SIGNATURE = MethodType.methodType(Object.class, Object.class);
+
+    static Function<Object, Object> of(Method reader) {
+        Class<?> owner = reader.getDeclaringClass();
+        if (Modifier.isPublic(reader.getModifiers()) && Modifier.isPublic(owner.getModifiers())) {
+            CallSite site;
+            try {
+                MethodHandle handle = LOOKUP.unreflect(reader);
+                site = LambdaMetafactory.metafactory(LOOKUP, "apply", FUNCTION_FACTORY, FUNCTION_SIGNATURE,
+                        handle, MethodType.methodType(Object.class, owner));
+            } catch (LambdaConversionException | IllegalAccessException e) {
+                // e.g. the class isn't visible from this class loader, the method handle below still works
+                log.debug("Can't link column reader {} as a function, using a method handle", reader, e);
+                return handleAccessor(reader);
+            }
+            return newFunction(site);
+        }
+        return handleAccessor(reader);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> newFunction(CallSite site) {
+        try {
+            return (Function<Object, Object>) site.getTarget().invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Function<Object, Object> handleAccessor(Method reader) {
+        MethodHandle handle;
+        try {
+            reader.setAccessible(true);
+            handle = LOOKUP.unreflect(reader).asType(FUNCTION_SIGNATURE);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Can't access column reader " + reader, e);
+        }
+        return o -> {
+            try {
+                return handle.invokeExact(o);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+}
@@ -24,26 +24,26 @@ import com.acuity.visualisations.rawdatamodel.util.DaysUtil;
 import com.acuity.visualisations.rawdatamodel.util.MetadataCacheKey;
 import com.acuity.visualisations.rawdatamodel.vo.HasStringId;
 import com.acuity.visualisations.rawdatamodel.vo.wrappers.EventWrapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.math.DoubleMath;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.tuple.ImmutablePair;
-import org.apache.commons.lang3.tuple.Pair;
-import org.springframework.cglib.reflect.FastClass;
-import org.springframework.cglib.reflect.FastMethod;
+import org.supercsv.io.CsvListWriter;
 import org.supercsv.io.CsvMapWriter;
+import org.supercsv.io.ICsvListWriter;
 import org.supercsv.io.ICsvMapWriter;
 import org.supercsv.prefs.CsvPreference;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.io.Writer;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.text.DecimalFormat;
@@ -58,10 +58,16 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.RandomAccess;
 import java.util.TimeZone;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static com.acuity.visualisations.rawdatamodel.util.Column.DatasetType;
 import static com.acuity.visualisations.rawdatamodel.util.Column.Type;
@@ -74,11 +80,21 @@ import static org.apache.commons.lang3.ArrayUtils.EMPTY_STRING_ARRAY;
 public abstract class CommonTableService {
 
     public static final String NULL_VALUE = "null";
+    /**
+     * Number of rows after which streamed csv output is flushed to the underlying writer
+     */
+    private static final int CSV_FLUSH_ROWS = 1000;
+    private static final int SORTED_ORDER_CACHE_SIZE = 100;
+    private static final int SORTED_ORDER_CACHE_EXPIRY_MINUTES = 5;
 
     private final Map<MetadataCacheKey, Map<String, ColumnMetadata>> classMetadataCache =
             new ConcurrentHashMap<>();
-    private final Map<MetadataCacheKey, Map<String, Function<Object, Pair<ColumnMetadata, Object>>>> classColumnReadersCache =
+    private final Map<MetadataCacheKey, Map<String, ColumnReader>> classColumnReadersCache =
             new ConcurrentHashMap<>();
+    private final Cache<SortedOrderKey, SortedOrder> sortedOrderCache = CacheBuilder.newBuilder()
+            .maximumSize(SORTED_ORDER_CACHE_SIZE)
+            .expireAfterAccess(SORTED_ORDER_CACHE_EXPIRY_MINUTES, TimeUnit.MINUTES)
+            .build();
 
     protected abstract Type getType();
 
@@ -89,28 +105,89 @@ public abstract class CommonTableService {
         }
 
         Collection<T> itemsList = sortItems(items, sortAttrs, datasetType, tableType);
-        return itemsList.stream().skip(from).limit(count).map(event -> {
-            Map<String, String> row = new HashMap<>();
+        Map<Class<?>, RowWriter> rowWriters = new HashMap<>();
+        return itemsList.stream().skip(from).limit(count)
+                .map(event -> getRow(event, datasetType, withEventId, tableType, rowWriters))
+                .collect(Collectors.toList());
+    }
 
-            Map<String, Function<Object, Pair<ColumnMetadata, Object>>> columnReaders = getClassColumnReaders(event, datasetType, tableType);
+    /**
+     * Returns a page of the items in the requested order. The sorted order is cached for a short period by
+     * the query hash (which should identify the set of items, e.g. hash of the requested event ids), sort attributes and
+     * items count, so scrolling through the table doesn't sort the whole collection for every page.
+     * The first page of an uncached query is selected with a partial sort.
+     */
+    public <T extends HasStringId> List<Map<String, String>> getColumnData(DatasetType datasetType, Collection<T> items, int queryHash,
+                                                                          List<SortAttrs> sortAttrs, long from, long count,
+                                                                          boolean withEventId) {
+        if (items.isEmpty() || from >= items.size() || count <= 0) {
+            return Collections.emptyList();
+        }
+        List<T> itemsList = items instanceof List && items instanceof RandomAccess ? (List<T>) items : new ArrayList<>(items);
+        int end = count >= itemsList.size() - from ? itemsList.size() : (int) (from + count);
+        List<SortAttrs> sortBy = CollectionUtils.isEmpty(sortAttrs) ? getDefaultSortBy(datasetType, itemsList, getType()) : sortAttrs;
 
-            columnReaders.forEach((columnKey, columnReader) -> {
-                Pair<ColumnMetadata, ?> res = columnReader.apply(event);
-                Object valObj = res.getRight();
-                if (valObj instanceof Map) {
-                    ((Map<?, ?>) valObj).forEach((mapKey, mapValue) ->
-                            row.put(mapKey.toString() + DOUBLE_DASH + columnKey,
-                                    mapValue == null ? null : valuePostProcess(res.getLeft(), mapValue).toString()));
+        List<T> page;
+        if (CollectionUtils.isEmpty(sortBy)) {
+            page = itemsList.subList((int) from, end);
+        } else {
+            SortedOrderKey key = new SortedOrderKey(datasetType, queryHash, sortBy, itemsList.size());
+            SortedOrder cached = sortedOrderCache.getIfPresent(key);
+            page = cached == null ? null : cached.getPage(itemsList, (int) from, end);
+            if (page == null) {
+                if (from == 0 && end < itemsList.size()) {
+                    page = getFirstSorted(itemsList, getComplexComparator(datasetType, sortBy), end);
                 } else {
-                    String value = (valObj == null || NULL_VALUE.equals(valObj.toString())) ? null : valuePostProcess(res.getLeft(), valObj).toString();
-                    row.put(columnKey, value);
+                    SortedOrder sortedOrder = new SortedOrder(itemsList, getSortedOrder(itemsList, sortBy, datasetType, getType()));
+                    sortedOrderCache.put(key, sortedOrder);
+                    page = sortedOrder.getPage(itemsList, (int) from, end);
                 }
-            });
-            if (event instanceof HasStringId && withEventId) {
-                row.put(EVENT_ID, ((HasStringId) event).getId());
             }
-            return row;
-        }).collect(Collectors.toList());
+        }
+        Map<Class<?>, RowWriter> rowWriters = new HashMap<>();
+        return page.stream()
+                .map(event -> getRow(event, datasetType, withEventId, getType(), rowWriters))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Builds a row with the writer compiled for the event class. Writers are resolved through the
+     * request-local map, so the shared readers cache isn't queried for every row
+     */
+    private <T> Map<String, String> getRow(T event, DatasetType datasetType, boolean withEventId, Column.Type tableType,
+                                           Map<Class<?>, RowWriter> rowWriters) {
+        RowWriter rowWriter = rowWriters.computeIfAbsent(event.getClass(),
+                c -> new RowWriter(getClassColumnReaders(event, datasetType, tableType)));
+        Map<String, String> row = new HashMap<>(rowWriter.size() * 2);
+        rowWriter.write(event, row);
+        if (event instanceof HasStringId && withEventId) {
+            row.put(EVENT_ID, ((HasStringId) event).getId());
+        }
+        return row;
+    }
+
+    /**
+     * Selects the first {@code limit} items in the comparator order without sorting the whole list.
+     * Equal items keep their original relative order, as with a stable sort
+     */
+    private static <T> List<T> getFirstSorted(List<T> items, Comparator<T> comparator, int limit) {
+        Comparator<Integer> byItem = (i1, i2) -> {
+            int res = comparator.compare(items.get(i1), items.get(i2));
+            return res != 0 ? res : Integer.compare(i1, i2);
+        };
+        PriorityQueue<Integer> heap = new PriorityQueue<>(limit, byItem.reversed());
+        for (int i = 0; i < items.size(); i++) {
+            if (heap.size() < limit) {
+                heap.add(i);
+            } else if (byItem.compare(i, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(i);
+            }
+        }
+        return heap.stream()
+                .sorted(byItem)
+                .map(items::get)
+                .collect(Collectors.toList());
     }
 
     public <T> List<Map<String, String>> getColumnData(DatasetType datasetType, Collection<T> items, List<SortAttrs> sortAttrs,
@@ -122,7 +199,8 @@ public abstract class CommonTableService {
         Collection<T> itemsList = items;
         sortAttrs = CollectionUtils.isEmpty(sortAttrs) ? getDefaultSortBy(datasetType, items, tableType) : sortAttrs;
         if (!CollectionUtils.isEmpty(sortAttrs)) {
-            List<T> sorted = items instanceof List ? (List<T>) items : new ArrayList<>(items);
+            // items can be shared, i.e. memoized filter results, so they are sorted in a copy
+            List<T> sorted = new ArrayList<>(items);
             sorted.sort(getComplexComparator(datasetType, sortAttrs));
             itemsList = sorted;
         }
@@ -185,11 +263,6 @@ public abstract class CommonTableService {
                 .collect(Collectors.toCollection(ArrayList::new));
     }
 
-    private FastMethod getFastMethod(Class<?> clz, Method reader) {
-        FastClass fc = FastClass.create(clz);
-        return fc.getMethod(reader);
-    }
-
     /**
      * Returns map of columnNames and {@link ColumnMetadata} pairs, according to {@link Column#order()}
      * annotation parameter
@@ -232,14 +305,14 @@ public abstract class CommonTableService {
 
     private Function<MetadataCacheKey, Map<String, ColumnMetadata>> classMetadataExtractor(MetadataCacheKey key) {
         return c -> AnnotationUtil.getAnnotatedMethods(key)
-                .collect(toMap(this::getColumnName, columnMetadataExtractor(key.getEntity())));
+                .collect(toMap(this::getColumnName, columnMetadataExtractor()));
     }
 
-    private Function<AnnotationWithFieldAndReader<Column>, ColumnMetadata> columnMetadataExtractor(Class<?> clazz) {
+    private Function<AnnotationWithFieldAndReader<Column>, ColumnMetadata> columnMetadataExtractor() {
         return elem -> {
             Column a = elem.getAnnotationObject();
             Method reader = elem.getFieldReader();
-            return new ColumnMetadata(getFastMethod(clazz, reader),
+            return new ColumnMetadata(ColumnAccessors.of(reader),
                     a.order(),
                     getColumnName(elem),
                     a.displayName(),
@@ -256,22 +329,18 @@ public abstract class CommonTableService {
     }
 
     /**
-     * Returns a map, where the key is column display name and value if function that can be applied on object to get this column's value.
+     * Returns a map, where the key is column display name and value is the reader that can be applied on object to get this column's value.
      */
-    Map<String, Function<Object, Pair<ColumnMetadata, Object>>> getClassColumnReaders(
-            Object event, Column.DatasetType datasetType, Column.Type tableType) {
+    Map<String, ColumnReader> getClassColumnReaders(Object event, Column.DatasetType datasetType, Column.Type tableType) {
         return classColumnReadersCache.computeIfAbsent(new MetadataCacheKey(event.getClass(), datasetType, tableType), anything -> {
             Map<String, ColumnMetadata> columnMetadata = getClassColumnMetadata(event, datasetType, tableType);
 
-            Map<String, Function<Object, Pair<ColumnMetadata, Object>>> result = columnMetadata.entrySet().stream()
-                    .collect(toMap(Map.Entry::getKey, e -> o -> new ImmutablePair<>(e.getValue(), invokeMethod(e.getValue(), o))));
+            Map<String, ColumnReader> result = columnMetadata.entrySet().stream()
+                    .collect(toMap(Map.Entry::getKey, e -> new ColumnReader(e.getValue(), false)));
             if (event instanceof EventWrapper<?>) {
                 Object wrappedEvent = ((EventWrapper<?>) event).getEvent();
                 Map<String, ColumnMetadata> wrappedEventMethodMap = getClassColumnMetadata(wrappedEvent, datasetType, tableType);
-                Map<String, Function<Object, Pair<ColumnMetadata, Object>>> collect = wrappedEventMethodMap.entrySet().stream()
-                        .collect(toMap(Map.Entry::getKey,
-                                e -> o -> new ImmutablePair<>(e.getValue(), invokeMethod(e.getValue(), ((EventWrapper<?>) o).getEvent()))));
-                result.putAll(collect);
+                wrappedEventMethodMap.forEach((columnKey, metadata) -> result.put(columnKey, new ColumnReader(metadata, true)));
             }
             return result;
         });
@@ -292,6 +361,149 @@ public abstract class CommonTableService {
         }
     }
 
+    /**
+     * Streams items as csv rows straight to the writer in the default sort order, without building a row map per item.
+     * Equivalent to {@link #writeCsv(List, Map, Writer)} applied to {@link #getColumnData(DatasetType, Collection)}
+     */
+    public <T> void writeCsv(DatasetType datasetType, Collection<T> items, Map<String, String> columnsNames, Writer writer) {
+        writeCsv(datasetType, items, columnsNames, true, getType(), writer);
+    }
+
+    public <T> void writeCsv(DatasetType datasetType, Collection<T> items, Map<String, String> columnsNames,
+                             boolean withEventId, Writer writer) {
+        writeCsv(datasetType, items, columnsNames, withEventId, getType(), writer);
+    }
+
+    /**
+     * Streams items as csv rows straight to the writer. Column readers are resolved once per item class,
+     * sorting is done over an index permutation, so the source collection is neither copied into rows nor reordered.
+     */
+    public <T> void writeCsv(DatasetType datasetType, Collection<T> items, Map<String, String> columnsNames,
+                             boolean withEventId, Column.Type tableType, Writer writer) {
+        if (items.isEmpty()) {
+            return;
+        }
+        List<T> itemsList = items instanceof List && items instanceof RandomAccess ? (List<T>) items : new ArrayList<>(items);
+        int[] order = getSortedOrder(itemsList, Collections.emptyList(), datasetType, tableType);
+
+        String[] fields = columnsNames.keySet().toArray(EMPTY_STRING_ARRAY);
+        String[] row = new String[fields.length];
+        Map<Class<?>, CellReader[]> rowReaders = new HashMap<>();
+        try (ICsvListWriter csvListWriter = new CsvListWriter(writer, CsvPreference.EXCEL_PREFERENCE)) {
+            csvListWriter.writeHeader(columnsNames.values().toArray(EMPTY_STRING_ARRAY));
+            for (int i = 0; i < order.length; i++) {
+                T item = itemsList.get(order[i]);
+                CellReader[] readers = rowReaders.computeIfAbsent(item.getClass(),
+                        c -> getCellReaders(item, fields, datasetType, tableType, withEventId));
+                for (int j = 0; j < readers.length; j++) {
+                    row[j] = readers[j].read(item);
+                }
+                csvListWriter.write(row);
+                if ((i + 1) % CSV_FLUSH_ROWS == 0) {
+                    csvListWriter.flush();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns positions of the items in the sorted order, leaving provided list untouched.
+     * Falls back to the default sort columns when no sort attributes are provided
+     */
+    <T> int[] getSortedOrder(List<T> items, List<SortAttrs> sortAttrs, DatasetType datasetType, Column.Type tableType) {
+        List<SortAttrs> sortBy = CollectionUtils.isEmpty(sortAttrs) ? getDefaultSortBy(datasetType, items, tableType) : sortAttrs;
+        if (CollectionUtils.isEmpty(sortBy)) {
+            return IntStream.range(0, items.size()).toArray();
+        }
+        Comparator<T> comparator = getComplexComparator(datasetType, sortBy);
+        return sortedPositions(items.size(), (i1, i2) -> comparator.compare(items.get(i1), items.get(i2)));
+    }
+
+    /**
+     * Stable bottom-up merge sort of the positions 0..size-1, so positions aren't boxed to be sorted
+     */
+    private static int[] sortedPositions(int size, IntBinaryOperator comparator) {
+        int[] positions = IntStream.range(0, size).toArray();
+        int[] buffer = new int[size];
+        for (int width = 1; width < size; width *= 2) {
+            for (int from = 0; from < size - width; from += 2 * width) {
+                mergePositions(positions, buffer, from, from + width, Math.min(from + 2 * width, size), comparator);
+            }
+        }
+        return positions;
+    }
+
+    private static void mergePositions(int[] positions, int[] buffer, int from, int middle, int to, IntBinaryOperator comparator) {
+        System.arraycopy(positions, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        int target = from;
+        while (left < middle && right < to) {
+            positions[target++] = comparator.applyAsInt(buffer[right], buffer[left]) < 0 ? buffer[right++] : buffer[left++];
+        }
+        while (left < middle) {
+            positions[target++] = buffer[left++];
+        }
+        while (right < to) {
+            positions[target++] = buffer[right++];
+        }
+    }
+
+    private CellReader[] getCellReaders(Object item, String[] fields, DatasetType datasetType, Column.Type tableType,
+                                        boolean withEventId) {
+        Map<String, ColumnReader> columnReaders = getClassColumnReaders(item, datasetType, tableType);
+        boolean eventIdAvailable = withEventId && item instanceof HasStringId;
+        CellReader[] readers = new CellReader[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            readers[i] = getCellReader(columnReaders, fields[i], eventIdAvailable);
+        }
+        return readers;
+    }
+
+    /**
+     * Resolves a csv cell reader for the field, which is either a column name or a map column
+     * key in a form of mapKey--columnName, as produced by {@link #getColumnData}
+     */
+    private static CellReader getCellReader(Map<String, ColumnReader> columnReaders, String field, boolean eventIdAvailable) {
+        if (eventIdAvailable && EVENT_ID.equals(field)) {
+            return o -> ((HasStringId) o).getId();
+        }
+        ColumnReader columnReader = columnReaders.get(field);
+        if (columnReader != null) {
+            ColumnMetadata metadata = columnReader.getMetadata();
+            return o -> {
+                Object valObj = columnReader.read(o);
+                return valObj instanceof Map ? null : format(metadata, valObj);
+            };
+        }
+        int separator = field.lastIndexOf(DOUBLE_DASH);
+        ColumnReader mapColumnReader = separator > 0
+                ? columnReaders.get(field.substring(separator + DOUBLE_DASH.length())) : null;
+        if (mapColumnReader == null) {
+            return o -> null;
+        }
+        String mapKey = field.substring(0, separator);
+        ColumnMetadata metadata = mapColumnReader.getMetadata();
+        return o -> {
+            Object valObj = mapColumnReader.read(o);
+            if (!(valObj instanceof Map)) {
+                return null;
+            }
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) valObj).entrySet()) {
+                if (entry.getValue() != null && mapKey.equals(String.valueOf(entry.getKey()))) {
+                    return valuePostProcess(metadata, entry.getValue()).toString();
+                }
+            }
+            return null;
+        };
+    }
+
+    private static String format(ColumnMetadata metadata, Object valObj) {
+        return valObj == null || NULL_VALUE.equals(valObj.toString()) ? null : valuePostProcess(metadata, valObj).toString();
+    }
+
     private static Object valuePostProcess(ColumnMetadata metadata, Object val) {
         if (val instanceof Date) {
             return dateFormat(val, metadata.getDateFormat());
@@ -304,16 +516,6 @@ public abstract class CommonTableService {
         }
     }
 
-    private static Object invokeMethod(ColumnMetadata metadata, Object object) {
-        FastMethod method = metadata.getReadMethod();
-        try {
-            return method.invoke(object, new Object[] {});
-        } catch (InvocationTargetException e) {
-            log.error(e.getMessage(), e);
-            return null;
-        }
-    }
-
     private static String doubleFormat(double d) {
         if (DoubleMath.isMathematicalInteger(d)) {
             return String.format("%d", (long) d);
@@ -345,17 +547,23 @@ public abstract class CommonTableService {
     }
 
     private <T> Comparator<T> getSimpleComparator(DatasetType datasetType, SortAttrs sortAttr) {
+        // sorting is single threaded, the last resolved reader is reused while the class is the same
+        ColumnReader[] lastReader = new ColumnReader[1];
+        Class<?>[] lastClass = new Class<?>[1];
         Comparator<T> result = (o1, o2) -> {
             if (o1.getClass() != o2.getClass()) {
                 return 0;
             }
-            Function<Object, Pair<ColumnMetadata, Object>> sortByReader = getClassColumnReaders(o1, datasetType, getType())
-                    .get(sortAttr.getSortBy());
+            if (lastClass[0] != o1.getClass()) {
+                lastReader[0] = getClassColumnReaders(o1, datasetType, getType()).get(sortAttr.getSortBy());
+                lastClass[0] = o1.getClass();
+            }
+            ColumnReader sortByReader = lastReader[0];
             if (sortByReader == null) {
                 return 0;
             }
-            Object v1 = sortByReader.apply(o1).getValue();
-            Object v2 = sortByReader.apply(o2).getValue();
+            Object v1 = sortByReader.read(o1);
+            Object v2 = sortByReader.read(o2);
             if ((v1 instanceof String) && (v2 instanceof String)) {
                 return AlphanumEmptyLastComparator.getInstance().compare((String) v1, (String) v2);
             }
@@ -370,11 +578,113 @@ public abstract class CommonTableService {
         return result;
     }
 
+    @Value
+    private static class SortedOrderKey {
+        private DatasetType datasetType;
+        private int queryHash;
+        private List<SortAttrs> sortAttrs;
+        private int size;
+    }
+
+    /**
+     * Sorted positions of the items together with their ids, so that a stale order
+     * (i.e. the data was reloaded in a different order) is detected while slicing the page
+     */
+    private static final class SortedOrder {
+        private final int[] positions;
+        private final String[] ids;
+
+        private <T extends HasStringId> SortedOrder(List<T> items, int[] positions) {
+            this.positions = positions;
+            this.ids = new String[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                ids[i] = items.get(positions[i]).getId();
+            }
+        }
+
+        private <T extends HasStringId> List<T> getPage(List<T> items, int from, int to) {
+            if (positions.length != items.size()) {
+                return null;
+            }
+            List<T> page = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                T item = items.get(positions[i]);
+                if (!Objects.equals(ids[i], item.getId())) {
+                    return null;
+                }
+                page.add(item);
+            }
+            return page;
+        }
+    }
+
+    @FunctionalInterface
+    private interface CellReader {
+        String read(Object item);
+    }
+
+    /**
+     * Reads a column value from an event, unwrapping the event first if the column belongs to the wrapped raw event
+     */
+    @AllArgsConstructor
+    @Getter
+    static final class ColumnReader {
+        private final ColumnMetadata metadata;
+        private final boolean wrapped;
+
+        Object read(Object event) {
+            try {
+                return metadata.getReader().apply(wrapped ? ((EventWrapper<?>) event).getEvent() : event);
+            } catch (RuntimeException e) {
+                // a failing getter blanks its cell only, as before, instead of failing the whole table
+                log.error(e.getMessage(), e);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Column readers of one event class flattened into arrays, writing formatted cells of an event into a row
+     */
+    private static final class RowWriter {
+        private final String[] columnKeys;
+        private final ColumnReader[] readers;
+
+        private RowWriter(Map<String, ColumnReader> columnReaders) {
+            columnKeys = new String[columnReaders.size()];
+            readers = new ColumnReader[columnReaders.size()];
+            int i = 0;
+            for (Map.Entry<String, ColumnReader> entry : columnReaders.entrySet()) {
+                columnKeys[i] = entry.getKey();
+                readers[i++] = entry.getValue();
+            }
+        }
+
+        private int size() {
+            return readers.length;
+        }
+
+        private void write(Object event, Map<String, String> row) {
+            for (int i = 0; i < readers.length; i++) {
+                ColumnMetadata metadata = readers[i].getMetadata();
+                Object valObj = readers[i].read(event);
+                if (valObj instanceof Map) {
+                    String columnKey = columnKeys[i];
+                    ((Map<?, ?>) valObj).forEach((mapKey, mapValue) ->
+                            row.put(mapKey.toString() + DOUBLE_DASH + columnKey,
+                                    mapValue == null ? null : valuePostProcess(metadata, mapValue).toString()));
+                } else {
+                    row.put(columnKeys[i], format(metadata, valObj));
+                }
+            }
+        }
+    }
+
     @AllArgsConstructor
     @Getter
     @Builder(toBuilder = true)
     static class ColumnMetadata {
-        private FastMethod readMethod;
+        private Function<Object, Object> reader;
         private Double order;
         private String columnName;
         private String displayName;
@@ -28,7 +28,6 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -70,28 +69,28 @@ public class DoDCommonService extends CommonTableService {
         //here we assume that ALL map columns will contain consistent keys across merged datasets (it's a case for Subject)
         //unless we have to break this assumption and need to parse the whole set of data we can use any element from list to get columns metadata
         T anyItem = items.stream().findAny().orElse(null);
-        Map<String, Function<Object, Pair<ColumnMetadata, Object>>> classColumnReaders = getClassColumnReaders(anyItem, datasetType, tableType);
+        Map<String, ColumnReader> classColumnReaders = getClassColumnReaders(anyItem, datasetType, tableType);
 
         return getColumns(classColumnReaders, items, anyItem);
     }
 
-    private <T> Map<String, ColumnMetadata> getColumns(Map<String, Function<Object, Pair<ColumnMetadata, Object>>> classColumnReaders,
+    private <T> Map<String, ColumnMetadata> getColumns(Map<String, ColumnReader> classColumnReaders,
                                                        Collection<T> items, T anyItem) {
         return classColumnReaders.entrySet()
                 .stream()
-                .filter(reader -> items.stream().map(i -> reader.getValue().apply(i).getValue())
+                .filter(reader -> items.stream().map(i -> reader.getValue().read(i))
                         .anyMatch(val -> val != null && !EMPTY_VALUE.equals(val)))
                 .flatMap(reader -> {
                     //again, here we pick a random item from merged datasets assuming map keys are consistent, see comment above
-                    Pair<ColumnMetadata, ?> res = reader.getValue().apply(anyItem);
-                    Object valObj = res.getValue();
+                    ColumnMetadata metadata = reader.getValue().getMetadata();
+                    Object valObj = reader.getValue().read(anyItem);
                     if (valObj instanceof Map) {
                         Map<?, ?> valMap = (Map<?, ?>) valObj;
                         return valMap.keySet().stream()
                                 .map(k -> new ImmutablePair<>(k + DOUBLE_DASH + reader.getKey(),
-                                        res.getLeft().toBuilder().displayName(k + " " + res.getLeft().getDisplayName()).build()));
+                                        metadata.toBuilder().displayName(k + " " + metadata.getDisplayName()).build()));
                     } else {
-                        return Stream.of(new ImmutablePair<>(reader.getKey(), res.getLeft()));
+                        return Stream.of(new ImmutablePair<>(reader.getKey(), metadata));
                     }
                 })
                 .collect(Collectors.toMap(Pair::getKey, Pair::getValue));
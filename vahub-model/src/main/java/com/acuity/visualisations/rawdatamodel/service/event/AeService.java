@@ -90,6 +90,8 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -214,10 +216,10 @@ public class AeService extends BasePlotEventService<AeRaw, Ae, AeGroupByOptions>
         FilterResult<Ae> filtered = getFilteredData(datasets, filters, populationFilters, eventSettings);
 
         Map<GroupByKey<Ae, AeGroupByOptions>, BarChartCalculationObject<Ae>> chartData =
-                barChartService.getBarChart(eventSettings.getSettings(), CountType.COUNT_OF_EVENTS, filtered);
+                barChartService.getOverTimeBarChart(eventSettings.getSettings(), CountType.COUNT_OF_EVENTS, filtered);
 
         Map<GroupByKey<Subject, PopulationGroupByOptions>, BarChartCalculationObject<Subject>> lineData =
-                populationBarChartService.getBarChart(getPopulationLineSettings(eventSettings, filtered.getFilteredResult()),
+                populationBarChartService.getOverTimeBarChart(getPopulationLineSettings(eventSettings, filtered.getFilteredResult()),
                         CountType.COUNT_OF_EVENTS, filtered.getPopulationFilterResult());
 
         return overtimeChartUIModelService.toTrellisedOvertime(chartData, lineData);
@@ -285,7 +287,8 @@ public class AeService extends BasePlotEventService<AeRaw, Ae, AeGroupByOptions>
         // The set of ids is unique to either Incidence and Severity data providers
         Collection<Ae> events = getAeData(datasets, e -> ids.contains(e.getId()));
 
-        return doDCommonService.getColumnData(DatasetType.fromDatasets(datasets), events, sortAttrs, from, count, true);
+        return doDCommonService.getColumnData(DatasetType.fromDatasets(datasets), events, Objects.hash(datasets, ids),
+                sortAttrs, from, count, true);
     }
 
     /**
@@ -318,8 +321,7 @@ public class AeService extends BasePlotEventService<AeRaw, Ae, AeGroupByOptions>
 
         final DatasetType datasetType = DatasetType.fromDatasets(datasets);
         Map<String, String> columnsTitles = doDCommonService.getDoDColumns(datasetType, events);
-        List<Map<String, String>> data = doDCommonService.getColumnData(datasetType, events);
-        doDCommonService.writeCsv(data, columnsTitles, writer);
+        doDCommonService.writeCsv(datasetType, events, columnsTitles, writer);
     }
 
     @Override
@@ -342,9 +344,13 @@ public class AeService extends BasePlotEventService<AeRaw, Ae, AeGroupByOptions>
 
         // need all subjects, and not just aes filters subjects
         // Also adding an identical subject with All arm to help with counting
+        // All arm subject is created once per subject and shared by all its aes
+        Map<String, Subject> allArmSubjects = new ConcurrentHashMap<>();
+        Function<Subject, Subject> allArmSubjectProvider = subj -> allArmSubjects.computeIfAbsent(subj.getSubjectId(),
+                id -> subj.toBuilder().actualArm("All").build());
         List<Subject> subjects = allAeData.getPopulationFilterResult().parallelStream().
                 flatMap(subj -> {
-                    Subject allArmSubject = subj.toBuilder().actualArm("All").build();
+                    Subject allArmSubject = allArmSubjectProvider.apply(subj);
                     if (datasets.isDetectType()) {
                         return newArrayList(subj, allArmSubject).stream();
                     }
@@ -376,7 +382,7 @@ public class AeService extends BasePlotEventService<AeRaw, Ae, AeGroupByOptions>
                     return aesPerTerm.stream().flatMap(aePerTerm -> {
                         List<Ae> newAes = newArrayList();
 
-                        Subject allArmSubject = aePerTerm.getSubject().toBuilder().actualArm("All").build();
+                        Subject allArmSubject = allArmSubjectProvider.apply(aePerTerm.getSubject());
                         newAes.add(new Ae(aePerTerm.getEvent(), allArmSubject));
                         if (datasets.isDetectType()) {
                             newAes.add(aePerTerm); // add with its actual arm
@@ -488,8 +494,8 @@ public class AeService extends BasePlotEventService<AeRaw, Ae, AeGroupByOptions>
     @Override
     public List<Map<String, String>> getSingleSubjectData(Datasets datasets, String subjectId, Filters<Ae> filters) {
         List<Map<String, String>> output = new ArrayList<>();
-        FilterResult<Ae> filtered = getFilteredData(datasets, filters, PopulationFilters.empty(),
-                null, s -> s.getSubjectCode().equals(subjectId) || s.getSubjectId().equals(subjectId));
+        FilterResult<Ae> filtered = getSubjectFilteredData(datasets, subjectId, filters,
+                s -> s.getSubjectCode().equals(subjectId) || s.getSubjectId().equals(subjectId));
         filtered.stream()
                 .sorted(Comparator.comparing(Ae::getStartDate, Comparator.nullsLast(Comparator.naturalOrder())))
                 .forEach(ae -> {
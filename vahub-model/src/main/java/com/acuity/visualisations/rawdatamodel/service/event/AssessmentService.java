@@ -18,7 +18,6 @@ package com.acuity.visualisations.rawdatamodel.service.event;
 
 import com.acuity.visualisations.rawdatamodel.filters.AssessmentFilters;
 import com.acuity.visualisations.rawdatamodel.filters.Filters;
-import com.acuity.visualisations.rawdatamodel.filters.PopulationFilters;
 import com.acuity.visualisations.rawdatamodel.service.BaseEventService;
 import com.acuity.visualisations.rawdatamodel.service.ssv.OncologyPermission;
 import com.acuity.visualisations.rawdatamodel.service.ssv.SsvSummaryTableService;
@@ -63,8 +62,7 @@ public class AssessmentService extends BaseEventService<AssessmentRaw, Assessmen
                 && assessment.getEvent().getVisitDate() != null
                 && assessment.getEvent().getBaselineDate() != null
                 && !assessment.getEvent().getVisitDate().before(assessment.getEvent().getBaselineDate());
-        final FilterResult<Assessment> filteredData = getFilteredData(datasets, filters,
-                PopulationFilters.empty(), null, predicate);
+        final FilterResult<Assessment> filteredData = getSubjectFilteredData(datasets, subjectId, filters, predicate);
         List<Assessment> sortedNtls = filteredData.stream()
                 .sorted(Comparator.comparing(ntl -> ntl.getEvent().getVisitDate()))
                 .collect(Collectors.toList());
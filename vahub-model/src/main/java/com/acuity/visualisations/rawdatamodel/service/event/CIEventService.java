@@ -100,10 +100,10 @@ public class CIEventService extends BasePlotEventService<CIEventRaw, CIEvent, CI
         FilterResult<CIEvent> filtered = getFilteredData(datasets, filters, populationFilters, eventSettings);
 
         Map<GroupByKey<CIEvent, CIEventGroupByOptions>, BarChartCalculationObject<CIEvent>> chartData =
-                barChartService.getBarChart(eventSettings.getSettings(), CountType.COUNT_OF_EVENTS, filtered);
+                barChartService.getOverTimeBarChart(eventSettings.getSettings(), CountType.COUNT_OF_EVENTS, filtered);
 
         Map<GroupByKey<Subject, PopulationGroupByOptions>, BarChartCalculationObject<Subject>> lineData =
-                populationBarChartService.getBarChart(getPopulationLineSettings(eventSettings, filtered.getFilteredResult()),
+                populationBarChartService.getOverTimeBarChart(getPopulationLineSettings(eventSettings, filtered.getFilteredResult()),
                         CountType.COUNT_OF_EVENTS, filtered.getPopulationFilterResult());
 
         return overtimeChartUIModelService.toTrellisedOvertime(chartData, lineData);
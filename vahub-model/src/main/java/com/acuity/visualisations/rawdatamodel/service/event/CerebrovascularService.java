@@ -97,10 +97,10 @@ public class CerebrovascularService extends BasePlotEventService<Cerebrovascular
         FilterResult<Cerebrovascular> filtered = getFilteredData(datasets, filters, populationFilters, eventSettings);
 
         Map<GroupByKey<Cerebrovascular, CerebrovascularGroupByOptions>, BarChartCalculationObject<Cerebrovascular>> chartData =
-                barChartService.getBarChart(eventSettings.getSettings(), CountType.COUNT_OF_EVENTS, filtered);
+                barChartService.getOverTimeBarChart(eventSettings.getSettings(), CountType.COUNT_OF_EVENTS, filtered);
 
         Map<GroupByKey<Subject, PopulationGroupByOptions>, BarChartCalculationObject<Subject>> lineData =
-                populationBarChartService.getBarChart(getPopulationLineSettings(eventSettings, filtered.getFilteredResult()),
+                populationBarChartService.getOverTimeBarChart(getPopulationLineSettings(eventSettings, filtered.getFilteredResult()),
                         CountType.COUNT_OF_EVENTS, filtered.getPopulationFilterResult());
 
         return overtimeChartUIModelService.toTrellisedOvertime(chartData, lineData);
@@ -118,7 +118,7 @@ public class ConmedsService extends BasePlotEventService<ConmedRaw, Conmed, Conm
         Map<GroupByKey<Conmed, ConmedGroupByOptions>, BarChartCalculationObject<Conmed>> chartData =
                 barChartService.getBarChart(getOptionsWithContext(
                         settings.getSettings(), getContextSupplier(filtered, colorByOption, xAxisOption)),
-                        countType, filtered);
+                        countType, filtered, true);
 
         return uiService.toTrellisedBarChart(chartData, countType);
     }
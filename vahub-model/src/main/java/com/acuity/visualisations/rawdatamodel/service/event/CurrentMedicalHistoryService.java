@@ -20,7 +20,6 @@ import com.acuity.visualisations.rawdatamodel.dataproviders.PopulationDatasetsDa
 import com.acuity.visualisations.rawdatamodel.dataproviders.common.SubjectAwareDatasetsDataProvider;
 import com.acuity.visualisations.rawdatamodel.filters.Filters;
 import com.acuity.visualisations.rawdatamodel.filters.MedicalHistoryFilters;
-import com.acuity.visualisations.rawdatamodel.filters.PopulationFilters;
 import com.acuity.visualisations.rawdatamodel.service.dod.AmlCommonService;
 import com.acuity.visualisations.rawdatamodel.service.dod.CBioCommonService;
 import com.acuity.visualisations.rawdatamodel.service.dod.DoDCommonService;
@@ -70,8 +69,8 @@ public class CurrentMedicalHistoryService extends MedicalHistoryService implemen
 
     @Override
     public List<Map<String, String>> getSingleSubjectData(Datasets datasets, String subjectId, Filters<MedicalHistory> filters) {
-        final FilterResult<MedicalHistory> filteredData = getFilteredData(datasets, filters,
-                PopulationFilters.empty(), null, s -> s.getSubjectId().equals(subjectId));
+        final FilterResult<MedicalHistory> filteredData = getSubjectFilteredData(datasets, subjectId, filters,
+                s -> s.getSubjectId().equals(subjectId));
         Collection<MedicalHistory> currentMedicalHistories = filteredData.stream()
                 .filter(mh -> {
                     final String conditionalStatus = StringUtils.lowerCase(mh.getEvent().getConditionStatus());
@@ -103,10 +103,10 @@ public class CvotEndpointService extends BasePlotEventService<CvotEndpointRaw, C
         FilterResult<CvotEndpoint> filtered = getFilteredData(datasets, filters, populationFilters, eventSettings);
 
         Map<GroupByKey<CvotEndpoint, CvotEndpointGroupByOptions>, BarChartCalculationObject<CvotEndpoint>> chartData =
-                barChartService.getBarChart(eventSettings.getSettings(), CountType.COUNT_OF_EVENTS, filtered);
+                barChartService.getOverTimeBarChart(eventSettings.getSettings(), CountType.COUNT_OF_EVENTS, filtered);
 
         Map<GroupByKey<Subject, PopulationGroupByOptions>, BarChartCalculationObject<Subject>> lineData =
-                populationBarChartService.getBarChart(getPopulationLineSettings(eventSettings, filtered.getFilteredResult()),
+                populationBarChartService.getOverTimeBarChart(getPopulationLineSettings(eventSettings, filtered.getFilteredResult()),
                         CountType.COUNT_OF_EVENTS, filtered.getPopulationFilterResult());
 
         return overtimeChartUIModelService.toTrellisedOvertime(chartData, lineData);
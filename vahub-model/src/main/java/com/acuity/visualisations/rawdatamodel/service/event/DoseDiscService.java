@@ -18,7 +18,6 @@ package com.acuity.visualisations.rawdatamodel.service.event;
 
 import com.acuity.visualisations.rawdatamodel.filters.DoseDiscFilters;
 import com.acuity.visualisations.rawdatamodel.filters.Filters;
-import com.acuity.visualisations.rawdatamodel.filters.PopulationFilters;
 import com.acuity.visualisations.rawdatamodel.service.BaseEventService;
 import com.acuity.visualisations.rawdatamodel.service.ssv.SsvSummaryTableService;
 import com.acuity.visualisations.rawdatamodel.trellis.grouping.DoseDiscGroupByOptions;
@@ -50,8 +49,8 @@ public class DoseDiscService extends BaseEventService<DoseDiscRaw, DoseDisc, Dos
 
     @Override
     public List<Map<String, String>> getSingleSubjectData(Datasets datasets, String subjectId, Filters<DoseDisc> filters) {
-        final FilterResult<DoseDisc> filteredData = getFilteredData(datasets, filters,
-                PopulationFilters.empty(), null, s -> s.getSubjectId().equals(subjectId));
+        final FilterResult<DoseDisc> filteredData = getSubjectFilteredData(datasets, subjectId, filters,
+                s -> s.getSubjectId().equals(subjectId));
         Collection<DoseDisc> sortedEvents = filteredData.stream()
                 .sorted(Comparator.comparing(d -> d.getEvent().getDiscDate(), Comparator.nullsLast(Comparator.naturalOrder())))
                 .collect(Collectors.toList());
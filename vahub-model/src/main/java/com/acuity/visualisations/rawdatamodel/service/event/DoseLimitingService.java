@@ -19,7 +19,6 @@ package com.acuity.visualisations.rawdatamodel.service.event;
 import com.acuity.visualisations.rawdatamodel.filters.AeFilters;
 import com.acuity.visualisations.rawdatamodel.filters.DrugDoseFilters;
 import com.acuity.visualisations.rawdatamodel.filters.Filters;
-import com.acuity.visualisations.rawdatamodel.filters.PopulationFilters;
 import com.acuity.visualisations.rawdatamodel.service.PopulationService;
 import com.acuity.visualisations.rawdatamodel.service.ssv.SsvSummaryTableService;
 import com.acuity.visualisations.rawdatamodel.vo.FilterResult;
@@ -65,8 +64,8 @@ public class DoseLimitingService extends AeService implements SsvSummaryTableSer
     @Override
     public List<Map<String, String>> getSingleSubjectData(Datasets datasets, String subjectId, Filters<Ae> filters) {
 
-        FilterResult<Ae> filteredData = getFilteredData(datasets, filters,
-                PopulationFilters.empty(), null, s -> s.getSubjectId().equals(subjectId));
+        FilterResult<Ae> filteredData = getSubjectFilteredData(datasets, subjectId, filters,
+                s -> s.getSubjectId().equals(subjectId));
 
         List<Ae> dlts = filteredData.stream()
                 .filter(t -> DOSE_LIMITING_OF_AE.equalsIgnoreCase(t.getEvent().getDoseLimitingToxicity()))
@@ -74,8 +73,8 @@ public class DoseLimitingService extends AeService implements SsvSummaryTableSer
                 .thenComparing(Comparator.comparing(t -> t.getEvent().getPt(), Comparator.nullsLast(Comparator.naturalOrder()))))
                 .collect(Collectors.toList());
 
-        FilterResult<DrugDose> activeDrugDoses = drugDoseService.getFilteredData(datasets, DrugDoseFilters.empty(),
-                PopulationFilters.empty(), null, t -> (subjectId.equals(t.getSubjectId())
+        FilterResult<DrugDose> activeDrugDoses = drugDoseService.getSubjectFilteredData(datasets, subjectId, DrugDoseFilters.empty(),
+                t -> (subjectId.equals(t.getSubjectId())
                         && ACTIVE_DOSING.equalsIgnoreCase(t.getEvent().getPeriodType()) && t.getEvent().getStartDate() != null));
 
         List<Map<String, String>> doseLimitingSummary = new ArrayList<>();
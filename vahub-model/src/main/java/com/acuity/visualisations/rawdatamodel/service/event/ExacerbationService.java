@@ -303,10 +303,10 @@ public class ExacerbationService extends BasePlotEventService<ExacerbationRaw, E
         FilterResult<Exacerbation> filtered = getFilteredData(datasets, filters, populationFilters, eventSettings);
 
         Map<GroupByKey<Exacerbation, ExacerbationGroupByOptions>, BarChartCalculationObject<Exacerbation>> chartData =
-                barChartService.getBarChart(eventSettings.getSettings(), CountType.COUNT_OF_EVENTS, filtered);
+                barChartService.getOverTimeBarChart(eventSettings.getSettings(), CountType.COUNT_OF_EVENTS, filtered);
 
         Map<GroupByKey<Subject, PopulationGroupByOptions>, BarChartCalculationObject<Subject>> lineData =
-                populationBarChartService.getBarChart(getPopulationLineSettings(eventSettings, filtered.getFilteredResult()),
+                populationBarChartService.getOverTimeBarChart(getPopulationLineSettings(eventSettings, filtered.getFilteredResult()),
                         CountType.COUNT_OF_EVENTS, filtered.getPopulationFilterResult());
 
         return overtimeChartUIModelService.toTrellisedOvertime(chartData, lineData);
@@ -16,6 +16,7 @@
 
 package com.acuity.visualisations.rawdatamodel.service.event;
 
+import com.acuity.visualisations.rawdatamodel.dataproviders.ExposureDatasetsDataProvider;
 import com.acuity.visualisations.rawdatamodel.filters.ExposureFilters;
 import com.acuity.visualisations.rawdatamodel.filters.Filters;
 import com.acuity.visualisations.rawdatamodel.filters.PopulationFilters;
@@ -29,7 +30,6 @@ import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartGroupByOptio
 import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartSelection;
 import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartSelectionItem;
 import com.acuity.visualisations.rawdatamodel.trellis.grouping.ExposureGroupByOptions;
-import com.acuity.visualisations.rawdatamodel.trellis.grouping.GroupByAttributes;
 import com.acuity.visualisations.rawdatamodel.trellis.grouping.GroupByKey;
 import com.acuity.visualisations.rawdatamodel.util.TrellisUtil;
 import com.acuity.visualisations.rawdatamodel.vo.ExposureRaw;
@@ -42,16 +42,19 @@ import com.acuity.visualisations.rawdatamodel.vo.plots.LineChartData;
 import com.acuity.visualisations.rawdatamodel.vo.plots.SelectionDetail;
 import com.acuity.visualisations.rawdatamodel.vo.wrappers.Exposure;
 import com.acuity.va.security.acl.domain.Datasets;
-import com.axibase.math.stat.descriptive.DescriptiveStatistics;
 import org.apache.commons.lang3.Validate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartGroupByOptions.ChartGroupBySetting.COLOR_BY;
@@ -73,6 +76,8 @@ public class ExposureService extends BasePlotEventService<ExposureRaw, Exposure,
     private ExposureLineChartUIModelService<Exposure, ExposureGroupByOptions> lineChartUIModelService;
     @Autowired
     private ExposureLineChartService lineChartService;
+    @Autowired
+    private ExposureDatasetsDataProvider exposureDatasetsDataProvider;
 
     public List<TrellisOptions<ExposureGroupByOptions>> getTrellisOptions(Datasets datasets, Filters<Exposure> filters,
                                                                           PopulationFilters populationFilters) {
@@ -104,8 +109,9 @@ public class ExposureService extends BasePlotEventService<ExposureRaw, Exposure,
 
     private GroupByKey<Exposure, ExposureGroupByOptions> calculateAggregatedPoint(Collection<GroupByKey<Exposure, ExposureGroupByOptions>> c) {
         GroupByKey<Exposure, ExposureGroupByOptions> any = c.stream().findAny().get();
-        any = withAggregatedName(c, any);
-        any = withAverageYAndDeviation(c, any);
+        AggregatedPoint point = AggregatedPoint.of(c);
+        any = withAggregatedName(point, any);
+        any = withAverageYAndDeviation(point, any);
         return any;
     }
 
@@ -113,27 +119,19 @@ public class ExposureService extends BasePlotEventService<ExposureRaw, Exposure,
      * SubjectCycle in NAME option is updated due to possibility of several treatment cycles and analytes
      * at one point in case of averaging (setting Line Aggregation) on the analyte concentration plot
      *
-     * @param pointEvents - all events grouped by particular set of options that will form one point on a plot
+     * @param point - aggregation of all events grouped by particular set of options that will form one point on a plot
      * @param keyToModify
      * @return
      */
-    private GroupByKey<Exposure, ExposureGroupByOptions> withAggregatedName(Collection<GroupByKey<Exposure, ExposureGroupByOptions>> pointEvents,
+    private GroupByKey<Exposure, ExposureGroupByOptions> withAggregatedName(AggregatedPoint point,
                                                                             GroupByKey<Exposure, ExposureGroupByOptions> keyToModify) {
-
-        List<ExposureData> cycleList = collectData(pointEvents);
-        String cycles = cycleList.stream()
-                .map(ExposureData::getTreatmentCycle)
-                .distinct()
-                .sorted()
-                .collect(joining(", "));
         String analytes = keyToModify.getTrellisByValues().containsKey(ExposureGroupByOptions.ANALYTE)
                 ? null
-                : cycleList.stream().map(ExposureData::getAnalyte).distinct().sorted().collect(joining(", "));
+                : point.getAnalytes();
         final ExposureData exposureData = (ExposureData) keyToModify.getValues().get(NAME);
-        final int dataPoints = pointEvents.size();
         final ExposureTooltip exposureTooltip = ExposureTooltip.builder()
-                .exposureData(exposureData.toBuilder().treatmentCycle(cycles).analyte(analytes).build())
-                .dataPoints(dataPoints)
+                .exposureData(exposureData.toBuilder().treatmentCycle(point.getCycles()).analyte(analytes).build())
+                .dataPoints(point.getCount())
                 .colorByValue(Objects.toString(keyToModify.getValues()
                         .get(COLOR_BY), DEFAULT_EMPTY_VALUE)).build();
         keyToModify = keyToModify.copyReplacing(NAME, exposureTooltip);
@@ -144,21 +142,14 @@ public class ExposureService extends BasePlotEventService<ExposureRaw, Exposure,
      * Y axis value is calculated as an average of Y values of all points that are going to form the point
      * Standard deviation is calculated to form error bars
      *
-     * @param pointEvents - all events grouped by particular set of options that will form one point on a plot
+     * @param point - aggregation of all events grouped by particular set of options that will form one point on a plot
      * @param keyToModify
      * @return
      */
-    private GroupByKey<Exposure, ExposureGroupByOptions> withAverageYAndDeviation(Collection<GroupByKey<Exposure, ExposureGroupByOptions>> pointEvents,
+    private GroupByKey<Exposure, ExposureGroupByOptions> withAverageYAndDeviation(AggregatedPoint point,
                                                                                   GroupByKey<Exposure, ExposureGroupByOptions> keyToModify) {
-        BigDecimal[] yValues = pointEvents.stream()
-                .map(e -> new BigDecimal(e.getValue(Y_AXIS).toString()))
-                .toArray(BigDecimal[]::new);
-        DescriptiveStatistics stats = new DescriptiveStatistics(yValues);
-        BigDecimal avg = stats.getMean();
-        BigDecimal standardDeviation = stats.getPopulationStandardDeviation();
-        keyToModify = keyToModify.copyReplacing(Y_AXIS, avg.setScale(2, BigDecimal.ROUND_HALF_UP).doubleValue());
-        keyToModify = keyToModify.copyReplacing(STANDARD_DEVIATION, standardDeviation.setScale(2, BigDecimal.ROUND_HALF_UP)
-                .doubleValue());
+        keyToModify = keyToModify.copyReplacing(Y_AXIS, point.getRoundedMean());
+        keyToModify = keyToModify.copyReplacing(STANDARD_DEVIATION, point.getRoundedPopulationStandardDeviation());
         return keyToModify;
 
     }
@@ -167,16 +158,13 @@ public class ExposureService extends BasePlotEventService<ExposureRaw, Exposure,
                                                                      ChartGroupByOptions<Exposure, ExposureGroupByOptions> settings) {
         // firstly, filter by single cycle series, then apply exposure filters. As a result, single point can be shown in some cases
         final FilterResult<Exposure> filteredData = getFilteredData(datasets, ExposureFilters.empty(), PopulationFilters.empty());
-        FilterResult<Exposure> filteredDataNoSingleSeries = filteredData.withResults(filteredData.getAllEvents(),
-                GroupByAttributes.group(filteredData.getFilteredEvents(), ChartGroupByOptions.<Exposure,
-                        ExposureGroupByOptions>builder().withTrellisOptions(settings.getTrellisOptions())
-                        .withOption(SERIES_BY, SUBJECT_CYCLE.getGroupByOptionAndParams()).build())
-                        .entrySet().stream()
-                        .filter(e -> e.getValue().size() > 1)
-                        .flatMap(e -> e.getValue().stream())
-                        .collect(Collectors.toList()));
+        final Set<String> multiPointSeriesEventIds = exposureDatasetsDataProvider.loadMultiPointSeriesEventIds(datasets,
+                settings.getTrellisOptions());
+        final List<Exposure> filteredDataNoSingleSeries = filteredData.getFilteredEvents().stream()
+                .filter(e -> multiPointSeriesEventIds.contains(e.getId()))
+                .collect(Collectors.toList());
         //apply exposure filters
-        return getFilteredData(filteredDataNoSingleSeries.getFilteredEvents(), datasets, filters, populationFilters);
+        return getFilteredData(filteredDataNoSingleSeries, datasets, filters, populationFilters);
     }
 
     @Override
@@ -207,9 +195,129 @@ public class ExposureService extends BasePlotEventService<ExposureRaw, Exposure,
         lineChartUIModelService.generateColors(datasets, colorByOptions);
     }
 
-    private List<ExposureData> collectData(Collection<GroupByKey<Exposure, ExposureGroupByOptions>> c) {
-        return c.stream()
-                .map(val -> ((ExposureData) val.getValues().get(NAME)))
-                .collect(Collectors.toList());
+    /**
+     * Y values and labels of the events forming one point of the plot, collected in one pass.
+     * The mean is a compensated (Kahan) sum divided by count, the deviation is accumulated with Welford's algorithm.
+     * Both are rounded half up to hundredths; only when a value is within a tiny distance of a rounding tie,
+     * where the double error could flip the rounding, it is recalculated exactly from the decimal Y values
+     * to round the same way as the BigDecimal statistics did.
+     */
+    static final class AggregatedPoint {
+        private static final int SCALE = 2;
+        private static final double HUNDREDTHS = 100;
+        private static final double TIE_EPSILON = 1e-9;
+        private static final BigDecimal HALF_STEPS_SQUARED = BigDecimal.valueOf(2 * 100 * 2 * 100);
+
+        private int count;
+        private double sum;
+        private double sumCompensation;
+        private double runningMean;
+        private double squaredDeviations;
+        private double[] yValues = new double[4];
+        private final Set<String> cycles = new HashSet<>();
+        private final Set<String> analytes = new HashSet<>();
+
+        static AggregatedPoint of(Collection<GroupByKey<Exposure, ExposureGroupByOptions>> pointEvents) {
+            AggregatedPoint point = new AggregatedPoint();
+            for (GroupByKey<Exposure, ExposureGroupByOptions> event : pointEvents) {
+                point.accept(toDouble(event.getValue(Y_AXIS)), (ExposureData) event.getValues().get(NAME));
+            }
+            return point;
+        }
+
+        void accept(double y, ExposureData exposureData) {
+            if (count == yValues.length) {
+                yValues = Arrays.copyOf(yValues, count * 2);
+            }
+            yValues[count++] = y;
+
+            double compensated = y - sumCompensation;
+            double newSum = sum + compensated;
+            sumCompensation = (newSum - sum) - compensated;
+            sum = newSum;
+
+            double delta = y - runningMean;
+            runningMean += delta / count;
+            squaredDeviations += delta * (y - runningMean);
+
+            cycles.add(exposureData.getTreatmentCycle());
+            analytes.add(exposureData.getAnalyte());
+        }
+
+        int getCount() {
+            return count;
+        }
+
+        double getRoundedMean() {
+            double mean = sum / count;
+            return isNearTie(mean) ? getExactRoundedMean() : roundHalfUp(mean);
+        }
+
+        double getRoundedPopulationStandardDeviation() {
+            double deviation = Math.sqrt(squaredDeviations / count);
+            return isNearTie(deviation) ? getExactRoundedPopulationStandardDeviation() : roundHalfUp(deviation);
+        }
+
+        private static boolean isNearTie(double value) {
+            double hundredths = Math.abs(value) * HUNDREDTHS;
+            return Math.abs(hundredths - Math.floor(hundredths) - 0.5) < TIE_EPSILON * Math.max(1, hundredths);
+        }
+
+        private static double roundHalfUp(double value) {
+            return Math.copySign(Math.floor(Math.abs(value) * HUNDREDTHS + 0.5), value) / HUNDREDTHS;
+        }
+
+        private BigDecimal exactSum() {
+            BigDecimal exactSum = BigDecimal.ZERO;
+            for (int i = 0; i < count; i++) {
+                exactSum = exactSum.add(BigDecimal.valueOf(yValues[i]));
+            }
+            return exactSum;
+        }
+
+        private double getExactRoundedMean() {
+            return exactSum().divide(BigDecimal.valueOf(count), SCALE, RoundingMode.HALF_UP).doubleValue();
+        }
+
+        /**
+         * The deviation is sqrt(n * sum(y^2) - sum(y)^2) / n, its value in half hundredths is floored by comparing squares exactly,
+         * then halved rounding up
+         */
+        private double getExactRoundedPopulationStandardDeviation() {
+            BigDecimal exactSum = exactSum();
+            BigDecimal sumOfSquares = BigDecimal.ZERO;
+            for (int i = 0; i < count; i++) {
+                BigDecimal y = BigDecimal.valueOf(yValues[i]);
+                sumOfSquares = sumOfSquares.add(y.multiply(y));
+            }
+            BigDecimal n = BigDecimal.valueOf(count);
+            BigDecimal squaredHalfSteps = n.multiply(sumOfSquares).subtract(exactSum.multiply(exactSum)).multiply(HALF_STEPS_SQUARED);
+            BigDecimal squaredCount = n.multiply(n);
+            long halfSteps = (long) Math.floor(Math.sqrt(squaredHalfSteps.doubleValue()) / count);
+            while (halfSteps > 0 && isGreaterThan(halfSteps, squaredCount, squaredHalfSteps)) {
+                halfSteps--;
+            }
+            while (!isGreaterThan(halfSteps + 1, squaredCount, squaredHalfSteps)) {
+                halfSteps++;
+            }
+            return BigDecimal.valueOf((halfSteps + 1) / 2, SCALE).doubleValue();
+        }
+
+        private static boolean isGreaterThan(long halfSteps, BigDecimal squaredCount, BigDecimal squaredHalfSteps) {
+            BigDecimal steps = BigDecimal.valueOf(halfSteps);
+            return steps.multiply(steps).multiply(squaredCount).compareTo(squaredHalfSteps) > 0;
+        }
+
+        String getCycles() {
+            return cycles.stream().sorted().collect(joining(", "));
+        }
+
+        String getAnalytes() {
+            return analytes.stream().sorted().collect(joining(", "));
+        }
+
+        private static double toDouble(Object value) {
+            return value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(value.toString());
+        }
     }
 }
@@ -250,7 +250,7 @@ public class LabService extends BasePlotEventService<LabRaw, Lab, LabGroupByOpti
      */
 
     public List<Map<String, String>> getOutOfRangeSingleSubjectData(Datasets datasets, String subjectId, Filters<Lab> eventFilters) {
-        final FilterResult<Lab> filteredData = getFilteredData(datasets, eventFilters, PopulationFilters.empty(), null,
+        final FilterResult<Lab> filteredData = getSubjectFilteredData(datasets, subjectId, eventFilters,
                 s -> s.getSubjectId().equals(subjectId) || subjectId.equals(s.getSubjectCode()));
 
         Comparator<Lab> sortByDate = Comparator.comparing(lc -> lc.getEvent().getMeasurementTimePoint());
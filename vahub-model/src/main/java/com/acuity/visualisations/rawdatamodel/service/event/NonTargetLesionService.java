@@ -18,7 +18,6 @@ package com.acuity.visualisations.rawdatamodel.service.event;
 
 import com.acuity.visualisations.rawdatamodel.filters.Filters;
 import com.acuity.visualisations.rawdatamodel.filters.NonTargetLesionFilters;
-import com.acuity.visualisations.rawdatamodel.filters.PopulationFilters;
 import com.acuity.visualisations.rawdatamodel.service.BaseEventService;
 import com.acuity.visualisations.rawdatamodel.service.ssv.OncologyPermission;
 import com.acuity.visualisations.rawdatamodel.service.ssv.SsvSummaryTableService;
@@ -59,8 +58,8 @@ public class NonTargetLesionService extends BaseEventService<NonTargetLesionRaw,
     public List<Map<String, String>> getSingleSubjectData(Datasets datasets, String subjectId, Filters<NonTargetLesion> filters) {
         Predicate<NonTargetLesion> t = ntl -> ntl.getEvent().getLesionDate() != null && ntl.getEvent().getBaselineDate() != null
                 && !ntl.getEvent().getLesionDate().before(ntl.getEvent().getBaselineDate());
-        final FilterResult<NonTargetLesion> filteredData = getFilteredData(datasets, filters,
-                PopulationFilters.empty(), null, s -> s.getSubjectId().equals(subjectId));
+        final FilterResult<NonTargetLesion> filteredData = getSubjectFilteredData(datasets, subjectId, filters,
+                s -> s.getSubjectId().equals(subjectId));
         List<NonTargetLesion> sortedNtls = filteredData.stream()
                 .sorted(Comparator.comparing(ntl -> ntl.getEvent().getLesionDate(), Comparator.nullsLast(Comparator.naturalOrder())))
                 .filter(t)
@@ -169,7 +169,7 @@ public class PatientOutcomeSummaryService implements SsvSummaryTableService {
         Predicate<SeriousAe> predicate = e -> subjectId.equals(e.getSubjectId());
 
         FilterResult<SeriousAe> filtered
-                = seriousAdverseEventService.getFilteredData(datasets, SeriousAeFilters.empty(), PopulationFilters.empty(), null, predicate);
+                = seriousAdverseEventService.getSubjectFilteredData(datasets, subjectId, SeriousAeFilters.empty(), predicate);
         List<Map<String, String>> saeSummary = filtered.stream()
                 .sorted(Comparator.comparing(s -> s.getEvent().getBecomeSeriousDate(), Comparator.nullsLast(Comparator.naturalOrder())))
                 .map(s -> getSummaryRow(DaysUtil.toDisplayString(s.getEvent().getBecomeSeriousDate()),
@@ -182,7 +182,7 @@ public class PatientOutcomeSummaryService implements SsvSummaryTableService {
         Predicate<DoseDisc> predicate = e -> subjectId.equals(e.getSubjectId());
 
         FilterResult<DoseDisc> filtered
-                = doseDiscService.getFilteredData(datasets, DoseDiscFilters.empty(), PopulationFilters.empty(), null, predicate);
+                = doseDiscService.getSubjectFilteredData(datasets, subjectId, DoseDiscFilters.empty(), predicate);
 
         return filtered.stream()
                 .sorted(Comparator.comparing(s -> s.getEvent().getDiscDate(), Comparator.nullsLast(Comparator.naturalOrder())))
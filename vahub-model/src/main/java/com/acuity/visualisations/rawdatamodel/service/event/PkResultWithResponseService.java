@@ -181,8 +181,7 @@ public class PkResultWithResponseService extends PkResultService {
     }
     private void writeRecistDodCsv(Writer writer, Column.DatasetType datasetType, Collection<AssessedTLWithWeek> atlWithWeeks) {
         Map<String, String> columnsTitles = doDCommonService.getDoDColumns(datasetType, atlWithWeeks);
-        List<Map<String, String>> data = doDCommonService.getColumnData(datasetType, atlWithWeeks);
-        doDCommonService.writeCsv(data, columnsTitles, writer);
+        doDCommonService.writeCsv(datasetType, atlWithWeeks, columnsTitles, writer);
     }
 
     private List<AssessedTLWithWeek> getATLWithUniqueWeek(Collection<AssessedTargetLesion> events) {
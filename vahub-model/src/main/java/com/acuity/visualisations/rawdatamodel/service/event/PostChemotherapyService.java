@@ -18,7 +18,6 @@ package com.acuity.visualisations.rawdatamodel.service.event;
 
 import com.acuity.visualisations.rawdatamodel.filters.ChemotherapyFilters;
 import com.acuity.visualisations.rawdatamodel.filters.Filters;
-import com.acuity.visualisations.rawdatamodel.filters.PopulationFilters;
 import com.acuity.visualisations.rawdatamodel.service.ssv.OncologyPermission;
 import com.acuity.visualisations.rawdatamodel.service.ssv.SsvSummaryTableService;
 import com.acuity.visualisations.rawdatamodel.vo.ChemotherapyRaw;
@@ -48,8 +47,8 @@ public class PostChemotherapyService extends ChemotherapyService implements SsvS
 
     @Override
     public List<Map<String, String>> getSingleSubjectData(Datasets datasets, String subjectId, Filters<Chemotherapy> filters) {
-        final FilterResult<Chemotherapy> filteredData = getFilteredData(datasets, filters,
-                PopulationFilters.empty(), null, s -> s.getSubjectId().equals(subjectId));
+        final FilterResult<Chemotherapy> filteredData = getSubjectFilteredData(datasets, subjectId, filters,
+                s -> s.getSubjectId().equals(subjectId));
         Collection<Chemotherapy> postChemotherapies = filteredData.stream()
                 .filter(ch -> POST.equalsIgnoreCase(ch.getEvent().getTimeStatus()))
                 .collect(Collectors.toList());
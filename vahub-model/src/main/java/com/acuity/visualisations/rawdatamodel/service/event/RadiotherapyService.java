@@ -17,7 +17,6 @@
 package com.acuity.visualisations.rawdatamodel.service.event;
 
 import com.acuity.visualisations.rawdatamodel.filters.Filters;
-import com.acuity.visualisations.rawdatamodel.filters.PopulationFilters;
 import com.acuity.visualisations.rawdatamodel.filters.RadiotherapyFilters;
 import com.acuity.visualisations.rawdatamodel.service.BaseEventService;
 import com.acuity.visualisations.rawdatamodel.service.ssv.OncologyPermission;
@@ -49,8 +48,8 @@ public class RadiotherapyService extends BaseEventService<RadiotherapyRaw, Radio
 
     @Override
     public List<Map<String, String>> getSingleSubjectData(Datasets datasets, String subjectId, Filters<Radiotherapy> filters) {
-        final FilterResult<Radiotherapy> filteredData = getFilteredData(datasets, filters,
-                PopulationFilters.empty(), null, s -> s.getSubjectId().equals(subjectId));
+        final FilterResult<Radiotherapy> filteredData = getSubjectFilteredData(datasets, subjectId, filters,
+                s -> s.getSubjectId().equals(subjectId));
         Collection<Radiotherapy> pastRadiotherapies = filteredData.stream()
                 .filter(r -> PREVIOUS.equalsIgnoreCase(r.getEvent().getTimeStatus()))
                 .collect(Collectors.toList());
@@ -46,6 +46,7 @@ import java.io.Writer;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -125,7 +126,8 @@ public class TumourLineChartService extends AssessedTargetLesionService {
 
         final Collection<AssessedTargetLesion> events = ((AssessedTargetLesionDatasetsDataProvider) getEventDataProvider(datasets))
                 .loadDataByVisit(datasets).stream().filter(e -> ids.contains(e.getId())).collect(toList());
-        return doDCommonService.getColumnData(Column.DatasetType.fromDatasets(datasets), events, sortAttrs, from, count, true);
+        return doDCommonService.getColumnData(Column.DatasetType.fromDatasets(datasets), events, Objects.hash(datasets, ids),
+                sortAttrs, from, count, true);
     }
 
     @Override
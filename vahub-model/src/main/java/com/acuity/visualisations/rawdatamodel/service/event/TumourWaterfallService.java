@@ -50,8 +50,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -88,28 +90,33 @@ public class TumourWaterfallService extends AssessedTargetLesionService
                         Collectors.groupingBy(LimitableBySettings::limitedByTrellisOptions, Collectors.toSet())
                 );
         return groupedByTrellis.entrySet().stream().map(trellisSet -> {
-            final Set<GroupByKey<AssessedTargetLesion, ATLGroupByOptions>> items = trellisSet.getValue();
-
-            final List<String> xCategories = items.stream()
+            final List<GroupByKey<AssessedTargetLesion, ATLGroupByOptions>> items = trellisSet.getValue().stream()
                     .sorted(
                             Comparator.<GroupByKey<AssessedTargetLesion, ATLGroupByOptions>, Comparable>comparing(e -> (Comparable) e.getValue(Y_AXIS))
                                     .reversed()
                                     .thenComparing(e -> Objects.toString(e.getValue(X_AXIS)))
-                    )
-                    .map(e -> Objects.toString(e.getValue(X_AXIS))).distinct().collect(Collectors.toList());
+                    ).collect(Collectors.toList());
 
+            // X position of a category is the index of its first appearance in the sorted items
+            final List<String> xCategories = new ArrayList<>();
+            final Map<String, Integer> xPositions = new HashMap<>();
+            final List<WaterfallEntry> entries = new ArrayList<>(items.size());
+            for (GroupByKey<AssessedTargetLesion, ATLGroupByOptions> item : items) {
+                final String category = Objects.toString(item.getValue(X_AXIS));
+                final int x = xPositions.computeIfAbsent(category, c -> {
+                    xCategories.add(c);
+                    return xCategories.size() - 1;
+                });
+                entries.add(new WaterfallEntry(x, toDouble(item.getValue(Y_AXIS)), Objects.toString(item.getValue(COLOR_BY))));
+            }
+            entries.sort(Comparator.comparing(WaterfallEntry::getX));
 
             final List<TrellisOption<AssessedTargetLesion, ATLGroupByOptions>> trellisOptions = trellisSet.getKey().getTrellisByValues().entrySet().stream()
                     .map(option -> TrellisOption.of(option.getKey(), option.getValue())).collect(Collectors.toList());
 
-            final List<WaterfallEntry> entries = items.stream().map(i -> {
-                int x = xCategories.indexOf(i.getValue(X_AXIS).toString());
-                Object value = i.getValue(Y_AXIS);
-                return new WaterfallEntry(x, toDouble(value),
-                        Objects.toString(i.getValue(COLOR_BY)));
-            }).sorted(Comparator.comparing(WaterfallEntry::getX)).collect(Collectors.toList());
+            final Map<String, String> colors = new HashMap<>();
             return new TrellisedWaterfallChart<>(trellisOptions, new OutputWaterfallData(xCategories, entries.stream()
-                    .map(e -> new OutputWaterfallEntry(e, coloringService.getColor(e.getName())))
+                    .map(e -> new OutputWaterfallEntry(e, colors.computeIfAbsent(e.getName(), coloringService::getColor)))
                     .collect(Collectors.toList())));
         }).collect(Collectors.toList());
     }
@@ -190,17 +197,28 @@ public class TumourWaterfallService extends AssessedTargetLesionService
         Map<GroupByOption.Param, Object> yAxisParams = eventSettings.getSettings().getOptions().get(Y_AXIS).getParamMap();
         AssessmentType assessmentType = AssessmentAxisOptions.getAssessmentType(yAxisParams);
         int weekNumber = (int) yAxisParams.getOrDefault(GroupByOption.Param.WEEK_NUMBER, 0);
+        boolean withBestResponseEvents = WITH_BEST_RESPONSE_EVENTS.equals(yAxisParams.get(GroupByOption.Param.VALUE));
+
+        // projections depend on the Y axis only, so they are calculated once per datasets data rather than on every request
+        Collection<AssessedTargetLesion> events = getEventDataProvider(datasets, filters).loadProjection(datasets,
+                Arrays.asList(assessmentType, weekNumber, withBestResponseEvents),
+                allEvents -> getWaterfallEvents(allEvents, assessmentType, weekNumber, withBestResponseEvents));
+        Collection<Subject> subjects = getPopulationDatasetsDataProvider().loadData(datasets);
+        return new FilterQuery<>(events, filters, subjects, populationFilters);
+    }
+
+    private List<AssessedTargetLesion> getWaterfallEvents(Collection<AssessedTargetLesion> allEvents, AssessmentType assessmentType,
+                                                          int weekNumber, boolean withBestResponseEvents) {
         Pair<Predicate<AssessedTargetLesion>, Function<List<AssessedTargetLesion>,
                 List<AssessedTargetLesion>>> predicateAndPostFilter = getFiltrationParams(assessmentType, weekNumber);
 
-        List<AssessedTargetLesion> events = getEventDataProvider(datasets, filters).loadData(datasets).stream()
+        List<AssessedTargetLesion> events = allEvents.stream()
                 .filter(e -> predicateAndPostFilter.getLeft().test(e)).collect(toList());
         List<AssessedTargetLesion> eventsWithPostFilterApplied = predicateAndPostFilter.getRight().apply(events);
-        if (WITH_BEST_RESPONSE_EVENTS.equals(yAxisParams.get(GroupByOption.Param.VALUE))) {
+        if (withBestResponseEvents) {
             eventsWithPostFilterApplied = addBestResponseEvents(eventsWithPostFilterApplied);
         }
-        Collection<Subject> subjects = getPopulationDatasetsDataProvider().loadData(datasets);
-        return new FilterQuery<>(eventsWithPostFilterApplied, filters, subjects, populationFilters);
+        return eventsWithPostFilterApplied;
     }
 
     private List<AssessedTargetLesion> addBestResponseEvents(Collection<AssessedTargetLesion> eventsWithPostFilterApplied) {
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.service.plots;
+
+import com.acuity.visualisations.rawdatamodel.trellis.grouping.Bin;
+import com.acuity.visualisations.rawdatamodel.trellis.grouping.BinRange;
+import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartGroupByOptions;
+import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartGroupByOptions.ChartGroupBySetting;
+import com.acuity.visualisations.rawdatamodel.trellis.grouping.GroupByAttributes;
+import com.acuity.visualisations.rawdatamodel.trellis.grouping.GroupByKey;
+import com.acuity.visualisations.rawdatamodel.util.Attributes;
+import com.acuity.visualisations.rawdatamodel.vo.GroupByOption;
+import com.acuity.visualisations.rawdatamodel.vo.HasStringId;
+import com.acuity.visualisations.rawdatamodel.vo.HasSubject;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Single pass roll-up of events for bar charts.<br>
+ * Grouping attributes are calculated once per event, then event counts and distinct subjects are accumulated
+ * for the full chart grouping and, if requested, rolled up to the x-axis (stacked totals) and trellis levels.<br>
+ * Grouping keys are expanded the same way {@link GroupByAttributes#group} does, so events with collection attributes
+ * fall into the same groups on each level as if the events were grouped by the limited settings.<br>
+ * Optionally, events whose x-axis value is a {@link BinRange} are counted by the range edges, see {@link #countingBinRanges()}.
+ */
+final class BarChartRollUp<T extends HasStringId & HasSubject, G extends Enum<G> & GroupByOption<T>> {
+
+    private final boolean withXAxisEventTotals;
+    private final boolean withXAxisSubjectTotals;
+    private final boolean withTrellisEventTotals;
+    private final boolean withEventSets;
+
+    private final Map<String, Integer> subjectIndexes = new HashMap<>();
+    @Getter
+    private final Map<GroupByKey<T, G>, Group<T>> groups = new LinkedHashMap<>();
+    private final Map<GroupByKey<T, G>, Integer> xAxisEventTotals = new HashMap<>();
+    private final Map<GroupByKey<T, G>, BitSet> xAxisAndColorBySubjects = new HashMap<>();
+    private final Map<GroupByKey<T, G>, Integer> trellisEventTotals = new HashMap<>();
+    private Map<GroupByKey<T, G>, Integer> xAxisSubjectTotals;
+    private boolean countBinRanges;
+    private final Map<GroupByKey<T, G>, BinRangeSeries> binRangeSeries = new LinkedHashMap<>();
+
+    BarChartRollUp(boolean withXAxisEventTotals, boolean withXAxisSubjectTotals, boolean withTrellisEventTotals, boolean withEventSets) {
+        this.withXAxisEventTotals = withXAxisEventTotals;
+        this.withXAxisSubjectTotals = withXAxisSubjectTotals;
+        this.withTrellisEventTotals = withTrellisEventTotals;
+        this.withEventSets = withEventSets;
+    }
+
+    /**
+     * Makes events with a range of bins on the x-axis (binned attributes including duration) counted by the range edges,
+     * so the work doesn't grow with the number of bins each event spans. Groups counted this way have event and subject counts
+     * only, without subject codes. Not applicable together with the x-axis or trellis totals or event sets.
+     */
+    BarChartRollUp<T, G> countingBinRanges() {
+        countBinRanges = !withXAxisEventTotals && !withXAxisSubjectTotals && !withTrellisEventTotals && !withEventSets;
+        return this;
+    }
+
+    BarChartRollUp<T, G> rollUp(Collection<T> events, ChartGroupByOptions<T, G> settings) {
+        // attribute calculation is the expensive part, so it is done in parallel, and only once per event
+        List<GroupByKey<T, G>> keys = events.parallelStream().map(e -> Attributes.get(settings, e)).collect(Collectors.toList());
+        int i = 0;
+        for (T event : events) {
+            add(event, keys.get(i++));
+        }
+        binRangeSeries.forEach((seriesKey, series) -> series.addGroups(seriesKey, groups));
+        if (withXAxisSubjectTotals) {
+            xAxisSubjectTotals = new HashMap<>();
+            // a subject can be in more than one color-by group within an x-axis group, so it's counted once per color-by group
+            xAxisAndColorBySubjects.forEach((key, subjects) ->
+                    xAxisSubjectTotals.merge(key.limitedBySettings(ChartGroupBySetting.X_AXIS), subjects.cardinality(), Integer::sum));
+        }
+        return this;
+    }
+
+    int getXAxisEventTotal(GroupByKey<T, G> key) {
+        return xAxisEventTotals.getOrDefault(key.limitedBySettings(ChartGroupBySetting.X_AXIS), 0);
+    }
+
+    int getXAxisSubjectTotal(GroupByKey<T, G> key) {
+        return xAxisSubjectTotals.getOrDefault(key.limitedBySettings(ChartGroupBySetting.X_AXIS), 0);
+    }
+
+    int getTrellisEventTotal(GroupByKey<T, G> key) {
+        return trellisEventTotals.getOrDefault(key.limitedByTrellisOptions(), 0);
+    }
+
+    private void add(T event, GroupByKey<T, G> key) {
+        int subjectIndex = subjectIndexes.computeIfAbsent(event.getSubjectId(), s -> subjectIndexes.size());
+        final Object xAxisValue = key.getValue(ChartGroupBySetting.X_AXIS);
+        if (countBinRanges && xAxisValue instanceof BinRange && !((BinRange) xAxisValue).isEmptyRange()) {
+            for (GroupByKey<T, G> seriesKey : expand(key.limitedBySettings(EnumSet.complementOf(EnumSet.of(ChartGroupBySetting.X_AXIS))))) {
+                binRangeSeries.computeIfAbsent(seriesKey, k -> new BinRangeSeries()).add((BinRange) xAxisValue, subjectIndex);
+            }
+            return;
+        }
+        for (GroupByKey<T, G> groupKey : expand(key)) {
+            groups.computeIfAbsent(groupKey, k -> new Group<>(withEventSets)).add(event, subjectIndex);
+        }
+        if (withXAxisEventTotals) {
+            for (GroupByKey<T, G> xAxisKey : expand(key.limitedBySettings(ChartGroupBySetting.X_AXIS))) {
+                xAxisEventTotals.merge(xAxisKey, 1, Integer::sum);
+            }
+        }
+        if (withXAxisSubjectTotals) {
+            for (GroupByKey<T, G> xAxisAndColorByKey : expand(key.limitedBySettings(ChartGroupBySetting.X_AXIS, ChartGroupBySetting.COLOR_BY))) {
+                xAxisAndColorBySubjects.computeIfAbsent(xAxisAndColorByKey, k -> new BitSet()).set(subjectIndex);
+            }
+        }
+        if (withTrellisEventTotals) {
+            for (GroupByKey<T, G> trellisKey : expand(key.limitedByTrellisOptions())) {
+                trellisEventTotals.merge(trellisKey, 1, Integer::sum);
+            }
+        }
+    }
+
+    private static <T, G extends Enum<G> & GroupByOption<T>> Collection<GroupByKey<T, G>> expand(GroupByKey<T, G> key) {
+        Collection<GroupByKey<T, G>> keys = GroupByAttributes.expandKeyNestedCollections(key);
+        return keys.size() > 1 ? new LinkedHashSet<>(keys) : keys;
+    }
+
+    /**
+     * Events of one chart group: their count, distinct subjects (as indexes and codes) and, if requested, the events themselves.
+     */
+    static final class Group<T extends HasStringId & HasSubject> {
+        @Getter
+        private int eventCount;
+        private final BitSet subjects;
+        private final int subjectCount;
+        @Getter
+        private final Set<String> subjectCodes;
+        @Getter
+        private final List<T> events;
+
+        private Group(boolean withEvents) {
+            subjects = new BitSet();
+            subjectCount = 0;
+            subjectCodes = new HashSet<>();
+            events = withEvents ? new ArrayList<>() : null;
+        }
+
+        private Group(int eventCount, int subjectCount) {
+            this.eventCount = eventCount;
+            this.subjectCount = subjectCount;
+            subjects = null;
+            subjectCodes = Collections.emptySet();
+            events = null;
+        }
+
+        private void add(T event, int subjectIndex) {
+            eventCount++;
+            if (!subjects.get(subjectIndex)) {
+                subjects.set(subjectIndex);
+                subjectCodes.add(event.getSubjectCode());
+            }
+            if (events != null) {
+                events.add(event);
+            }
+        }
+
+        int getSubjectCount() {
+            return subjects == null ? subjectCount : subjects.cardinality();
+        }
+    }
+
+    /**
+     * Events of one series (all grouping values except the x-axis) as ranges of bin positions.<br>
+     * Event counts per bin are prefix sums of +1/-1 put at the range edges. Subject counts are calculated the same way
+     * from the ranges of each subject merged together, so a subject covering a bin with several events is counted once.
+     */
+    private static final class BinRangeSeries {
+        private final List<int[]> ranges = new ArrayList<>();
+        private Bin first;
+        private int lastPosition = Integer.MIN_VALUE;
+
+        private void add(BinRange range, int subjectIndex) {
+            final int start = range.getFirst().getPosition();
+            final int end = range.getLast().getPosition();
+            if (first == null || start < first.getPosition()) {
+                first = range.getFirst();
+            }
+            lastPosition = Math.max(lastPosition, end);
+            ranges.add(new int[]{subjectIndex, start, end});
+        }
+
+        private <T extends HasStringId & HasSubject, G extends Enum<G> & GroupByOption<T>> void addGroups(
+                GroupByKey<T, G> seriesKey, Map<GroupByKey<T, G>, Group<T>> groups) {
+            final int origin = first.getPosition();
+            final int length = lastPosition - origin + 1;
+            final int[] eventDeltas = new int[length + 1];
+            final int[] subjectDeltas = new int[length + 1];
+            for (int[] range : ranges) {
+                eventDeltas[range[1] - origin]++;
+                eventDeltas[range[2] - origin + 1]--;
+            }
+
+            ranges.sort(Comparator.<int[]>comparingInt(range -> range[0]).thenComparingInt(range -> range[1]));
+            int i = 0;
+            while (i < ranges.size()) {
+                final int subject = ranges.get(i)[0];
+                final int start = ranges.get(i)[1];
+                int end = ranges.get(i)[2];
+                i++;
+                while (i < ranges.size() && ranges.get(i)[0] == subject && ranges.get(i)[1] <= end + 1) {
+                    end = Math.max(end, ranges.get(i)[2]);
+                    i++;
+                }
+                subjectDeltas[start - origin]++;
+                subjectDeltas[end - origin + 1]--;
+            }
+
+            Bin bin = first;
+            int eventCount = 0;
+            int subjectCount = 0;
+            for (int position = 0; position < length; position++) {
+                eventCount += eventDeltas[position];
+                subjectCount += subjectDeltas[position];
+                if (eventCount > 0) {
+                    final Map<ChartGroupBySetting, Object> values = new EnumMap<>(ChartGroupBySetting.class);
+                    values.putAll(seriesKey.getValues());
+                    values.put(ChartGroupBySetting.X_AXIS, bin);
+                    groups.put(new GroupByKey<>(values, seriesKey.getTrellisByValues()), new Group<>(eventCount, subjectCount));
+                }
+                if (position < length - 1) {
+                    bin = bin.getNextBin();
+                }
+            }
+        }
+    }
+}
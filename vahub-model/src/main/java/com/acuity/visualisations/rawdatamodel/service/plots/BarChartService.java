@@ -24,6 +24,7 @@ import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartGroupByOptio
 import com.acuity.visualisations.rawdatamodel.trellis.grouping.GroupByAttributes;
 import com.acuity.visualisations.rawdatamodel.trellis.grouping.GroupByKey;
 import com.acuity.visualisations.rawdatamodel.trellis.grouping.PopulationGroupByOptions;
+import com.acuity.visualisations.rawdatamodel.util.Attributes;
 import com.acuity.visualisations.rawdatamodel.vo.FilterResult;
 import com.acuity.visualisations.rawdatamodel.vo.GroupByOption;
 import com.acuity.visualisations.rawdatamodel.vo.HasStringId;
@@ -34,11 +35,10 @@ import com.google.common.base.Suppliers;
 import org.apache.commons.math3.util.Precision;
 import org.springframework.stereotype.Service;
 
-import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Set;
-import java.util.function.BiFunction;
-import java.util.stream.Collectors;
 
 @Service
 public class BarChartService<T extends HasStringId & HasSubject, G extends Enum<G> & GroupByOption<T>>
@@ -48,54 +48,60 @@ public class BarChartService<T extends HasStringId & HasSubject, G extends Enum<
     @ValidateChartOptions(optional = {ChartGroupByOptions.ChartGroupBySetting.COLOR_BY, ChartGroupByOptions.ChartGroupBySetting.X_AXIS})
     public Map<GroupByKey<T, G>, BarChartCalculationObject<T>> getBarChart(
             ChartGroupByOptions<T, G> settings, CountType countType, FilterResult<T> filtered) {
-        //Main thing to do - group all events by all chart grouping options (trellis, color by, x-axis, etc)
-        final Map<GroupByKey<T, G>, Collection<T>> groupedFilteredEvents = GroupByAttributes.group(filtered.getFilteredResult(), settings);
-        final Supplier<Map<GroupByKey<T, G>, Collection<T>>> groupedByXAxisOptionEventCount = Suppliers.memoize(
-                () -> GroupByAttributes.group(filtered.getFilteredResult(), settings.limitedBySettings(ChartGroupByOptions.ChartGroupBySetting.X_AXIS)));
-        // Need to distinct subject by color-by groups through x-axis options groups, as there can be situations when one subject is in multiple color-by
-        // option groups in one x-axis option group.
-        final Supplier<Map<GroupByKey<T, G>, Integer>> groupedByXAxisByOptionSubjectCount = Suppliers.memoize(
-                () -> groupedByXAxisOptionEventCount.get().entrySet().stream()
-                        .collect(Collectors.toMap(Map.Entry::getKey, (Map.Entry<GroupByKey<T, G>, Collection<T>> e) -> {
-                            Map<GroupByKey<T, G>, Collection<T>> xAxisEventsGroupedByColorBy = GroupByAttributes.group(e.getValue(),
-                                    settings.limitedBySettings(ChartGroupByOptions.ChartGroupBySetting.COLOR_BY));
-                            return xAxisEventsGroupedByColorBy.entrySet().stream()
-                                    .mapToInt(colorGroup -> (int) colorGroup.getValue().stream().map(t -> t.getSubject()).distinct().count())
-                                    .sum();
-                        })));
+        return getBarChart(settings, countType, filtered, false);
+    }
 
-        //Barchart specific pre-processing - groupedByTrellisEvents and groupedByTrellisSubjects, need for specific calculations
-        //This gets events grouped by all trellis options
-        final Supplier<Map<GroupByKey<T, G>, Collection<T>>> groupedByTrellisEvents = Suppliers.memoize(() -> GroupByAttributes
-                .group(filtered.getFilteredResult(), settings.limitedByTrellisOptions()));
+    /**
+     * Groups events by all chart grouping options (trellis, color by, x-axis, etc) and calculates the value of each bar.
+     *
+     * @param withEventSets whether to keep the events of each bar in {@link BarChartCalculationObject#getEventSet()},
+     *                      only needed when the bars are post-processed using the events themselves
+     */
+    @TimeMe
+    @ValidateChartOptions(optional = {ChartGroupByOptions.ChartGroupBySetting.COLOR_BY, ChartGroupByOptions.ChartGroupBySetting.X_AXIS})
+    public Map<GroupByKey<T, G>, BarChartCalculationObject<T>> getBarChart(
+            ChartGroupByOptions<T, G> settings, CountType countType, FilterResult<T> filtered, boolean withEventSets) {
+        return toBarChart(getRollUp(countType, withEventSets).rollUp(filtered.getFilteredResult(), settings), settings, countType, filtered);
+    }
 
-        //This gets subjects grouped by only population trellis options
-        final Supplier<Map<GroupByKey<Subject, PopulationGroupByOptions>, Collection<Subject>>> groupedByTrellisSubjects =
-                Suppliers.memoize(() -> GroupByAttributes.group(filtered.getPopulationFilterResult().getFilteredResult(),
-                        settings.limitedByPopulationTrellisOptions()));
+    /**
+     * Same as {@link #getBarChart(ChartGroupByOptions, CountType, FilterResult)}, but for over-time charts:
+     * for event based count types, events spanning a range of x-axis bins (binned options including duration) are counted
+     * by the range edges instead of being put into each bin, and such bars carry the counts only, without subject codes.
+     * Subject based count types need the subject codes of each bar, so their events are put into each bin as usual.
+     */
+    @TimeMe
+    @ValidateChartOptions(optional = {ChartGroupByOptions.ChartGroupBySetting.COLOR_BY, ChartGroupByOptions.ChartGroupBySetting.X_AXIS})
+    public Map<GroupByKey<T, G>, BarChartCalculationObject<T>> getOverTimeBarChart(
+            ChartGroupByOptions<T, G> settings, CountType countType, FilterResult<T> filtered) {
+        BarChartRollUp<T, G> rollUp = getRollUp(countType, false);
+        if (countType.getCountBase() == CountType.CountBase.EVENT) {
+            rollUp.countingBinRanges();
+        }
+        return toBarChart(rollUp.rollUp(filtered.getFilteredResult(), settings), settings, countType, filtered);
+    }
 
-        //applying transformation to each group
-        return groupedFilteredEvents.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey,
-                e -> getBarChartTransformation(filtered, groupedByTrellisEvents, groupedByTrellisSubjects,
-                        groupedByXAxisOptionEventCount, groupedByXAxisByOptionSubjectCount, countType)
-                        .apply(e.getKey(), e.getValue())));
+    private BarChartRollUp<T, G> getRollUp(CountType countType, boolean withEventSets) {
+        return new BarChartRollUp<>(
+                countType == CountType.PERCENTAGE_OF_EVENTS_100_STACKED,
+                countType == CountType.PERCENTAGE_OF_SUBJECTS_100_STACKED || countType == CountType.PERCENTAGE_OF_SUBJECTS_100_PERCENT_STACKED,
+                countType == CountType.PERCENTAGE_OF_EVENTS_WITHIN_PLOT,
+                withEventSets);
     }
 
-    private BiFunction<GroupByKey<T, G>, Collection<T>, BarChartCalculationObject<T>> getBarChartTransformation(
-            FilterResult<T> filtered,
-            Supplier<Map<GroupByKey<T, G>, Collection<T>>> groupedByTrellisEvents,
-            Supplier<Map<GroupByKey<Subject, PopulationGroupByOptions>, Collection<Subject>>> groupedByTrellisSubjects,
-            Supplier<Map<GroupByKey<T, G>, Collection<T>>> groupedByXAxisOptionEventCount,
-            Supplier<Map<GroupByKey<T, G>, Integer>> groupedByXAxisAndColorByOptionSubjectCount,
-            CountType countType) {
-        return (GroupByKey<T, G> group, Collection<T> events) -> {
+    private Map<GroupByKey<T, G>, BarChartCalculationObject<T>> toBarChart(BarChartRollUp<T, G> rollUp, ChartGroupByOptions<T, G> settings,
+                                                                            CountType countType, FilterResult<T> filtered) {
+        //This gets number of subjects grouped by only population trellis options
+        final Supplier<Map<GroupByKey<Subject, PopulationGroupByOptions>, Integer>> trellisSubjectTotals =
+                Suppliers.memoize(() -> getTrellisSubjectTotals(filtered, settings));
+
+        final double totalEventsNumber = filtered.size();
+        final double totalSubjectCount = filtered.getPopulationFilterResult().size();
+        final Map<GroupByKey<T, G>, BarChartCalculationObject<T>> result = new LinkedHashMap<>();
+        rollUp.getGroups().forEach((group, bar) -> {
             Double value = null;
-            Set<String> subjectsCodes = events.stream().map(t -> t.getSubjectCode()).collect(Collectors.toSet());
-            final double eventCount = (double) events.size();
-            final double totalEventsNumber = (double) filtered.size();
-            //don't use T::getSubject here, see https://stackoverflow.com/questions/27031244/lambdaconversionexception-with-generics-jvm-bug
-            final double subjectCount = (double) events.stream().map(t -> t.getSubject()).distinct().count();
-            final double totalSubjectCount = (double) filtered.getPopulationFilterResult().size();
+            final double eventCount = bar.getEventCount();
+            final double subjectCount = bar.getSubjectCount();
             switch (countType) {
                 case CUMULATIVE_COUNT_OF_EVENTS:
                 case COUNT_OF_EVENTS:
@@ -112,30 +118,39 @@ public class BarChartService<T extends HasStringId & HasSubject, G extends Enum<
                     value = totalSubjectCount == 0 ? 0 : (subjectCount * 100 / totalSubjectCount);
                     break;
                 case PERCENTAGE_OF_EVENTS_WITHIN_PLOT:
-                    int eventsWithinPlot = groupedByTrellisEvents.get().get(group.limitedByTrellisOptions()).size();
+                    int eventsWithinPlot = rollUp.getTrellisEventTotal(group);
                     value = eventsWithinPlot == 0 ? 0 : (eventCount * 100 / eventsWithinPlot);
                     break;
                 case PERCENTAGE_OF_SUBJECTS_WITHIN_PLOT:
-                    int subjectsWithinPlot = groupedByTrellisSubjects.get().get(
-                            group.limitedByPopulationTrellisOptions()).size();
+                    int subjectsWithinPlot = trellisSubjectTotals.get().getOrDefault(group.limitedByPopulationTrellisOptions(), 0);
                     value = subjectsWithinPlot == 0 ? 0 : (subjectCount * 100 / subjectsWithinPlot);
                     break;
                 case PERCENTAGE_OF_EVENTS_100_STACKED:
-                    int events100Stacked = groupedByXAxisOptionEventCount.get()
-                            .get(group.limitedBySettings(ChartGroupByOptions.ChartGroupBySetting.X_AXIS)).size();
+                    int events100Stacked = rollUp.getXAxisEventTotal(group);
                     value = events100Stacked == 0 ? 0 : (eventCount * 100 / events100Stacked);
                     break;
                 case PERCENTAGE_OF_SUBJECTS_100_STACKED:
                 case PERCENTAGE_OF_SUBJECTS_100_PERCENT_STACKED:
-
-                    int subjects100Stacked = groupedByXAxisAndColorByOptionSubjectCount.get()
-                            .get(group.limitedBySettings(ChartGroupByOptions.ChartGroupBySetting.X_AXIS));
+                    int subjects100Stacked = rollUp.getXAxisSubjectTotal(group);
                     value = subjects100Stacked == 0 ? 0 : (subjectCount * 100 / subjects100Stacked);
                     break;
                 default:
                     break;
             }
-            return new BarChartCalculationObject<T>(subjectsCodes, events, (int) eventCount, Precision.round(value, 2), (int) subjectCount);
-        };
+            result.put(group, new BarChartCalculationObject<T>(bar.getSubjectCodes(), bar.getEvents(), bar.getEventCount(),
+                    Precision.round(value, 2), (int) subjectCount));
+        });
+        return result;
+    }
+
+    private Map<GroupByKey<Subject, PopulationGroupByOptions>, Integer> getTrellisSubjectTotals(FilterResult<T> filtered,
+                                                                                                 ChartGroupByOptions<T, G> settings) {
+        final ChartGroupByOptions<Subject, PopulationGroupByOptions> populationTrellisOptions = settings.limitedByPopulationTrellisOptions();
+        final Map<GroupByKey<Subject, PopulationGroupByOptions>, Integer> res = new HashMap<>();
+        for (Subject subject : filtered.getPopulationFilterResult().getFilteredResult()) {
+            new HashSet<>(GroupByAttributes.expandKeyNestedCollections(Attributes.get(populationTrellisOptions, subject)))
+                    .forEach(key -> res.merge(key, 1, Integer::sum));
+        }
+        return res;
     }
 }
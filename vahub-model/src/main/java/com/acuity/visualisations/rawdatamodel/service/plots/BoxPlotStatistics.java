@@ -0,0 +1,97 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.service.plots;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Quartiles and Tukey whiskers of a group of values.<br>
+ * Values are sorted once in a primitive buffer, quartiles are interpolated from it the same way commons-math
+ * {@code Percentile} does with the R-7 estimation type (NaN values are ignored), and whiskers are found on the sorted buffer,
+ * so no value is boxed or copied again.
+ */
+@Getter
+final class BoxPlotStatistics {
+
+    private static final double TUKEY_FACTOR = 1.5;
+
+    private final double median;
+    private final double upperQuartile;
+    private final double lowerQuartile;
+    private final double lowerWhisker;
+    private final double upperWhisker;
+
+    /**
+     * @param values values to calculate statistics for, the array is sorted in place
+     * @param size   number of values used from the beginning of the array
+     */
+    BoxPlotStatistics(double[] values, int size) {
+        Arrays.sort(values, 0, size);
+        int length = size;
+        // Arrays.sort puts NaNs at the end, ignoring them like Percentile does by default
+        while (length > 0 && Double.isNaN(values[length - 1])) {
+            length--;
+        }
+        median = percentile(values, length, 0.5);
+        upperQuartile = percentile(values, length, 0.75);
+        lowerQuartile = percentile(values, length, 0.25);
+        double tukeyIqr = TUKEY_FACTOR * (upperQuartile - lowerQuartile);
+        double lowerFence = lowerQuartile - tukeyIqr;
+        double upperFence = upperQuartile + tukeyIqr;
+
+        int lower = 0;
+        while (lower < length && !(values[lower] >= lowerFence)) {
+            lower++;
+        }
+        lowerWhisker = lower < length ? values[lower] : lowerFence;
+        int upper = length - 1;
+        while (upper >= 0 && !(values[upper] <= upperFence)) {
+            upper--;
+        }
+        upperWhisker = upper >= 0 ? values[upper] : upperFence;
+    }
+
+    boolean isOutlier(double value) {
+        return value < lowerWhisker || value > upperWhisker;
+    }
+
+    /**
+     * R-7 estimate of the quantile {@code p} (0 &lt; p &lt;= 1) of the first {@code length} values of a sorted array
+     */
+    static double percentile(double[] sorted, int length, double p) {
+        if (length == 0) {
+            return Double.NaN;
+        }
+        if (length == 1) {
+            return sorted[0];
+        }
+        double pos = p == 1.0 ? length : 1 + (length - 1) * p;
+        if (pos < 1) {
+            return sorted[0];
+        }
+        if (pos >= length) {
+            return sorted[length - 1];
+        }
+        double fpos = Math.floor(pos);
+        int intPos = (int) fpos;
+        double lower = sorted[intPos - 1];
+        double upper = sorted[intPos];
+        return lower + (pos - fpos) * (upper - lower);
+    }
+}
@@ -29,6 +29,7 @@ import com.acuity.visualisations.rawdatamodel.vo.wrappers.Exposure;
 import java.util.stream.Collectors;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -47,6 +48,14 @@ import static java.util.stream.Collectors.toMap;
 
 @Service
 public class ExposureLineChartService extends LineChartService<Exposure, ExposureGroupByOptions> {
+    @Override
+    public List<Exposure> getMatchedItems(Collection<Exposure> filteredEvents,
+            ChartSelection<Exposure, ExposureGroupByOptions, ChartSelectionItem<Exposure, ExposureGroupByOptions>> selection) {
+        //x axis values are compared as doubles by the predicate, not by their string form as the index does
+        return SelectionGroupIndex.of(filteredEvents, selection.getSettings())
+                .getMatchedEvents(selection.getSelectionItems(), getSelectionMatchPredicate(selection));
+    }
+
     //assuming there will be only doubles on x axis, getting code faster
     @Override
     public Predicate<GroupByKey<Exposure, ExposureGroupByOptions>> getSelectionMatchPredicate(
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.service.plots;
+
+import com.acuity.visualisations.rawdatamodel.vo.plots.LineChartEntry;
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Reduces the number of points of a line series keeping its visual shape,
+ * using the Largest-Triangle-Three-Buckets algorithm (S. Steinarsson, Downsampling Time Series for Visual Representation, 2013).
+ * The first and the last points are always kept, the rest of the series is split into buckets of equal point counts
+ * and from each bucket the point forming the largest triangle with the previously kept point
+ * and the average of the next bucket is taken. The result only depends on the input, ties are resolved to the first point.
+ */
+@UtilityClass
+class LineChartDownsampling {
+
+    /**
+     * @param series    points sorted in the order they are drawn
+     * @param maxPoints maximum number of points to return, the series is returned as is if it's not positive
+     * @return the series itself if it already fits or its coordinates aren't all numbers or dates, a subset of its points otherwise
+     */
+    static <E extends LineChartEntry> List<E> downsample(List<E> series, int maxPoints) {
+        if (maxPoints <= 0 || series.size() <= maxPoints) {
+            return series;
+        }
+        int size = series.size();
+        double[] xs = new double[size];
+        double[] ys = new double[size];
+        for (int i = 0; i < size; i++) {
+            E entry = series.get(i);
+            if (!isNumeric(entry.getX()) || !isNumeric(entry.getY())) {
+                return series;
+            }
+            xs[i] = toDouble(entry.getX());
+            ys[i] = toDouble(entry.getY());
+        }
+        if (maxPoints < 3) {
+            return maxPoints == 1 ? series.subList(0, 1) : Arrays.asList(series.get(0), series.get(size - 1));
+        }
+
+        List<E> sampled = new ArrayList<>(maxPoints);
+        sampled.add(series.get(0));
+        double bucketSize = (double) (size - 2) / (maxPoints - 2);
+        int previous = 0;
+        for (int bucket = 0; bucket < maxPoints - 2; bucket++) {
+            int nextFrom = (int) ((bucket + 1) * bucketSize) + 1;
+            int nextTo = Math.min((int) ((bucket + 2) * bucketSize) + 1, size);
+            double nextX = 0;
+            double nextY = 0;
+            for (int i = nextFrom; i < nextTo; i++) {
+                nextX += xs[i];
+                nextY += ys[i];
+            }
+            nextX /= nextTo - nextFrom;
+            nextY /= nextTo - nextFrom;
+
+            int from = (int) (bucket * bucketSize) + 1;
+            int to = (int) ((bucket + 1) * bucketSize) + 1;
+            int selected = from;
+            double maxArea = -1;
+            for (int i = from; i < to; i++) {
+                // doubled area of the triangle, halving doesn't change the comparison
+                double area = Math.abs((xs[previous] - nextX) * (ys[i] - ys[previous])
+                        - (xs[previous] - xs[i]) * (nextY - ys[previous]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    selected = i;
+                }
+            }
+            sampled.add(series.get(selected));
+            previous = selected;
+        }
+        sampled.add(series.get(size - 1));
+        return sampled;
+    }
+
+    private static boolean isNumeric(Object value) {
+        return value instanceof Number || value instanceof Date;
+    }
+
+    private static double toDouble(Object value) {
+        return value instanceof Date ? ((Date) value).getTime() : ((Number) value).doubleValue();
+    }
+}
@@ -27,13 +27,15 @@ import com.acuity.visualisations.rawdatamodel.vo.HasStringId;
 import com.acuity.visualisations.rawdatamodel.vo.HasSubject;
 import com.acuity.visualisations.rawdatamodel.vo.plots.LineChartData;
 import com.acuity.visualisations.rawdatamodel.vo.plots.LineChartEntry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -54,6 +56,12 @@ import static java.util.stream.Collectors.toMap;
 public class LineChartService<T extends HasStringId & HasSubject, G extends Enum<G> & GroupByOption<T>>
         implements SimpleSelectionSupportService<T, G> {
 
+    /**
+     * Series having more points are downsampled to this number of points, there's no limit if it's not positive
+     */
+    @Value("${linechart.max-points-per-series:0}")
+    private int maxPointsPerSeries;
+
     @TimeMe
     @ValidateChartOptions(required = {Y_AXIS, X_AXIS, SERIES_BY, NAME}, optional = {ORDER_BY, COLOR_BY})
     public Map<GroupByKey<T, G>, LineChartData> getLineChart(
@@ -68,36 +76,31 @@ public class LineChartService<T extends HasStringId & HasSubject, G extends Enum
             FilterResult<T> filtered, ChartGroupByOptions<T, G> settings,
             Function<Collection<GroupByKey<T, G>>, GroupByKey<T, G>> groupedEntriesCombiner,
             ChartGroupByOptions.ChartGroupBySetting... groupEntriesBy) {
-        //grouping by trellis + SERIES_BY
-        final Map<GroupByKey<T, G>, List<T>> groupedBySeriesEvents =
-                filtered.getFilteredResult().stream().collect(
-                        Collectors.groupingBy(e -> Attributes.get(settings.limitedBySettings(SERIES_BY), e),
-                                Collectors.toList())
-                )
-                        .entrySet().stream()
-                        .filter(e -> isSeriesValid(e.getValue()))
-                        .collect(toMap(Map.Entry::getKey, Map.Entry::getValue));
+        //grouping by trellis + SERIES_BY, the attributes of each event are calculated once
+        final Map<GroupByKey<T, G>, SeriesEvents<T, G>> groupedBySeriesEvents = new HashMap<>();
+        for (T event : filtered.getFilteredResult()) {
+            final GroupByKey<T, G> key = Attributes.get(settings, event);
+            groupedBySeriesEvents.computeIfAbsent(key.limitedBySettings(SERIES_BY), k -> new SeriesEvents<>())
+                    .add(event, key);
+        }
 
         return groupedBySeriesEvents.entrySet().stream()
-                .collect(toMap(Map.Entry::getKey, e -> getLineChartTransformation(settings, groupedEntriesCombiner, groupEntriesBy)
-                        .apply(e.getKey(), e.getValue())));
+                .filter(e -> isSeriesValid(e.getValue().events))
+                .collect(toMap(Map.Entry::getKey, e -> getLineChartData(e.getKey(), e.getValue().keys,
+                        groupedEntriesCombiner, groupEntriesBy)));
     }
 
-    private BiFunction<GroupByKey<T, G>, Collection<T>, LineChartData> getLineChartTransformation(
-            ChartGroupByOptions<T, G> settings,
-            Function<Collection<GroupByKey<T, G>>, GroupByKey<T, G>> groupedEntriesCombiner,
-            ChartGroupByOptions.ChartGroupBySetting... groupEntriesBy) {
-        return (GroupByKey<T, G> group, Collection<T> events) -> {
-            final Map<GroupByKey<T, G>, List<GroupByKey<T, G>>> grouped = events.stream()
-                    .map(e -> Attributes.get(settings, e))
-                    .collect(Collectors.groupingBy(k -> groupEntriesBy.length == 0 ? k : k.limitedBySettings(groupEntriesBy)));
-            final List<GroupByKey<T, G>> combined = grouped.values().stream()
-                    .map(c -> groupedEntriesCombiner.apply(c))
-                    .collect(Collectors.toList());
-
-            List<LineChartEntry> series = getSeries(combined);
-            return new LineChartData(group.getValue(SERIES_BY), series);
-        };
+    private LineChartData getLineChartData(GroupByKey<T, G> group, List<GroupByKey<T, G>> keys,
+                                           Function<Collection<GroupByKey<T, G>>, GroupByKey<T, G>> groupedEntriesCombiner,
+                                           ChartGroupByOptions.ChartGroupBySetting... groupEntriesBy) {
+        final Map<GroupByKey<T, G>, List<GroupByKey<T, G>>> grouped = keys.stream()
+                .collect(Collectors.groupingBy(k -> groupEntriesBy.length == 0 ? k : k.limitedBySettings(groupEntriesBy)));
+        final List<GroupByKey<T, G>> combined = grouped.values().stream()
+                .map(c -> groupedEntriesCombiner.apply(c))
+                .collect(Collectors.toList());
+
+        List<LineChartEntry> series = LineChartDownsampling.downsample(getSeries(combined), maxPointsPerSeries);
+        return new LineChartData(group.getValue(SERIES_BY), series);
     }
 
     protected <T, G extends Enum<G> & GroupByOption<T>> List<LineChartEntry> getSeries(List<GroupByKey<T, G>> combined) {
@@ -122,4 +125,21 @@ public class LineChartService<T extends HasStringId & HasSubject, G extends Enum
     protected boolean isSeriesValid(List<T> events) {
         return true;
     }
+
+    void setMaxPointsPerSeries(int maxPointsPerSeries) {
+        this.maxPointsPerSeries = maxPointsPerSeries;
+    }
+
+    /**
+     * Events of a series along with their attributes
+     */
+    private static final class SeriesEvents<T, G extends Enum<G> & GroupByOption<T>> {
+        private final List<T> events = new ArrayList<>();
+        private final List<GroupByKey<T, G>> keys = new ArrayList<>();
+
+        private void add(T event, GroupByKey<T, G> key) {
+            events.add(event);
+            keys.add(key);
+        }
+    }
 }
@@ -19,6 +19,7 @@ package com.acuity.visualisations.rawdatamodel.service.plots;
 import com.acuity.visualisations.rawdatamodel.axes.AxisOptions;
 import com.acuity.visualisations.rawdatamodel.filters.Filters;
 import com.acuity.visualisations.rawdatamodel.filters.PopulationFilters;
+import com.acuity.visualisations.rawdatamodel.trellis.grouping.BinRange;
 import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartGroupByOptions;
 import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartGroupByOptionsFiltered;
 import com.acuity.visualisations.rawdatamodel.trellis.grouping.PopulationGroupByOptions;
@@ -29,9 +30,9 @@ import com.acuity.visualisations.rawdatamodel.vo.compatibility.TrellisedOvertime
 import com.acuity.va.security.acl.domain.Datasets;
 
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Created by knml167 on 6/16/2017.
@@ -62,19 +63,24 @@ public interface OverTimeChartSupportService<T, G extends Enum<G> & GroupByOptio
                                         .with(GroupByOption.Param.BIN_INCL_DURATION, true)
                                         .with(GroupByOption.Param.AXIS_START,
                                                 filteredResult.stream()
-                                                        .map(e -> Attributes.get(xAxisOption, e))
-                                                        .flatMap(e -> e instanceof Collection ? ((Collection) e).stream()
-                                                                .map(t -> t) : Collections.singleton((Comparable) e).stream())
+                                                        .flatMap(e -> getAxisValues(Attributes.get(xAxisOption, e)))
                                                         .min(Comparator.naturalOrder()).orElse(null))
                                         .with(GroupByOption.Param.AXIS_END,
-                                                filteredResult.stream().map(e -> Attributes.get(xAxisOption, e))
-                                                        .flatMap(e -> e instanceof Collection ? ((Collection) e).stream()
-                                                                .map(t -> t) : Collections.singleton((Comparable) e).stream())
+                                                filteredResult.stream()
+                                                        .flatMap(e -> getAxisValues(Attributes.get(xAxisOption, e)))
                                                         .max(Comparator.naturalOrder()).orElse(null))
                                         .build()
                         ))
                 .build();
     }
 
-
+    /**
+     * Values of x-axis attribute to find axis start and end from, bin ranges are represented by their edges only
+     * */
+    static Stream<Comparable> getAxisValues(Object value) {
+        if (value instanceof BinRange) {
+            return Stream.of(((BinRange) value).getFirst(), ((BinRange) value).getLast());
+        }
+        return value instanceof Collection ? ((Collection<Comparable>) value).stream() : Stream.of((Comparable) value);
+    }
 }
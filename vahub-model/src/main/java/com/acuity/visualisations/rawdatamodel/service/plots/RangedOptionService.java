@@ -23,20 +23,14 @@ import com.acuity.visualisations.rawdatamodel.vo.GroupByOption;
 import com.acuity.visualisations.rawdatamodel.vo.HasStringId;
 import com.acuity.visualisations.rawdatamodel.vo.HasSubjectId;
 import com.acuity.visualisations.rawdatamodel.vo.plots.BarChartOptionRange;
-import org.apache.commons.collections.CollectionUtils;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
-import java.util.stream.Collectors;
-
-import static java.util.stream.Collectors.toList;
 
 @Service
 public class RangedOptionService {
@@ -75,152 +69,80 @@ public class RangedOptionService {
     private <T extends HasSubjectId & HasStringId> Map<String, Map<String, BarChartOptionRange<Double>>> getDoubleIntervalsInMap(Collection<T> events,
                                                                                                                                  Function<T, ?> function,
                                                                                                                                  Boolean isPopulationOption) {
-        Map<String, Map<String, Long>> drugIdValuesMap = new HashMap<>();
+        Map<String, WidthBuckets> drugBuckets = new HashMap<>();
         for (T event : events) {
             Map<String, Double> map = (Map<String, Double>) function.apply(event);
             String id = isPopulationOption ? event.getSubjectId() : event.getId();
             map.forEach((drug, value) -> {
-                Map<String, Long> idValueMap = drugIdValuesMap.containsKey(drug) ? drugIdValuesMap.get(drug) : new HashMap<>();
-                Long number = value == null ? null : new Double(value * 100).longValue();
-                    idValueMap.put(id, number);
-                    drugIdValuesMap.put(drug, idValueMap);
+                WidthBuckets buckets = drugBuckets.computeIfAbsent(drug, d -> new WidthBuckets(CHUNK_NUMBER));
+                if (value == null) {
+                    buckets.addEmpty(id);
+                } else {
+                    buckets.add(id, toHundredths(value));
+                }
             });
         }
-        return convertToDoubleIntervalInMap(widthBucketForMap(drugIdValuesMap));
+        Map<String, Map<String, BarChartOptionRange<Double>>> res = new HashMap<>();
+        drugBuckets.forEach((drug, buckets) -> res.put(drug, buckets.toRanges(RangedOptionService::fromHundredths)));
+        return res;
     }
 
     private <T extends HasSubjectId & HasStringId> Map<String, BarChartOptionRange<Date>> getDateIntervals(Collection<T> events,
                                                                                                            Function<T, ?> function,
                                                                                                            Boolean isPopulationOption) {
-        Map<String, Long> idValuesMap = new HashMap<>();
+        WidthBuckets buckets = new WidthBuckets(CHUNK_NUMBER);
         for (T event : events) {
-            final Date apply = (Date) function.apply(event);
-            idValuesMap.put(isPopulationOption ? event.getSubjectId() : event.getId(),
-                    apply == null ? null : DaysUtil.truncLocalTime(apply.getTime()));
+            final Date date = (Date) function.apply(event);
+            final String id = isPopulationOption ? event.getSubjectId() : event.getId();
+            if (date == null) {
+                buckets.addEmpty(id);
+            } else {
+                buckets.add(id, DaysUtil.truncLocalTime(date.getTime()));
+            }
         }
-        return convertToDateInterval(widthBucket(idValuesMap));
+        return buckets.toRanges(Date::new);
     }
 
     private <T extends HasSubjectId & HasStringId> Map<String, BarChartOptionRange<Double>> getDoubleIntervals(Collection<T> events,
                                                                                                                Function<T, ?> function,
                                                                                                                Boolean isPopulationOption) {
-        Map<String, Long> idValuesMap = new HashMap<>();
+        WidthBuckets buckets = new WidthBuckets(CHUNK_NUMBER);
         for (T event : events) {
             final Number number = (Number) function.apply(event);
-            final Double value = number == null ? null : number.doubleValue();
-            idValuesMap.put(isPopulationOption ? event.getSubjectId() : event.getId(),
-                    value == null ? null : new Double(value * 100).longValue());
+            final String id = isPopulationOption ? event.getSubjectId() : event.getId();
+            if (number == null) {
+                buckets.addEmpty(id);
+            } else {
+                buckets.add(id, toHundredths(number.doubleValue()));
+            }
         }
-        return convertToDoubleInterval(widthBucket(idValuesMap));
+        return buckets.toRanges(RangedOptionService::fromHundredths);
     }
 
     private <T extends HasSubjectId & HasStringId> Map<String, BarChartOptionRange<Long>> getLongIntervals(Collection<T> events,
                                                                                                            Function<T, ?> function,
                                                                                                            Boolean isPopulationOption) {
-        Map<String, Long> idValuesMap = new HashMap<>();
+        WidthBuckets buckets = new WidthBuckets(CHUNK_NUMBER);
         for (T event : events) {
             final Number number = (Number) function.apply(event);
-            final Long value = number == null ? null : number.longValue();
-            idValuesMap.put(isPopulationOption ? event.getSubjectId() : event.getId(), value);
-        }
-        return widthBucket(idValuesMap);
-    }
-
-    private Map<String, Map<String, BarChartOptionRange<Double>>> convertToDoubleIntervalInMap(
-            Map<String, Map<String, BarChartOptionRange<Long>>> map) {
-
-        return map.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey,
-                en -> en.getValue().entrySet().stream().filter(e -> e.getValue() != null)
-                        .collect(Collectors.toMap(Map.Entry::getKey, entry -> {
-                            Long left = entry.getValue().getLeft();
-                            Long right = entry.getValue().getRight();
-                            return new BarChartOptionRange<>(left.doubleValue() / 100, right.doubleValue() / 100);
-                        }))));
-    }
-
-    private Map<String, BarChartOptionRange<Double>> convertToDoubleInterval(Map<String, BarChartOptionRange<Long>> map) {
-        return map.entrySet().stream().filter(e -> e.getValue() != null)
-                .collect(Collectors.toMap(Map.Entry::getKey, entry -> {
-                    Long left = entry.getValue().getLeft();
-                    Long right = entry.getValue().getRight();
-                    return new BarChartOptionRange<>(left.doubleValue() / 100, right.doubleValue() / 100);
-                }));
-    }
-
-    private Map<String, BarChartOptionRange<Date>> convertToDateInterval(Map<String, BarChartOptionRange<Long>> map) {
-        return map.entrySet().stream().filter(e -> e.getValue() != null)
-                .collect(Collectors.toMap(Map.Entry::getKey, entry -> {
-                    Date left = new Date(entry.getValue().getLeft());
-                    Date right = new Date(entry.getValue().getRight());
-                    return new BarChartOptionRange<>(left, right);
-                }));
-    }
-
-    private Map<String, Map<String, BarChartOptionRange<Long>>> widthBucketForMap(Map<String, Map<String, Long>> subjectIdValuesMap) {
-        return subjectIdValuesMap.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e -> widthBucket(e.getValue())));
-    }
-
-    private Map<String, BarChartOptionRange<Long>> widthBucket(Map<String, Long> subjectIdValuesMap) {
-        Map<String, BarChartOptionRange<Long>> res = new HashMap<>();
-
-        List<List<Long>> valuesByIntervals = new ArrayList<>(CHUNK_NUMBER + 1);
-        for (int i = 0; i < CHUNK_NUMBER; i++) {
-            valuesByIntervals.add(new ArrayList<>());
-        }
-
-        Collection<Long> listOfNonNullValues = subjectIdValuesMap.values().stream().filter(v -> v != null).collect(toList());
-        if (CollectionUtils.isNotEmpty(listOfNonNullValues)) {
-            long min = Collections.min(listOfNonNullValues);
-            long max = Collections.max(listOfNonNullValues);
-
-            Map<String, Integer> subjectIdIntervalNumberMap = new HashMap<>();
-            if (max == min) {
-                subjectIdValuesMap.forEach((key, value) -> {
-                    if (value != null) {
-                        int chunkCount = 0;
-                        valuesByIntervals.get(chunkCount).add(value);
-                        subjectIdIntervalNumberMap.put(key, chunkCount);
-                    }
-                });
+            final String id = isPopulationOption ? event.getSubjectId() : event.getId();
+            if (number == null) {
+                buckets.addEmpty(id);
             } else {
-                subjectIdValuesMap.forEach((key, value) -> {
-                    if (value != null) {
-                        int chunkCount = getBin(CHUNK_NUMBER, value, min, max);
-                        valuesByIntervals.get(chunkCount).add(value);
-                        subjectIdIntervalNumberMap.put(key, chunkCount);
-                    }
-                });
-            }
-
-            List<BarChartOptionRange<Long>> categories = new ArrayList<>(CHUNK_NUMBER + 1);
-            for (int i = 0; i < CHUNK_NUMBER; i++) {
-                categories.add(BarChartOptionRange.empty());
+                buckets.add(id, number.longValue());
             }
-
-            for (int i = 0; i < CHUNK_NUMBER; i++) {
-                List<Long> interval = valuesByIntervals.get(i);
-                if (!CollectionUtils.isEmpty(interval)) {
-                    categories.set(i, new BarChartOptionRange<>(Collections.min(interval), Collections.max(interval)));
-                }
-            }
-
-            subjectIdValuesMap.forEach((key, value) -> {
-                Integer chunkCount = subjectIdIntervalNumberMap.get(key);
-                if (chunkCount == null) {
-                    res.put(key, null);
-                } else {
-                    res.put(key, categories.get(chunkCount));
-                }
-            });
         }
+        return buckets.toRanges(Long::valueOf);
+    }
 
-        return res;
+    /**
+     * Double values are bucketed as whole hundredths
+     */
+    private static long toHundredths(double value) {
+        return (long) (value * 100);
     }
 
-    private int getBin(int binCount, long value, long min, long max) {
-        final long range = max - min + 1; // we increment range value by 1 as we include max as a boundary
-        final long binSize = (long) Math.ceil((double) range / binCount);
-        final long abs = value - min;
-        return (int) (abs / binSize);
+    private static Double fromHundredths(long value) {
+        return (double) value / 100;
     }
 }
@@ -0,0 +1,322 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.service.plots;
+
+import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartGroupByOptions;
+import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartGroupByOptions.ChartGroupBySetting;
+import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartSelectionItem;
+import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartSelectionItemRange;
+import com.acuity.visualisations.rawdatamodel.trellis.grouping.GroupByAttributes;
+import com.acuity.visualisations.rawdatamodel.trellis.grouping.GroupByKey;
+import com.acuity.visualisations.rawdatamodel.vo.GroupByOption;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.EqualsAndHashCode;
+import org.apache.commons.lang3.Range;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static com.acuity.visualisations.rawdatamodel.util.ObjectUtil.keysEquals;
+import static com.acuity.visualisations.rawdatamodel.util.ObjectUtil.toStringNormalizingNumbers;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Events grouped the way a chart groups them, with the groups indexed by the string form of their keys.
+ * A selection item is resolved to its groups by a lookup instead of testing every group against every selection item,
+ * and for range selections the groups of a lookup key are sorted by the ranged value, so a range is found by binary search.
+ * <p>
+ * Indexes are kept for a short period by grouping settings and the events grouped, so repeated selections on the same chart
+ * don't group the events again. A kept index is reused only for the same events in the same order, compared by identity.
+ * <p>
+ * Selection items are matched as {@link SimpleSelectionMatchingService#getSelectionMatchPredicate} does: values are
+ * compared by their string form, either as sent or with numbers normalized. Items whose keys don't match the keys
+ * of the groups are compared with every group.
+ */
+public final class SelectionGroupIndex<T, G extends Enum<G> & GroupByOption<T>> {
+
+    private static final int CACHE_SIZE = 20;
+    private static final int CACHE_EXPIRY_MINUTES = 5;
+
+    private static final Cache<IndexKey, SelectionGroupIndex<?, ?>> INDEXES = CacheBuilder.newBuilder()
+            .maximumSize(CACHE_SIZE)
+            .expireAfterAccess(CACHE_EXPIRY_MINUTES, TimeUnit.MINUTES)
+            .softValues()
+            .build();
+
+    private final Object[] sourceEvents;
+    private final List<Map.Entry<GroupByKey<T, G>, Collection<T>>> groups;
+    private final Set<ChartGroupBySetting> matchedSettings;
+    private final ChartGroupBySetting rangeSetting;
+    private final Map<List<Map<?, String>>, Positions> positionsByKey = new HashMap<>();
+    private boolean uniformKeys = true;
+    private Set<G> trellisKeys;
+    private Set<ChartGroupBySetting> valueKeys;
+
+    private SelectionGroupIndex(Collection<T> events, ChartGroupByOptions<T, G> settings,
+                                Set<ChartGroupBySetting> matchedSettings, ChartGroupBySetting rangeSetting) {
+        this.sourceEvents = events.toArray();
+        this.groups = new ArrayList<>(GroupByAttributes.group(events, settings).entrySet());
+        this.matchedSettings = matchedSettings;
+        this.rangeSetting = rangeSetting;
+
+        Map<List<Map<?, String>>, List<Integer>> ordinalsByKey = new HashMap<>();
+        for (int i = 0; i < groups.size(); i++) {
+            GroupByKey<T, G> key = groups.get(i).getKey();
+            if (rangeSetting != null && !(key.getValue(rangeSetting) instanceof Double)) {
+                continue;
+            }
+            Map<ChartGroupBySetting, Object> values = matchedValues(key);
+            if (trellisKeys == null) {
+                trellisKeys = key.getTrellisByValues().keySet();
+                valueKeys = values.keySet();
+            } else if (!trellisKeys.equals(key.getTrellisByValues().keySet()) || !valueKeys.equals(values.keySet())) {
+                uniformKeys = false;
+            }
+            ordinalsByKey.computeIfAbsent(lookupKey(key.getTrellisByValues(), values, false), k -> new ArrayList<>()).add(i);
+        }
+        ordinalsByKey.forEach((key, ordinals) -> positionsByKey.put(key, new Positions(ordinals)));
+    }
+
+    /**
+     * Index matching selection items on all the values of the group keys
+     */
+    public static <T, G extends Enum<G> & GroupByOption<T>> SelectionGroupIndex<T, G> of(
+            Collection<T> events, ChartGroupByOptions<T, G> settings) {
+        return get(events, settings, null, null);
+    }
+
+    /**
+     * Index matching selection items on all the values of the group keys, not kept for other selections;
+     * for events built per request, which would never be found in the kept indexes
+     */
+    public static <T, G extends Enum<G> & GroupByOption<T>> SelectionGroupIndex<T, G> uncached(
+            Collection<T> events, ChartGroupByOptions<T, G> settings) {
+        return new SelectionGroupIndex<>(events, settings, null, null);
+    }
+
+    /**
+     * Index matching selection items on the given settings and their ranges on the {@code rangeSetting} value,
+     * only groups with a Double value of the {@code rangeSetting} are matched
+     */
+    public static <T, G extends Enum<G> & GroupByOption<T>> SelectionGroupIndex<T, G> ofRanges(
+            Collection<T> events, ChartGroupByOptions<T, G> settings,
+            ChartGroupBySetting rangeSetting, Set<ChartGroupBySetting> matchedSettings) {
+        return get(events, settings, matchedSettings, rangeSetting);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, G extends Enum<G> & GroupByOption<T>> SelectionGroupIndex<T, G> get(
+            Collection<T> events, ChartGroupByOptions<T, G> settings,
+            Set<ChartGroupBySetting> matchedSettings, ChartGroupBySetting rangeSetting) {
+        //the hash only spreads the kept indexes, the events of a found index are compared by identity
+        IndexKey key = new IndexKey(settings, matchedSettings, rangeSetting, events.size(), identityHash(events));
+        SelectionGroupIndex<T, G> index = (SelectionGroupIndex<T, G>) INDEXES.getIfPresent(key);
+        if (index == null || !index.isBuiltFrom(events)) {
+            index = new SelectionGroupIndex<>(events, settings, matchedSettings, rangeSetting);
+            INDEXES.put(key, index);
+        }
+        return index;
+    }
+
+    /**
+     * Events of the groups matched by any of the selection items, in the order of groups;
+     * an event is returned once per matched group it belongs to
+     */
+    public List<T> getMatchedEvents(Collection<? extends ChartSelectionItem<T, G>> selectionItems) {
+        BitSet matched = new BitSet(groups.size());
+        for (ChartSelectionItem<T, G> item : selectionItems) {
+            Range<Double> range = rangeOf(item);
+            if (rangeSetting != null && range == null) {
+                continue;
+            }
+            if (uniformKeys && trellisKeys != null && trellisKeys.equals(item.getSelectedTrellises().keySet())
+                    && valueKeys.equals(item.getSelectedItems().keySet())) {
+                markPositions(matched, lookupKey(item.getSelectedTrellises(), item.getSelectedItems(), true), range);
+                markPositions(matched, lookupKey(item.getSelectedTrellises(), item.getSelectedItems(), false), range);
+            } else {
+                markScanned(matched, item, range);
+            }
+        }
+        List<T> events = new ArrayList<>();
+        matched.stream().forEach(i -> events.addAll(groups.get(i).getValue()));
+        return events;
+    }
+
+    /**
+     * Events of the groups matched by the predicate, in the order of groups. Only groups of the trellises of selection items are tested,
+     * this is for services matching group keys in their own way, see {@link SimpleSelectionMatchingService#getSelectionMatchPredicate}
+     */
+    public List<T> getMatchedEvents(Collection<? extends ChartSelectionItem<T, G>> selectionItems, Predicate<GroupByKey<T, G>> predicate) {
+        Set<Map<G, Object>> selectedTrellises = selectionItems.stream().map(ChartSelectionItem::getSelectedTrellises).collect(toSet());
+        List<T> events = new ArrayList<>();
+        for (Map.Entry<GroupByKey<T, G>, Collection<T>> group : groups) {
+            GroupByKey<T, G> key = group.getKey();
+            if (selectedTrellises.stream().anyMatch(trellises -> keysEquals(key.getTrellisByValues(), trellises)) && predicate.test(key)) {
+                events.addAll(group.getValue());
+            }
+        }
+        return events;
+    }
+
+    private boolean isBuiltFrom(Collection<?> events) {
+        if (events.size() != sourceEvents.length) {
+            return false;
+        }
+        int i = 0;
+        for (Object event : events) {
+            if (event != sourceEvents[i++]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void markPositions(BitSet matched, List<Map<?, String>> key, Range<Double> range) {
+        Positions positions = positionsByKey.get(key);
+        if (positions == null) {
+            return;
+        }
+        if (range == null) {
+            Arrays.stream(positions.ordinals).forEach(matched::set);
+        } else {
+            int from = positions.firstNotLessThan(range.getMinimum());
+            for (int i = from; i < positions.values.length && positions.values[i] <= range.getMaximum(); i++) {
+                matched.set(positions.ordinals[i]);
+            }
+        }
+    }
+
+    private void markScanned(BitSet matched, ChartSelectionItem<T, G> item, Range<Double> range) {
+        Map<G, Object> normalizedTrellises = normalized(item.getSelectedTrellises());
+        Map<ChartGroupBySetting, Object> normalizedItems = normalized(item.getSelectedItems());
+        for (int i = 0; i < groups.size(); i++) {
+            GroupByKey<T, G> key = groups.get(i).getKey();
+            Object value = rangeSetting == null ? null : key.getValue(rangeSetting);
+            if (rangeSetting != null && !(value instanceof Double && range.contains((Double) value))) {
+                continue;
+            }
+            Map<ChartGroupBySetting, Object> values = matchedValues(key);
+            if (keysEquals(normalizedTrellises, key.getTrellisByValues()) && keysEquals(normalizedItems, values)
+                    || keysEquals(item.getSelectedTrellises(), key.getTrellisByValues()) && keysEquals(item.getSelectedItems(), values)) {
+                matched.set(i);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Range<Double> rangeOf(ChartSelectionItem<T, G> item) {
+        return item instanceof ChartSelectionItemRange ? ((ChartSelectionItemRange<T, G, Double>) item).getRange() : null;
+    }
+
+    private Map<ChartGroupBySetting, Object> matchedValues(GroupByKey<T, G> key) {
+        if (matchedSettings == null) {
+            return key.getValues();
+        }
+        Map<ChartGroupBySetting, Object> values = new HashMap<>();
+        key.getValues().forEach((setting, value) -> {
+            if (matchedSettings.contains(setting)) {
+                values.put(setting, value);
+            }
+        });
+        return values;
+    }
+
+    private static <K> Map<K, Object> normalized(Map<K, Object> values) {
+        Map<K, Object> normalized = new HashMap<>();
+        values.forEach((k, v) -> normalized.put(k, toStringNormalizingNumbers(v)));
+        return normalized;
+    }
+
+    private static <K> Map<K, String> strings(Map<K, Object> values, boolean normalizingNumbers) {
+        Map<K, String> strings = new HashMap<>();
+        values.forEach((k, v) -> strings.put(k, normalizingNumbers ? toStringNormalizingNumbers(v) : v == null ? null : v.toString()));
+        return strings;
+    }
+
+    private static List<Map<?, String>> lookupKey(Map<?, Object> trellises, Map<ChartGroupBySetting, Object> values,
+                                                  boolean normalizingNumbers) {
+        return Arrays.asList(strings(trellises, normalizingNumbers), strings(values, normalizingNumbers));
+    }
+
+    private static int identityHash(Collection<?> events) {
+        int hash = 1;
+        for (Object event : events) {
+            hash = 31 * hash + System.identityHashCode(event);
+        }
+        return hash;
+    }
+
+    /**
+     * Ordinals of groups sharing a lookup key, sorted by the ranged value if there is one
+     */
+    private final class Positions {
+        private final int[] ordinals;
+        private final double[] values;
+
+        private Positions(List<Integer> groupOrdinals) {
+            List<Integer> sorted = new ArrayList<>(groupOrdinals);
+            if (rangeSetting != null) {
+                sorted.sort(Comparator.comparingDouble(i -> (Double) groups.get(i).getKey().getValue(rangeSetting)));
+            }
+            ordinals = sorted.stream().mapToInt(Integer::intValue).toArray();
+            values = rangeSetting == null ? new double[0]
+                    : sorted.stream().mapToDouble(i -> (Double) groups.get(i).getKey().getValue(rangeSetting)).toArray();
+        }
+
+        private int firstNotLessThan(double value) {
+            int lo = 0;
+            int hi = values.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (values[mid] < value) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+
+    @EqualsAndHashCode
+    private static final class IndexKey {
+        private final ChartGroupByOptions<?, ?> settings;
+        private final Set<ChartGroupBySetting> matchedSettings;
+        private final ChartGroupBySetting rangeSetting;
+        private final int size;
+        private final int eventsHash;
+
+        private IndexKey(ChartGroupByOptions<?, ?> settings, Set<ChartGroupBySetting> matchedSettings,
+                         ChartGroupBySetting rangeSetting, int size, int eventsHash) {
+            this.settings = settings;
+            this.matchedSettings = matchedSettings;
+            this.rangeSetting = rangeSetting;
+            this.size = size;
+            this.eventsHash = eventsHash;
+        }
+    }
+}
@@ -19,15 +19,12 @@ package com.acuity.visualisations.rawdatamodel.service.plots;
 import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartGroupByOptions;
 import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartSelection;
 import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartSelectionItem;
-import com.acuity.visualisations.rawdatamodel.trellis.grouping.GroupByAttributes;
 import com.acuity.visualisations.rawdatamodel.trellis.grouping.GroupByKey;
-import com.acuity.visualisations.rawdatamodel.util.Attributes;
 import com.acuity.visualisations.rawdatamodel.vo.GroupByOption;
 
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -38,19 +35,8 @@ import static java.util.stream.Collectors.toMap;
 public interface SimpleSelectionMatchingService<T, G extends Enum<G> & GroupByOption<T>> {
 
     default List<T> getMatchedItems(Collection<T> filteredEvents, ChartSelection<T, G, ChartSelectionItem<T, G>> selection) {
-        //to speed up we first filter on trellises found in selection
-        Set<Map<G, Object>> distinctTrellises = selection.getSelectionItems().stream()
-                .map(ChartSelectionItem::getSelectedTrellises).collect(Collectors.toSet());
-        ChartGroupByOptions<T, G> trellisSettings = selection.getSettings().limitedByTrellisOptions();
-        Map<GroupByKey<T, G>, List<T>> trellisGroups = filteredEvents.stream()
-                .collect(Collectors.groupingBy(e -> Attributes.get(trellisSettings, e)));
-        Map<GroupByKey<T, G>, Collection<T>> groupedEvents = GroupByAttributes.group(trellisGroups.entrySet().stream()
-                .filter(e -> distinctTrellises.stream().anyMatch(t -> keysEquals(e.getKey().getTrellisByValues(), t)))
-                .flatMap(e -> e.getValue().stream()).collect(Collectors.toList()), selection.getSettings());
-        //then filtering rest on selection details
-        Predicate<GroupByKey<T, G>> selectionMatchPredicate = getSelectionMatchPredicate(selection);
-        return groupedEvents.entrySet().stream()
-                .filter(e -> selectionMatchPredicate.test(e.getKey())).flatMap(e -> e.getValue().stream()).collect(Collectors.toList());
+        //groups are looked up by selection items in the index kept for the chart settings
+        return SelectionGroupIndex.of(filteredEvents, selection.getSettings()).getMatchedEvents(selection.getSelectionItems());
     }
 
     default Predicate<GroupByKey<T, G>> getSelectionMatchPredicate(
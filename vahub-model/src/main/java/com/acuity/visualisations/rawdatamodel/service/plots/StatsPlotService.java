@@ -38,20 +38,20 @@ import org.apache.commons.math3.analysis.function.Sqrt;
 import org.apache.commons.math3.stat.descriptive.moment.Mean;
 import org.apache.commons.math3.stat.descriptive.moment.StandardDeviation;
 import org.apache.commons.math3.stat.descriptive.rank.Median;
-import org.apache.commons.math3.stat.descriptive.rank.Percentile;
 import org.apache.commons.math3.util.Precision;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Function;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartGroupByOptions.ChartGroupBySetting.NAME;
@@ -59,9 +59,6 @@ import static com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartGroup
 import static com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartGroupByOptions.ChartGroupBySetting.X_AXIS;
 import static com.acuity.visualisations.rawdatamodel.util.Constants.ALL;
 import static com.acuity.visualisations.rawdatamodel.util.Constants.ROUNDING_PRECISION;
-import static com.acuity.visualisations.rawdatamodel.util.ObjectUtil.keysEquals;
-import static com.acuity.visualisations.rawdatamodel.util.ObjectUtil.toStringNormalizingNumbers;
-import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
@@ -84,48 +81,45 @@ public class StatsPlotService<T extends HasStringId & HasSubject, G extends Enum
         final Map<GroupByKey<T, G>, Collection<T>> groupedEvents = GroupByAttributes.group(
                 filtered.getFilteredResult(),
                 settings.limitedBySettings(X_AXIS));
-        return groupedEvents.entrySet().stream()
-                .collect(toMap(Map.Entry::getKey, e -> getBoxPlotTransformation(settings).apply(e.getValue())));
+        final Function<Collection<T>, BoxplotCalculationObject> boxPlotTransformation = getBoxPlotTransformation(settings);
+        return groupedEvents.entrySet().parallelStream()
+                .collect(toMap(Map.Entry::getKey, e -> boxPlotTransformation.apply(e.getValue())));
     }
 
     private Function<Collection<T>, BoxplotCalculationObject> getBoxPlotTransformation(ChartGroupByOptions<T, G> settings) {
         return (Collection<T> events) -> {
-            Percentile percentile = new Percentile().withEstimationType(Percentile.EstimationType.R_7);
             final BoxplotCalculationObject.BoxplotCalculationObjectBuilder builder = BoxplotCalculationObject.builder();
-            final Map<T, GroupByKey<T, G>> mapped = events.stream().collect(toMap(e -> e, e -> Attributes.get(settings, e)))
-                    .entrySet().stream().filter(e -> e.getValue().getValue(ChartGroupByOptions.ChartGroupBySetting.Y_AXIS) instanceof Double)
-                    .collect(toMap(Map.Entry::getKey, Map.Entry::getValue));
-            final double[] yValues = mapped.entrySet().stream().map(e -> e.getValue().getValue(ChartGroupByOptions.ChartGroupBySetting.Y_AXIS))
-                    .mapToDouble(e -> (Double) e).sorted().toArray();
-            if (yValues.length > 0) {
-
-
-                double median = percentile.evaluate(yValues, 50);
-                double upperQuartile = percentile.evaluate(yValues, 75);
-                double lowerQuartile = percentile.evaluate(yValues, 25);
-                double tukeyIqr = (1.5 * (upperQuartile - lowerQuartile));
-
-                double lowerWhisker = Arrays.stream(yValues)
-                        .filter(y -> y >= lowerQuartile - tukeyIqr)
-                        .min()
-                        .orElse(lowerQuartile - tukeyIqr);
-                double upperWhisker = Arrays.stream(yValues)
-                        .filter(y -> y <= upperQuartile + tukeyIqr)
-                        .max()
-                        .orElse(upperQuartile + tukeyIqr);
-
-                final Set<BoxPlotOutlier> outliers = mapped.entrySet().stream().filter(
-                        e -> (Double) e.getValue().getValue(ChartGroupByOptions.ChartGroupBySetting.Y_AXIS) < lowerWhisker
-                                || (Double) e.getValue().getValue(ChartGroupByOptions.ChartGroupBySetting.Y_AXIS) > upperWhisker)
-                        .map(e -> new BoxPlotOutlier(round((Double) e.getValue().getValue(ChartGroupByOptions.ChartGroupBySetting.Y_AXIS), 2),
-                                e.getKey().getSubjectId())).collect(toSet());
-                builder.subjectCount(mapped.keySet().stream().map(e -> e.getSubjectId()).distinct().count());
-                builder.eventCount((long) mapped.size());
-                builder.median(round(median, 2));
-                builder.upperQuartile(round(upperQuartile, 2));
-                builder.lowerQuartile(round(lowerQuartile, 2));
-                builder.lowerWhisker(round(lowerWhisker, 2));
-                builder.upperWhisker(round(upperWhisker, 2));
+            //y values are extracted once, events are kept at the same positions to find outliers
+            final double[] yValues = new double[events.size()];
+            final List<T> yEvents = new ArrayList<>(events.size());
+            for (T event : events) {
+                final Object yValue = Attributes.get(settings, event).getValue(ChartGroupByOptions.ChartGroupBySetting.Y_AXIS);
+                if (yValue instanceof Double) {
+                    yValues[yEvents.size()] = (Double) yValue;
+                    yEvents.add(event);
+                }
+            }
+            final int size = yEvents.size();
+            if (size > 0) {
+                final double[] sorted = Arrays.copyOf(yValues, size);
+                final BoxPlotStatistics statistics = new BoxPlotStatistics(sorted, size);
+
+                final Set<BoxPlotOutlier> outliers = new HashSet<>();
+                final Set<String> subjectIds = new HashSet<>();
+                for (int i = 0; i < size; i++) {
+                    final T event = yEvents.get(i);
+                    if (statistics.isOutlier(yValues[i])) {
+                        outliers.add(new BoxPlotOutlier(round(yValues[i], 2), event.getSubjectId()));
+                    }
+                    subjectIds.add(event.getSubjectId());
+                }
+                builder.subjectCount((long) subjectIds.size());
+                builder.eventCount((long) size);
+                builder.median(round(statistics.getMedian(), 2));
+                builder.upperQuartile(round(statistics.getUpperQuartile(), 2));
+                builder.lowerQuartile(round(statistics.getLowerQuartile(), 2));
+                builder.lowerWhisker(round(statistics.getLowerWhisker(), 2));
+                builder.upperWhisker(round(statistics.getUpperWhisker(), 2));
                 builder.outliers(outliers);
             } else {
                 builder.outliers(Collections.emptySet());
@@ -180,21 +174,10 @@ public class StatsPlotService<T extends HasStringId & HasSubject, G extends Enum
 
     @TimeMe
     public SelectionDetail getRangedSelectionDetails(FilterResult<T> filtered, ChartSelection<T, G, ChartSelectionItemRange<T, G, Double>> selection) {
-        //to speed up we first filter on trellises found in selection
-        final Set<Map<G, Object>> distinctTrellises = selection.getSelectionItems().stream()
-                .map(ChartSelectionItem::getSelectedTrellises).collect(toSet());
-        final ChartGroupByOptions<T, G> trellisSettings = selection.getSettings().limitedByTrellisOptions();
-        final Map<GroupByKey<T, G>, List<T>> trellisGroups = filtered.getFilteredResult().stream()
-                .collect(groupingBy(e -> Attributes.get(trellisSettings, e)));
-        final Map<GroupByKey<T, G>, Collection<T>> groupedEvents = GroupByAttributes.group(trellisGroups.entrySet().stream()
-                .filter(e -> distinctTrellises.stream().anyMatch(t -> keysEquals(e.getKey().getTrellisByValues(), t)))
-                .flatMap(e -> e.getValue().stream()).collect(toList()), selection.getSettings());
-
-        //then filtering matched trellisses items on selection details
-        final Predicate<GroupByKey<T, G>> rangeSelectionMatchPredicate = getRangeSelectionMatchPredicate(selection);
-        final List<T> matchedItems = groupedEvents.entrySet().parallelStream()
-                .filter(e -> rangeSelectionMatchPredicate.test(e.getKey()))
-                .flatMap(e -> e.getValue().stream()).collect(toList());
+        //groups of the selected trellises and x-axis values are looked up in the index kept for the chart settings, then narrowed by the range
+        final List<T> matchedItems = SelectionGroupIndex.ofRanges(filtered.getFilteredResult(), selection.getSettings(),
+                ChartGroupByOptions.ChartGroupBySetting.Y_AXIS, EnumSet.of(X_AXIS, SERIES_BY))
+                .getMatchedEvents(selection.getSelectionItems());
         //noinspection Convert2MethodRef
         final SelectionDetail selectionDetail = SelectionDetail.builder()
                 .eventIds(matchedItems.stream().map(T::getId).collect(toSet()))
@@ -206,39 +189,10 @@ public class StatsPlotService<T extends HasStringId & HasSubject, G extends Enum
         return selectionDetail;
     }
 
-    private Predicate<GroupByKey<T, G>> getRangeSelectionMatchPredicate(
-            ChartSelection<T, G, ChartSelectionItemRange<T, G, Double>> selection) {
-        final List<ChartSelectionItemRange<T, G, Double>> normalized = selection.getSelectionItems().stream().map(i -> {
-            final Map<G, Object> selectedTrellises = i.getSelectedTrellises().entrySet().stream()
-                    .collect(HashMap::new, (m, v) -> m.put(v.getKey(), toStringNormalizingNumbers(v.getValue())), HashMap::putAll);
-
-            final Map<ChartGroupByOptions.ChartGroupBySetting, Object> selectedItems = i.getSelectedItems().entrySet().stream()
-                    .collect(HashMap::new, (m, v) -> m.put(v.getKey(), toStringNormalizingNumbers(v.getValue())), HashMap::putAll);
-            // .collect(Collectors.toMap(e -> e.getKey(), e -> toStringNormalizingNumbers(e.getValue()))); this fails with nulls
-            return ChartSelectionItemRange.of(selectedTrellises, selectedItems, i.getRange().getMinimum(), i.getRange().getMaximum());
-        }).collect(toList());
-        //need to change something here some day, this is a workaround
-        return e -> normalized.parallelStream().anyMatch(selectionItem -> {
-            final Object yValue = e.getValue(ChartGroupByOptions.ChartGroupBySetting.Y_AXIS);
-            return yValue instanceof Double && keysEquals(selectionItem.getSelectedTrellises(), e.getTrellisByValues())
-                    && keysEquals(selectionItem.getSelectedItems(), e.limitedBySettings(X_AXIS, SERIES_BY).getValues())
-                    && selectionItem.getRange().contains((Double) yValue);
-        }) || selection.getSelectionItems().parallelStream().anyMatch(selectionItem -> {
-            final Object yValue = e.getValue(ChartGroupByOptions.ChartGroupBySetting.Y_AXIS);
-            return yValue instanceof Double && keysEquals(selectionItem.getSelectedTrellises(), e.getTrellisByValues())
-                    && keysEquals(selectionItem.getSelectedItems(), e.limitedBySettings(X_AXIS, SERIES_BY).getValues())
-                    && selectionItem.getRange().contains((Double) yValue);
-        });
-    }
-
     @Override
     public List<T> getMatchedItems(Collection<T> filtered, ChartSelection<T, G, ChartSelectionItem<T, G>> selection) {
-        final Map<GroupByKey<T, G>, Collection<T>> groupedEvents = GroupByAttributes.group(filtered,
-                selection.getSettings().limitedBySettings(X_AXIS, SERIES_BY));
-        final Predicate<GroupByKey<T, G>> selectionMatchPredicate = getSelectionMatchPredicate(selection);
-        return groupedEvents.entrySet().parallelStream()
-                .filter(e -> selectionMatchPredicate.test(e.getKey()))
-                .flatMap(e -> e.getValue().stream()).collect(toList());
+        return SelectionGroupIndex.of(filtered, selection.getSettings().limitedBySettings(X_AXIS, SERIES_BY))
+                .getMatchedEvents(selection.getSelectionItems());
     }
 
     @TimeMe
@@ -24,6 +24,7 @@ import com.acuity.visualisations.rawdatamodel.trellis.grouping.GroupByKey;
 import com.acuity.visualisations.rawdatamodel.vo.wrappers.AssessedTargetLesion;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,6 +45,14 @@ import static com.acuity.visualisations.rawdatamodel.util.ObjectUtil.toInteger;
 @Service
 public class TLDLineChartService extends LineChartService<AssessedTargetLesion, ATLGroupByOptions> {
 
+    @Override
+    public List<AssessedTargetLesion> getMatchedItems(Collection<AssessedTargetLesion> filteredEvents,
+            ChartSelection<AssessedTargetLesion, ATLGroupByOptions, ChartSelectionItem<AssessedTargetLesion, ATLGroupByOptions>> selection) {
+        //y axis values are compared as numbers by the predicate, not by their string form as the index does
+        return SelectionGroupIndex.of(filteredEvents, selection.getSettings())
+                .getMatchedEvents(selection.getSelectionItems(), getSelectionMatchPredicate(selection));
+    }
+
     @Override
     public Predicate<GroupByKey<AssessedTargetLesion, ATLGroupByOptions>> getSelectionMatchPredicate(
             ChartSelection<AssessedTargetLesion, ATLGroupByOptions, ChartSelectionItem<AssessedTargetLesion, ATLGroupByOptions>> selection) {
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.service.plots;
+
+import com.acuity.visualisations.rawdatamodel.vo.plots.BarChartOptionRange;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongFunction;
+
+/**
+ * Splits values of ids into equal-width buckets between the smallest and the largest value.
+ * Values are kept in primitive arrays by id ordinal and every id is assigned its bucket ordinal in a single pass,
+ * so the resulting range of an id is looked up through its ordinal instead of a range per id.
+ * A value added again for the same id replaces the previous one.
+ */
+final class WidthBuckets {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NO_BUCKET = -1;
+
+    private final int bucketCount;
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private long[] values = new long[INITIAL_CAPACITY];
+    private boolean[] present = new boolean[INITIAL_CAPACITY];
+
+    WidthBuckets(int bucketCount) {
+        this.bucketCount = bucketCount;
+    }
+
+    void add(String id, long value) {
+        int ordinal = ordinalOf(id);
+        values[ordinal] = value;
+        present[ordinal] = true;
+    }
+
+    void addEmpty(String id) {
+        present[ordinalOf(id)] = false;
+    }
+
+    /**
+     * @param converter - converts a bucket boundary to the range value type
+     * @return ranges of the ids having a value, each range spanning the smallest and the largest value of the id bucket
+     */
+    <V extends Comparable<V>> Map<String, BarChartOptionRange<V>> toRanges(LongFunction<V> converter) {
+        int size = ordinals.size();
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        int presentCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (present[i]) {
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+                presentCount++;
+            }
+        }
+        if (presentCount == 0) {
+            return Collections.emptyMap();
+        }
+
+        int[] buckets = new int[size];
+        long[] bucketMins = new long[bucketCount];
+        long[] bucketMaxes = new long[bucketCount];
+        Arrays.fill(bucketMins, Long.MAX_VALUE);
+        Arrays.fill(bucketMaxes, Long.MIN_VALUE);
+        for (int i = 0; i < size; i++) {
+            if (present[i]) {
+                int bucket = max == min ? 0 : getBucket(values[i], min, max);
+                buckets[i] = bucket;
+                bucketMins[bucket] = Math.min(bucketMins[bucket], values[i]);
+                bucketMaxes[bucket] = Math.max(bucketMaxes[bucket], values[i]);
+            } else {
+                buckets[i] = NO_BUCKET;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        BarChartOptionRange<V>[] ranges = new BarChartOptionRange[bucketCount];
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            ranges[bucket] = bucketMins[bucket] > bucketMaxes[bucket] ? BarChartOptionRange.empty()
+                    : new BarChartOptionRange<>(converter.apply(bucketMins[bucket]), converter.apply(bucketMaxes[bucket]));
+        }
+        return new RangeLookup<>(ordinals, buckets, ranges, presentCount);
+    }
+
+    private int ordinalOf(String id) {
+        Integer ordinal = ordinals.get(id);
+        if (ordinal == null) {
+            ordinal = ordinals.size();
+            if (ordinal == values.length) {
+                values = Arrays.copyOf(values, ordinal * 2);
+                present = Arrays.copyOf(present, ordinal * 2);
+            }
+            ordinals.put(id, ordinal);
+        }
+        return ordinal;
+    }
+
+    private int getBucket(long value, long min, long max) {
+        final long range = max - min + 1; // we increment range value by 1 as we include max as a boundary
+        final long bucketSize = (long) Math.ceil((double) range / bucketCount);
+        return (int) ((value - min) / bucketSize);
+    }
+
+    /**
+     * Read-only map view resolving the range of an id through the id ordinal and its bucket ordinal
+     */
+    private static final class RangeLookup<V extends Comparable<V>> extends AbstractMap<String, BarChartOptionRange<V>> {
+        private final Map<String, Integer> ordinals;
+        private final int[] buckets;
+        private final BarChartOptionRange<V>[] ranges;
+        private final int size;
+
+        private RangeLookup(Map<String, Integer> ordinals, int[] buckets, BarChartOptionRange<V>[] ranges, int size) {
+            this.ordinals = ordinals;
+            this.buckets = buckets;
+            this.ranges = ranges;
+            this.size = size;
+        }
+
+        @Override
+        public BarChartOptionRange<V> get(Object id) {
+            Integer ordinal = ordinals.get(id);
+            return ordinal == null || buckets[ordinal] == NO_BUCKET ? null : ranges[buckets[ordinal]];
+        }
+
+        @Override
+        public boolean containsKey(Object id) {
+            return get(id) != null;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Set<Entry<String, BarChartOptionRange<V>>> entrySet() {
+            return new AbstractSet<Entry<String, BarChartOptionRange<V>>>() {
+                @Override
+                public Iterator<Entry<String, BarChartOptionRange<V>>> iterator() {
+                    return ordinals.entrySet().stream()
+                            .filter(e -> buckets[e.getValue()] != NO_BUCKET)
+                            .<Entry<String, BarChartOptionRange<V>>>map(e -> new SimpleImmutableEntry<>(e.getKey(), ranges[buckets[e.getValue()]]))
+                            .iterator();
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+    }
+}
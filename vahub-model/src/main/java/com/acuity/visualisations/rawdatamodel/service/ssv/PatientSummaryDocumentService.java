@@ -20,6 +20,8 @@ import com.acuity.visualisations.rawdatamodel.service.PopulationService;
 import com.acuity.visualisations.rawdatamodel.vo.Subject;
 import com.acuity.va.security.acl.domain.Datasets;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CloseShieldOutputStream;
 import org.docx4j.Docx4J;
 import org.docx4j.XmlUtils;
 import org.docx4j.jaxb.Context;
@@ -47,17 +49,19 @@ import org.docx4j.wml.Tc;
 import org.docx4j.wml.Text;
 import org.docx4j.wml.Tr;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.CacheConfig;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.core.io.Resource;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
-import java.io.ByteArrayOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
@@ -66,14 +70,22 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static com.acuity.visualisations.rawdatamodel.service.ssv.SingleSubjectViewSummaryService.SsvTableMetadata;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
+import static org.apache.commons.lang3.StringUtils.defaultIfEmpty;
 
 
 /**
@@ -81,9 +93,14 @@ import static java.util.stream.Collectors.toMap;
  * the `docx4j` library is used under the hood.
  */
 @Service
-@CacheConfig(keyGenerator = "datasetsKeyGenerator", cacheResolver = "refreshableCacheResolver")
 @Slf4j
 public class PatientSummaryDocumentService {
+    /**
+     * Maximum number of subjects of a single documents archive, as each of the documents takes a full subject summary to build
+     */
+    public static final int MAX_DOCUMENTS_SUBJECTS = 200;
+    private static final String DOCUMENT_EXTENSION = ".docx";
+
     //Document template
     private Resource templateResource;
     //Template with styles: used for convenience and are cached while init
@@ -93,6 +110,9 @@ public class PatientSummaryDocumentService {
     private SingleSubjectViewSummaryService summaryService;
     @Autowired
     private PopulationService populationService;
+    @Autowired
+    @Qualifier("ssvTablesExecutor")
+    private AsyncTaskExecutor ssvTablesExecutor;
 
     @Autowired
     public PatientSummaryDocumentService(
@@ -102,6 +122,8 @@ public class PatientSummaryDocumentService {
         this.styleTemplateResource = styleTemplateResource;
     }
 
+    //template content read once, every document is loaded from it
+    private byte[] template;
     //cached styles
     private P section;
     //cached predefined tables
@@ -115,6 +137,10 @@ public class PatientSummaryDocumentService {
 
     @PostConstruct
     void initCtx() throws JAXBException, IOException, Docx4JException {
+        try (InputStream templateStream = templateResource.getInputStream()) {
+            template = IOUtils.toByteArray(templateStream);
+        }
+
         WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.load(styleTemplateResource.getInputStream());
         MainDocumentPart styleDocumentPart = wordMLPackage.getMainDocumentPart();
         final List<Object> content = styleDocumentPart.getContent();
@@ -131,58 +157,114 @@ public class PatientSummaryDocumentService {
         smallRPr = ((R) smallHight.getContent().get(0)).getRPr();
     }
 
-    @Cacheable
-    public Optional<ByteArrayOutputStream> generateDocument(Datasets datasets, String subjectId, boolean hasTumourAccess, String timeZoneOffset)
-            throws JAXBException, Docx4JException, IOException {
-        WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.load(templateResource.getInputStream());
-        MainDocumentPart documentPart = wordMLPackage.getMainDocumentPart();
-        String timestamp = formatDateTime(System.currentTimeMillis(), timeZoneOffset, "MM/dd/yyyy h:mm:ss a");
-        HashMap<String, String> footerData = new LinkedHashMap<>();
-        footerData.put("timestamp", timestamp);
-
+    /**
+     * Builds the summary document of a subject, or returns empty if there's no such subject in the datasets
+     */
+    public Optional<WordprocessingMLPackage> createDocument(Datasets datasets, String subjectId, boolean hasTumourAccess,
+                                                            String timeZoneOffset) throws Docx4JException, JAXBException {
         Optional<Subject> subject = populationService.getSubject(datasets, subjectId);
         if (!subject.isPresent()) {
             return Optional.empty();
         }
+        return Optional.of(createDocument(datasets, subjectId, subject.get(), hasTumourAccess, timeZoneOffset));
+    }
 
-        List<Map<String, String>> headerTableData = summaryService.getHeaderDataForPrinting(subject.get());
-        createHeaderPart(wordMLPackage, headerTableData);
-        processFooterTemplates(wordMLPackage, footerData);
-
-        Map<String, SsvTableMetadata> metadataByTable = summaryService.getMetadata(datasets, hasTumourAccess).stream()
-                .collect(toMap(SsvTableMetadata::getName, m -> m, (o1, o2) -> o1, LinkedHashMap::new));
-
-        Map<String, List<Map<String, String>>> tables = summaryService.getData(datasets, subjectId, hasTumourAccess);
-
-        // transform input map of tables so that columns were sorted and column names were display names instead of camelCase names
-        Map<String, List<Map<String, String>>> tablesWithSortedNamedColumns = tables.entrySet().stream()
-                .collect(toMap(Map.Entry::getKey,
-                        table -> {
-                            if (table.getValue().isEmpty()) {
-                                // table with one empty row
-                                return Collections.singletonList(metadataByTable.get(table.getKey()).getColumns().values()
-                                        .stream().collect(toMap(col -> col, col -> "", (o1, o2) -> o1, LinkedHashMap::new)));
-                            } else {
-                                return table.getValue().stream()
-                                        .map(row -> metadataByTable.get(table.getKey()).getColumns().entrySet().stream()
-                                                .collect(toMap(Map.Entry::getValue,
-                                                        col -> row.get(col.getKey()) == null ? "" : row.get(col.getKey()), (o1, o2) -> o1, LinkedHashMap::new)))
-                                        .collect(toList());
-                            }
-                        }));
-
-        //insert tables
-        metadataByTable.values().forEach(metadata -> {
-                    try {
-                        insertTable(documentPart, metadata.getDisplayName(), tablesWithSortedNamedColumns.get(metadata.getName()));
-                    } catch (JAXBException | XPathBinderAssociationIsPartialException ignored) {
-                        log.error("Ignored", ignored);
-                    }
-                });
+    private WordprocessingMLPackage createDocument(Datasets datasets, String subjectId, Subject subject, boolean hasTumourAccess,
+                                                   String timeZoneOffset) throws Docx4JException, JAXBException {
+        List<SsvTableMetadata> metadata = summaryService.getMetadata(datasets, hasTumourAccess);
+        Map<String, CompletableFuture<List<Map<String, String>>>> tables = metadata.stream()
+                .collect(toMap(SsvTableMetadata::getName,
+                        table -> CompletableFuture.supplyAsync(() -> summaryService.getData(datasets, subjectId, hasTumourAccess,
+                                table.getName()).get(table.getName()), ssvTablesExecutor),
+                        (o1, o2) -> o1));
+
+        WordprocessingMLPackage wordMLPackage = WordprocessingMLPackage.load(new ByteArrayInputStream(template));
+        try {
+            MainDocumentPart documentPart = wordMLPackage.getMainDocumentPart();
+            String timestamp = formatDateTime(System.currentTimeMillis(), timeZoneOffset, "MM/dd/yyyy h:mm:ss a");
+            HashMap<String, String> footerData = new LinkedHashMap<>();
+            footerData.put("timestamp", timestamp);
+
+            List<List<String>> headerTableData = summaryService.getHeaderDataForPrinting(subject).stream()
+                    .<List<String>>map(row -> new ArrayList<>(row.values()))
+                    .collect(toList());
+            createHeaderPart(wordMLPackage, headerTableData);
+            processFooterTemplates(wordMLPackage, footerData);
+
+            //insert tables in the metadata order, as soon as their data is collected
+            for (SsvTableMetadata table : metadata) {
+                try {
+                    insertTable(documentPart, table, join(tables.get(table.getName())));
+                } catch (JAXBException | XPathBinderAssociationIsPartialException ignored) {
+                    log.error("Ignored", ignored);
+                }
+            }
+        } finally {
+            tables.values().forEach(future -> future.cancel(true));
+        }
+        return wordMLPackage;
+    }
+
+    /**
+     * Writes the summary document of a subject to the stream
+     *
+     * @return false if there's no such subject in the datasets, in which case nothing is written
+     */
+    public boolean writeDocument(Datasets datasets, String subjectId, boolean hasTumourAccess, String timeZoneOffset,
+                                 OutputStream outputStream) throws Docx4JException, JAXBException {
+        Optional<WordprocessingMLPackage> document = createDocument(datasets, subjectId, hasTumourAccess, timeZoneOffset);
+        if (!document.isPresent()) {
+            return false;
+        }
+        Docx4J.save(document.get(), outputStream);
+        return true;
+    }
 
-        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        Docx4J.save(wordMLPackage, outputStream);
-        return Optional.of(outputStream);
+    /**
+     * Writes a zip archive with the summary document of each of the subjects to the stream.
+     * Documents are built and written one after another, so only one of them is held in memory at a time.
+     * Subjects missing from the datasets are skipped.
+     *
+     * @throws IllegalArgumentException if there are more than {@link #MAX_DOCUMENTS_SUBJECTS} distinct subjects
+     */
+    public void writeDocuments(Datasets datasets, Collection<String> subjectIds, boolean hasTumourAccess, String timeZoneOffset,
+                               OutputStream outputStream) throws Docx4JException, JAXBException, IOException {
+        Set<String> distinctSubjectIds = new LinkedHashSet<>(subjectIds);
+        if (distinctSubjectIds.size() > MAX_DOCUMENTS_SUBJECTS) {
+            throw new IllegalArgumentException("Documents can be requested for at most " + MAX_DOCUMENTS_SUBJECTS + " subjects, got "
+                    + distinctSubjectIds.size());
+        }
+        ZipOutputStream zip = new ZipOutputStream(outputStream);
+        Set<String> entryNames = new HashSet<>();
+        for (String subjectId : distinctSubjectIds) {
+            Optional<Subject> subject = populationService.getSubject(datasets, subjectId);
+            if (!subject.isPresent()) {
+                continue;
+            }
+            WordprocessingMLPackage document = createDocument(datasets, subjectId, subject.get(), hasTumourAccess, timeZoneOffset);
+            zip.putNextEntry(new ZipEntry(getEntryName(defaultIfEmpty(subject.get().getSubjectCode(), subjectId), entryNames)));
+            // docx4j closes the stream it saves to
+            Docx4J.save(document, new CloseShieldOutputStream(zip));
+            zip.closeEntry();
+        }
+        zip.finish();
+    }
+
+    private static String getEntryName(String subjectCode, Set<String> usedNames) {
+        String name = subjectCode.replaceAll("[^\\w.-]", "_");
+        String entryName = name + DOCUMENT_EXTENSION;
+        for (int i = 2; !usedNames.add(entryName); i++) {
+            entryName = name + "_" + i + DOCUMENT_EXTENSION;
+        }
+        return entryName;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
     }
 
     private String formatDateTime(long time, String timeZoneOffset, String dateFormat) {
@@ -225,10 +307,29 @@ public class PatientSummaryDocumentService {
         return p;
     }
 
-    private void insertTable(MainDocumentPart documentPart, String tableName, List<Map<String, String>> tableData)
+    private void insertTable(MainDocumentPart documentPart, SsvTableMetadata metadata, List<Map<String, String>> tableData)
             throws JAXBException, XPathBinderAssociationIsPartialException {
-        documentPart.addObject(createParagraph(documentPart, section, tableName));
-        documentPart.addObject(getTable(sampleTable, tableData, true));
+        // columns are ordered as in metadata and named by their display names, the first of the columns sharing a name is taken
+        Map<String, String> fieldsByDisplayName = new LinkedHashMap<>();
+        metadata.getColumns().forEach((field, displayName) -> fieldsByDisplayName.putIfAbsent(displayName, field));
+        String[] fields = fieldsByDisplayName.values().toArray(new String[0]);
+
+        List<List<String>> rows = new ArrayList<>(Math.max(tableData.size(), 1));
+        for (Map<String, String> row : tableData) {
+            List<String> values = new ArrayList<>(fields.length);
+            for (String field : fields) {
+                String value = row.get(field);
+                values.add(value == null ? "" : value);
+            }
+            rows.add(values);
+        }
+        if (rows.isEmpty()) {
+            // table with one empty row
+            rows.add(Collections.nCopies(fields.length, ""));
+        }
+
+        documentPart.addObject(createParagraph(documentPart, section, metadata.getDisplayName()));
+        documentPart.addObject(getTable(sampleTable, fieldsByDisplayName.keySet(), rows));
         documentPart.addObject(lineBreak);
     }
 
@@ -250,10 +351,12 @@ public class PatientSummaryDocumentService {
         return result;
     }
 
-    private Tbl getTable(Tbl sampleTable, List<Map<String, String>> data, boolean hasHeaderRow) {
+    private Tbl getTable(Tbl sampleTable, Collection<String> header, List<? extends Collection<String>> data) {
         ObjectFactory factory = Context.getWmlObjectFactory();
+        boolean hasHeaderRow = header != null;
         int rowCount = hasHeaderRow ? (data.size() + 1) : data.size();
-        Tbl table = TblFactory.createTable(rowCount, data.get(0).size(), 300 /*inherited from sampleHeaderRow*/);
+        int columnCount = hasHeaderRow ? header.size() : data.get(0).size();
+        Tbl table = TblFactory.createTable(rowCount, columnCount, 300 /*inherited from sampleHeaderRow*/);
         table.setTblPr(sampleTable.getTblPr());
         table.setTblGrid(sampleTable.getTblGrid());
 
@@ -265,13 +368,13 @@ public class PatientSummaryDocumentService {
             Tr sampleHeaderRow = (Tr) sampleTable.getContent().get(1);
             Tc sampleHeaderCell = (Tc) XmlUtils.unwrap(sampleHeaderRow.getContent().get(0));
             PPr headerParagraphProperties = withAlignmentAndKeepNext(new PPr(), JcEnumeration.CENTER);
-            addRow(factory, table, sampleHeaderRow, headerParagraphProperties, smallHeaderRPr, sampleHeaderCell, data.get(0).keySet(), i);
+            addRow(factory, table, sampleHeaderRow, headerParagraphProperties, smallHeaderRPr, sampleHeaderCell, header, i);
             i++;
         }
 
         final PPr tableParagraphProperties = withAlignmentAndKeepNext(smallHight.getPPr(), JcEnumeration.LEFT);
-        for (Map<String, String> entry : data) {
-            addRow(factory, table, sampleTableRow, tableParagraphProperties, smallRPr, tableCell, entry.values(), i);
+        for (Collection<String> values : data) {
+            addRow(factory, table, sampleTableRow, tableParagraphProperties, smallRPr, tableCell, values, i);
             i++;
         }
         return table;
@@ -307,11 +410,11 @@ public class PatientSummaryDocumentService {
         return paragraphProperties;
     }
 
-    private void createHeaderPart(WordprocessingMLPackage wordMLPackage, List<Map<String, String>> headerTableData) {
+    private void createHeaderPart(WordprocessingMLPackage wordMLPackage, List<List<String>> headerTableData) {
 
         HeaderPart headerPart = (HeaderPart) wordMLPackage.getParts().getParts().values().stream().filter(p -> p instanceof HeaderPart).findFirst().get();
         // add table before line separator
-        headerPart.getContent().add(0, getTable(headerSampleTable, headerTableData, false));
+        headerPart.getContent().add(0, getTable(headerSampleTable, null, headerTableData));
     }
 }
 
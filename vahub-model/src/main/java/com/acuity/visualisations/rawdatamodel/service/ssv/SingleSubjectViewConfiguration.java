@@ -0,0 +1,61 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.service.ssv;
+
+import com.acuity.visualisations.config.async.executor.DelegatingAsyncTaskExecutor;
+import com.acuity.visualisations.config.async.executor.context.MDCTaskContextCapturer;
+import com.acuity.visualisations.config.async.executor.context.SecurityTaskContextCapturer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+
+@Configuration
+public class SingleSubjectViewConfiguration {
+
+    private final ThreadPoolTaskExecutor ssvTablesThreadPool = new ThreadPoolTaskExecutor();
+
+    /**
+     * Bounded pool collecting the tables of a patient summary document concurrently,
+     * the tables are collected with the security and logging context of the request, same as in async tasks
+     */
+    @Bean("ssvTablesExecutor")
+    public AsyncTaskExecutor ssvTablesExecutor(@Value("${ssv.tables.threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = ssvTablesThreadPool;
+
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("ssv-tables-");
+        executor.setDaemon(true);
+
+        executor.initialize();
+
+        return new DelegatingAsyncTaskExecutor(executor, Arrays.asList(
+                new SecurityTaskContextCapturer(),
+                new MDCTaskContextCapturer()
+        ));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ssvTablesThreadPool.shutdown();
+    }
+}
@@ -17,6 +17,7 @@
 package com.acuity.visualisations.rawdatamodel.trellis.grouping;
 
 import com.acuity.visualisations.common.util.ObjectConvertor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.EqualsAndHashCode;
 
 import java.io.Serializable;
@@ -28,6 +29,8 @@ import static com.acuity.visualisations.rawdatamodel.util.Attributes.defaultNull
 @EqualsAndHashCode(of = {"start", "end"})
 public abstract class Bin<T extends Comparable<T>> implements Comparable<Bin>, Serializable {
 
+    public static final int NO_POSITION = Integer.MIN_VALUE;
+
     public abstract T getStart();
 
     public abstract T getEnd();
@@ -80,6 +83,13 @@ public abstract class Bin<T extends Comparable<T>> implements Comparable<Bin>, S
 
     public abstract int getSize();
 
+    /**
+     * Position of the bin on its axis, consecutive bins have consecutive positions.
+     * The empty bin is not on the axis, its position is {@link #NO_POSITION}
+     */
+    @JsonIgnore
+    public abstract int getPosition();
+
     public boolean isEmpty() {
         return this instanceof EmptyBin;
     }
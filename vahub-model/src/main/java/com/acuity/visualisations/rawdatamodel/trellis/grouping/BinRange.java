@@ -0,0 +1,92 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.trellis.grouping;
+
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Contiguous range of bins from the first to the last one inclusive, as calculated for binned attributes including duration.<br>
+ * Bins are created only when the range is iterated, so the range can be counted by its edges without being expanded.<br>
+ * Like {@link com.acuity.visualisations.rawdatamodel.util.Attributes#getBinsBetween}, a range with an empty edge
+ * or with the last bin before the first one contains just the empty bin.
+ */
+@Getter
+public final class BinRange extends AbstractList<Bin> implements Serializable {
+
+    private final Bin first;
+    private final Bin last;
+
+    private BinRange(Bin first, Bin last) {
+        this.first = first;
+        this.last = last;
+    }
+
+    public static BinRange of(Bin first, Bin last) {
+        if (first.isEmpty() || last.isEmpty() || first.compareTo(last) > 0) {
+            return new BinRange(Bin.empty(), Bin.empty());
+        }
+        return new BinRange(first, last);
+    }
+
+    public boolean isEmptyRange() {
+        return first.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return isEmptyRange() ? 1 : last.getPosition() - first.getPosition() + 1;
+    }
+
+    @Override
+    public Bin get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+        }
+        Bin bin = first;
+        for (int i = 0; i < index; i++) {
+            bin = bin.getNextBin();
+        }
+        return bin;
+    }
+
+    @Override
+    public Iterator<Bin> iterator() {
+        return new Iterator<Bin>() {
+            private Bin next = first;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Bin next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Bin bin = next;
+                next = bin.isEmpty() || bin.compareTo(last) >= 0 ? null : bin.getNextBin();
+                return bin;
+            }
+        };
+    }
+}
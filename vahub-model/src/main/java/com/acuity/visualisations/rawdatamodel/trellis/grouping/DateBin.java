@@ -17,6 +17,7 @@
 package com.acuity.visualisations.rawdatamodel.trellis.grouping;
 
 import com.acuity.visualisations.rawdatamodel.util.DaysUtil;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NonNull;
@@ -31,8 +32,8 @@ public final class DateBin extends Bin<Date> {
 
     private DateBin(@NonNull Date start, @NonNull Date end) {
         this(
-                DaysUtil.daysBetween(DATE_ZERO, DaysUtil.truncLocalTime(start)).getAsInt(),
-                DaysUtil.daysBetween(DATE_ZERO, DaysUtil.truncLocalTime(end)).getAsInt());
+                DaysUtil.daysBetween(DATE_ZERO.getTime(), start.getTime()),
+                DaysUtil.daysBetween(DATE_ZERO.getTime(), end.getTime()));
     }
     private DateBin(@NonNull int start, @NonNull int end) {
         this.start = start;
@@ -48,13 +49,12 @@ public final class DateBin extends Bin<Date> {
         Validate.isTrue(binSize != 0, "Bin size must not be 0");
 
 
-        int valueDaysSince = DaysUtil.daysBetween(DATE_ZERO, date).orElse(0);
+        int valueDaysSince = date == null ? 0 : DaysUtil.daysBetween(DATE_ZERO.getTime(), date.getTime());
 
-        int binStartDaysSince = (int) (Math.floor(valueDaysSince * 1.0 / binSize) * binSize);
+        int binStartDaysSince = Math.floorDiv(valueDaysSince, binSize) * binSize;
         int binEndDaysSince = binStartDaysSince + binSize - 1;
 
-        return new DateBin(DaysUtil.addDays(DATE_ZERO, binStartDaysSince),
-                DaysUtil.addDays(DATE_ZERO, binEndDaysSince));
+        return new DateBin(binStartDaysSince, binEndDaysSince);
     }
 
     private int start;
@@ -90,5 +90,11 @@ public final class DateBin extends Bin<Date> {
     public int getSize() {
         return Long.valueOf(end - start + (long) 1).intValue();
     }
+
+    @Override
+    @JsonIgnore
+    public int getPosition() {
+        return Math.floorDiv(start, getSize());
+    }
 }
 
@@ -16,6 +16,8 @@
 
 package com.acuity.visualisations.rawdatamodel.trellis.grouping;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import static com.acuity.visualisations.rawdatamodel.util.Attributes.DEFAULT_EMPTY_VALUE;
 
 public final class EmptyBin extends Bin {
@@ -56,4 +58,10 @@ public final class EmptyBin extends Bin {
     public int getSize() {
         return 1;
     }
+
+    @Override
+    @JsonIgnore
+    public int getPosition() {
+        return NO_POSITION;
+    }
 }
@@ -70,4 +70,10 @@ public final class IntBin extends Bin<Integer> {
     public int getSize() {
         return getEnd() - getStart() + 1;
     }
+
+    @Override
+    @JsonIgnore
+    public int getPosition() {
+        return Math.floorDiv(start, getSize());
+    }
 }
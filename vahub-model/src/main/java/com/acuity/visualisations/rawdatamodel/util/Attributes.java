@@ -17,8 +17,8 @@
 package com.acuity.visualisations.rawdatamodel.util;
 
 import com.acuity.visualisations.common.util.ObjectConvertor;
-import com.acuity.visualisations.common.util.OptionalUtils;
 import com.acuity.visualisations.rawdatamodel.trellis.grouping.Bin;
+import com.acuity.visualisations.rawdatamodel.trellis.grouping.BinRange;
 import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartGroupByOptions;
 import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartGroupByOptions.ChartGroupBySetting;
 import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartGroupByOptions.GroupByOptionAndParams;
@@ -96,7 +96,7 @@ public final class Attributes {
                     ? getDateAttribute("START", params,  originStart)
                     : EntityAttribute.attribute("START", originStart), binSize);
             return params.getBool(GroupByOption.Param.BIN_INCL_DURATION)
-                    ? getBinsBetween(binStart, binEndExtractor.apply(e, binSize))
+                    ? BinRange.of(binStart, binEndExtractor.apply(e, binSize))
                     : binStart;
         };
     }
@@ -251,13 +251,16 @@ public final class Attributes {
     }
 
     private static Optional<? extends Number> calculatePeriodLength(GroupByOption.TimestampType.PeriodType periodType, Date dateFrom, Date dateTo) {
+        if (dateFrom == null || dateTo == null) {
+            return Optional.empty();
+        }
         switch (periodType) {
             case DAYS:
-                return OptionalUtils.intToOptional(DaysUtil.daysBetween(dateFrom, dateTo));
+                return Optional.of(DaysUtil.daysBetween(dateFrom.getTime(), dateTo.getTime()));
             case DAYS_HOURS:
-                return OptionalUtils.doubleToOptional(DaysUtil.dayHoursSinceDate(dateFrom, dateTo));
+                return Optional.of(DaysUtil.dayHoursSinceDate(dateFrom.getTime(), dateTo.getTime()));
             case WEEKS:
-                return OptionalUtils.intToOptional(DaysUtil.weeksBetween(dateFrom, dateTo));
+                return Optional.of(DaysUtil.weeksBetween(dateFrom.getTime(), dateTo.getTime()));
             default:
                 throw new CantGetDateAttributeException("Can't handle period type: " + periodType);
         }
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.util;
+
+import com.acuity.visualisations.rawdatamodel.vo.HasStartEndDate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Read only interval tree over the start and end dates of events.
+ * <p>
+ * Events are kept in an array sorted by start date, the array is seen as an implicit balanced binary search tree
+ * (the middle of any range is the root of its subtree) and every node stores the maximum end date of its subtree.
+ * A query visits only the subtrees that can hold matching events, so it costs O(log n) plus the matches
+ * instead of a scan over all the events.
+ * <p>
+ * Dates follow {@link DaysUtil#periodsOverlapped}: a missing start date means that start date is unknown and is taken
+ * as the earliest possible date, a missing end date means that period is not finished yet. Bounds are inclusive.
+ * Results are returned in start date order; events with equal start dates keep the order they were given in.
+ */
+public final class DateIntervalIndex<T> {
+
+    private final List<T> events;
+    private final Function<T, Date> startDate;
+    private final Function<T, Date> endDate;
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnds;
+
+    private DateIntervalIndex(List<T> sorted, Function<T, Date> startDate, Function<T, Date> endDate) {
+        this.events = sorted;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        int size = sorted.size();
+        starts = new long[size];
+        ends = new long[size];
+        maxEnds = new long[size];
+        for (int i = 0; i < size; i++) {
+            starts[i] = startOf(startDate.apply(sorted.get(i)));
+            ends[i] = endOf(endDate.apply(sorted.get(i)));
+        }
+        buildMaxEnds(0, size - 1);
+    }
+
+    public static <T extends HasStartEndDate> DateIntervalIndex<T> of(Collection<T> events) {
+        return of(events, HasStartEndDate::getStartDate, HasStartEndDate::getEndDate);
+    }
+
+    public static <T> DateIntervalIndex<T> of(Collection<T> events, Function<T, Date> startDate, Function<T, Date> endDate) {
+        List<T> sorted = new ArrayList<>(events);
+        // List.sort is stable, so events with the same start keep their order
+        sorted.sort((e1, e2) -> Long.compare(startOf(startDate.apply(e1)), startOf(startDate.apply(e2))));
+        return new DateIntervalIndex<>(sorted, startDate, endDate);
+    }
+
+    public int size() {
+        return events.size();
+    }
+
+    /**
+     * Events whose period overlaps the period from {@code from} to {@code to}.
+     *
+     * @param from can be NULL - means no lower bound
+     * @param to   can be NULL - means no upper bound
+     */
+    public List<T> overlapping(Date from, Date to) {
+        List<T> result = new ArrayList<>();
+        collectOverlapping(0, events.size() - 1, startOf(from), endOf(to), result);
+        return result;
+    }
+
+    /**
+     * Events which were ongoing at the given point in time
+     */
+    public List<T> containing(Date point) {
+        return overlapping(point, point);
+    }
+
+    /**
+     * Events whose period lies completely inside the period from {@code from} to {@code to}.
+     *
+     * @param from can be NULL - means no lower bound
+     * @param to   can be NULL - means no upper bound
+     */
+    public List<T> within(Date from, Date to) {
+        long lower = startOf(from);
+        long upper = endOf(to);
+        List<T> result = new ArrayList<>();
+        for (int i = firstStartingFrom(lower); i < starts.length && starts[i] <= upper; i++) {
+            if (ends[i] <= upper) {
+                result.add(events.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Events overlapping the given period as {@link DaysUtil#periodsOverlappedWithShift} defines it,
+     * i.e. events starting or finishing not more than {@code shift} days apart from the period are counted too.
+     *
+     * @param from can not be NULL
+     * @param to   can be NULL - means now finished yet
+     */
+    public List<T> overlappingWithShift(Date from, Date to, int shift) {
+        // widen the period by a day more than the shift to stay safe around daylight saving changes, then check exactly
+        long margin = (Math.max(shift, 0) + 2) * DaysUtil.MILLISECONDS_IN_DAY;
+        List<T> candidates = new ArrayList<>();
+        collectOverlapping(0, events.size() - 1, from == null ? Long.MIN_VALUE : from.getTime() - margin,
+                to == null ? Long.MAX_VALUE : to.getTime() + margin, candidates);
+        List<T> result = new ArrayList<>(candidates.size());
+        for (T candidate : candidates) {
+            if (DaysUtil.periodsOverlappedWithShift(from, to, startDate.apply(candidate), endDate.apply(candidate), shift)) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    private long buildMaxEnds(int lo, int hi) {
+        if (lo > hi) {
+            return Long.MIN_VALUE;
+        }
+        int mid = (lo + hi) >>> 1;
+        maxEnds[mid] = Math.max(ends[mid], Math.max(buildMaxEnds(lo, mid - 1), buildMaxEnds(mid + 1, hi)));
+        return maxEnds[mid];
+    }
+
+    private void collectOverlapping(int lo, int hi, long from, long to, List<T> result) {
+        if (lo > hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (maxEnds[mid] < from) {
+            return;
+        }
+        collectOverlapping(lo, mid - 1, from, to, result);
+        if (starts[mid] > to) {
+            return;
+        }
+        if (ends[mid] >= from) {
+            result.add(events.get(mid));
+        }
+        collectOverlapping(mid + 1, hi, from, to, result);
+    }
+
+    private int firstStartingFrom(long from) {
+        int lo = 0;
+        int hi = starts.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid] < from) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static long startOf(Date date) {
+        return date == null ? Long.MIN_VALUE : date.getTime();
+    }
+
+    private static long endOf(Date date) {
+        return date == null ? Long.MAX_VALUE : date.getTime();
+    }
+}
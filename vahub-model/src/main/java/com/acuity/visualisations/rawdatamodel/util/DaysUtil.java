@@ -16,7 +16,7 @@
 
 package com.acuity.visualisations.rawdatamodel.util;
 
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.Calendar;
@@ -35,7 +35,6 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.time.Instant;
 import java.util.TimeZone;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 /**
@@ -47,6 +46,7 @@ public final class DaysUtil {
 
     public static final long MILLISECONDS_IN_DAY = (long) 24 * 60 * 60 * 1000;
     public static final long MILLISECONDS_IN_HOUR = (long) 60 * 60 * 1000;
+    private static final int DAYS_IN_WEEK = 7;
     public static final String GMT_TIMEZONE = "GMT";
     public static final String JSON_TIMESTAMP_FORMAT = "yyyy-MM-dd'T'HH:mm:ss";
     public static final String YMD = "yyyy-MM-dd";
@@ -74,19 +74,44 @@ public final class DaysUtil {
         if (dateFrom == null || dateTo == null) { // hack need to handle null end dates
             return OptionalInt.empty();
         }
-        long timeFrom = truncLocalTime(dateFrom.getTime());
-        long timeTo = truncLocalTime(dateTo.getTime());
-        long durationMillis = timeTo - timeFrom;
-        long daysBetween = TimeUnit.MILLISECONDS.toDays(durationMillis);
-        return OptionalInt.of((int) daysBetween);
+        return OptionalInt.of(daysBetween(dateFrom.getTime(), dateTo.getTime()));
+    }
+
+    /**
+     * Returns days between two times, same as {@link #daysBetween(Date, Date)} without allocations
+     *
+     * @param timeFrom start time in millisec
+     * @param timeTo   end time in millisec
+     * @return number of days
+     */
+    public static int daysBetween(long timeFrom, long timeTo) {
+        return (int) (toEpochDay(timeTo) - toEpochDay(timeFrom));
+    }
+
+    /**
+     * Day of the time counted from Jan. 1, 1970, negative before it. Days start at {@link #truncLocalTime(long)},
+     * so the day of the time is the truncated time divided by a day
+     *
+     * @param time time in millisec
+     * @return epoch day
+     */
+    public static long toEpochDay(long time) {
+        return Math.floorDiv(time, MILLISECONDS_IN_DAY);
     }
 
     public static OptionalInt monthsBetween(Date dateFrom, Date dateTo) {
         if (dateFrom == null || dateTo == null) {
             return OptionalInt.empty();
         }
-        return OptionalInt.of((int) ChronoUnit.MONTHS.between(LocalDateTime.ofInstant(dateFrom.toInstant(), ZoneId.systemDefault()).toLocalDate(),
-                LocalDateTime.ofInstant(dateTo.toInstant(), ZoneId.systemDefault()).toLocalDate()));
+        ZoneId zone = ZoneId.systemDefault();
+        return OptionalInt.of((int) ChronoUnit.MONTHS.between(toLocalDate(dateFrom, zone), toLocalDate(dateTo, zone)));
+    }
+
+    // same as LocalDateTime.ofInstant(date.toInstant(), zone).toLocalDate() without the intermediate date time
+    private static LocalDate toLocalDate(Date date, ZoneId zone) {
+        long time = date.getTime();
+        long offset = zone.getRules().getOffset(Instant.ofEpochMilli(time)).getTotalSeconds() * 1000L;
+        return LocalDate.ofEpochDay(toEpochDay(time + offset));
     }
 
     /**
@@ -102,6 +127,13 @@ public final class DaysUtil {
         return fromTo(dateFrom, dateTo, timeFrom);
     }
 
+    /**
+     * Same as {@link #dayHoursSinceDate(Date, Date)} on times in millisec, without allocations
+     */
+    public static double dayHoursSinceDate(long timeFrom, long timeTo) {
+        return getDaysHours(timeFrom, timeTo, 0, getLocalTime(timeTo));
+    }
+
   private static long getLocalTime(long time) {
     return time % (MILLISECONDS_IN_DAY);
   }
@@ -116,13 +148,21 @@ public final class DaysUtil {
             return OptionalDouble.empty();
         }
         long timeTo = getLocalTime(dateTo.getTime());
-        return getDaysHours(dateFrom, dateTo, timeFrom, timeTo);
+        return OptionalDouble.of(getDaysHours(dateFrom.getTime(), dateTo.getTime(), timeFrom, timeTo));
     }
 
     public static OptionalInt weeksBetween(Date dateFrom, Date dateTo) {
-        final OptionalInt daysBetween = DaysUtil.daysBetween(dateFrom, dateTo);
-        return daysBetween.isPresent() ? OptionalInt.of((int) Math.floor(
-                daysBetween.getAsInt() / 7.0)) : OptionalInt.empty();
+        if (dateFrom == null || dateTo == null) {
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of(weeksBetween(dateFrom.getTime(), dateTo.getTime()));
+    }
+
+    /**
+     * Same as {@link #weeksBetween(Date, Date)} on times in millisec, without allocations
+     */
+    public static int weeksBetween(long timeFrom, long timeTo) {
+        return Math.floorDiv(daysBetween(timeFrom, timeTo), DAYS_IN_WEEK);
     }
 
     /**
@@ -353,13 +393,13 @@ public final class DaysUtil {
         }
     }
 
-  private static OptionalDouble getDaysHours(Date dateFrom, Date dateTo, long timeFrom, long timeTo) {
+  private static double getDaysHours(long dateFrom, long dateTo, long timeFrom, long timeTo) {
     long timeDurationMillis = timeTo - timeFrom;
-    int daysBetween = daysBetween(dateFrom, dateTo).orElse(0);
+    int daysBetween = daysBetween(dateFrom, dateTo);
     // need 5 decimal digits precision to handle time up to minutes correctly. It's faster than BigDecimal.
     // the code below is the same as Math.round(timeDurationMillis * 100000.0 / 86400000) / 100000.0
     // 86400000 is number of milliseconds in a day
-    return OptionalDouble.of(daysBetween + Math.round(timeDurationMillis / 864.) / 100000.0);
+    return daysBetween + Math.round(timeDurationMillis / 864.) / 100000.0;
   }
 
     // Extracted from ExacerbationsTimelineService
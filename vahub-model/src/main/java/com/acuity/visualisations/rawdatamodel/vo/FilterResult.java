@@ -23,6 +23,9 @@ import org.apache.commons.lang3.builder.ToStringStyle;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 import java.util.stream.Stream;
 
 @EqualsAndHashCode
@@ -55,6 +58,25 @@ public class FilterResult<T> {
         return this;
     }
 
+    /**
+     * Copy of this result with the events as unmodifiable views, for a result shared between callers.
+     * Results set to the copy don't change this result
+     */
+    public FilterResult<T> toUnmodifiable() {
+        FilterResult<T> copy = new FilterResult<>(filterQuery);
+        copy.allEvents = unmodifiable(allEvents);
+        copy.filteredEvents = unmodifiable(filteredEvents);
+        copy.populationFilterResult = populationFilterResult == null ? null : populationFilterResult.toUnmodifiable();
+        return copy;
+    }
+
+    private static <E> Collection<E> unmodifiable(Collection<E> events) {
+        if (events instanceof List) {
+            return Collections.unmodifiableList((List<E>) events);
+        }
+        return events instanceof Set ? Collections.unmodifiableSet((Set<E>) events) : Collections.unmodifiableCollection(events);
+    }
+
     public Collection<T> getFilteredResult() {
         return filteredEvents;
     }
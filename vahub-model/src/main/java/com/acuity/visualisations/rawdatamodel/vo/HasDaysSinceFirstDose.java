@@ -19,7 +19,6 @@ package com.acuity.visualisations.rawdatamodel.vo;
 import com.acuity.visualisations.rawdatamodel.util.DaysUtil;
 
 import java.util.Date;
-import java.util.OptionalInt;
 
 public interface HasDaysSinceFirstDose {
 
@@ -33,8 +32,10 @@ public interface HasDaysSinceFirstDose {
 
     default Integer getDaysSinceFirstDose() {
         if ((isCalcDaysSinceFirstDoseIfNull() != null && isCalcDaysSinceFirstDoseIfNull()) && getDaysSinceFirstDoseRaw() == null) {
-            OptionalInt res = DaysUtil.daysBetween(getFirstTreatmentDate(), getMeasurementTimePoint());
-            return res.isPresent() ? res.getAsInt() : null;
+            Date firstTreatmentDate = getFirstTreatmentDate();
+            Date measurementTimePoint = getMeasurementTimePoint();
+            return firstTreatmentDate == null || measurementTimePoint == null ? null
+                    : DaysUtil.daysBetween(firstTreatmentDate.getTime(), measurementTimePoint.getTime());
         } else {
             return getDaysSinceFirstDoseRaw();
         }
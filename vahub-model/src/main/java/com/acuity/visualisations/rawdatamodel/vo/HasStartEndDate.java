@@ -17,7 +17,6 @@
 package com.acuity.visualisations.rawdatamodel.vo;
 
 import java.util.Date;
-import java.util.OptionalInt;
 
 import static com.acuity.visualisations.rawdatamodel.util.DaysUtil.daysBetween;
 
@@ -53,8 +52,8 @@ public interface HasStartEndDate extends HasStartDate {
     default Integer getDuration() {
         if ((isCalcDurationIfNull() != null && isCalcDurationIfNull()) && getDurationRaw() == null) {
             if (isValid()) {
-                final OptionalInt duration = daysBetween(getStartDate(), getEndDate());
-                return duration.isPresent() ? duration.getAsInt() + 1 : null;
+                // valid events have both dates
+                return daysBetween(getStartDate().getTime(), getEndDate().getTime()) + 1;
             } else {
                 return null;
             }
@@ -24,11 +24,14 @@ import com.acuity.visualisations.rawdatamodel.vo.Subject;
 import com.acuity.visualisations.rawdatamodel.vo.wrappers.CvotEndpoint;
 import com.acuity.va.security.acl.domain.Dataset;
 import com.acuity.va.security.acl.domain.AcuityDataset;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -65,6 +68,9 @@ public class DataProviderTest extends DataProviderAwareTest {
     private ExecutorService executors = Executors.newFixedThreadPool(100);
     private Random rand = new Random();
 
+    @Autowired
+    private DataProvider dataProviderImpl;
+
     private static List<Subject> generatePatientList() {
         Subject subject = Subject.builder().clinicalStudyCode(String.valueOf(DUMMY_ACUITY_DATASET_42.getId()))
                 .subjectId("sid1").age(60).build();
@@ -136,6 +142,26 @@ public class DataProviderTest extends DataProviderAwareTest {
         executeMixedWithGetData(tasks, DUMMY_ACUITY_DATASET_42);
     }
 
+    @Test
+    public void shouldExposeCacheStatisticsAsMetrics() {
+        Dataset dataset = new AcuityDataset(4242L, "ds_4242");
+        dataProvider.clearCacheForDataset(dataset);
+        MeterRegistry registry = new SimpleMeterRegistry();
+        new DataProviderMetrics(dataProviderImpl).bindTo(registry);
+        double hits = registry.get("vahub.dataprovider.cache.hits").functionCounter().count();
+        double misses = registry.get("vahub.dataprovider.cache.misses").functionCounter().count();
+        double kryoLoads = registry.get("vahub.dataprovider.kryo.loads").functionCounter().count();
+
+        dataProvider.getData(Subject.class, dataset, ds -> SUBJECTS);
+        dataProvider.getData(Subject.class, dataset, ds -> SUBJECTS);
+
+        assertThat(registry.get("vahub.dataprovider.cache.misses").functionCounter().count()).isEqualTo(misses + 1);
+        assertThat(registry.get("vahub.dataprovider.cache.hits").functionCounter().count()).isEqualTo(hits + 1);
+        assertThat(registry.get("vahub.dataprovider.kryo.loads").functionCounter().count()).isEqualTo(kryoLoads + 1);
+        assertThat(registry.get("vahub.dataprovider.kryo.load.bytes").functionCounter().count()).isPositive();
+        assertThat(registry.get("vahub.dataprovider.cache.size").gauge().value()).isPositive();
+    }
+
     private void executeMixedWithGetData(List<Callable<Integer>> tasks, Dataset dataset) throws InterruptedException, ExecutionException {
         tasks.addAll(submitGetData(dataset));
         Collections.shuffle(tasks);
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.dataproviders.common;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PartitionedCollectionTest {
+
+    @Test
+    public void shouldIterateOverPartitionsInOrder() {
+        PartitionedCollection<String> collection = new PartitionedCollection<>(Arrays.<Collection<String>>asList(
+                Arrays.asList("a", "b"), Collections.emptyList(), Collections.singletonList("c"), Collections.emptyList()));
+
+        assertThat(collection).hasSize(3);
+        assertThat(collection).containsExactly("a", "b", "c");
+        assertThat(collection.getPartitions()).hasSize(4);
+    }
+
+    @Test
+    public void shouldBeEmptyWithoutPartitions() {
+        PartitionedCollection<String> collection = new PartitionedCollection<>(Collections.emptyList());
+
+        assertThat(collection).isEmpty();
+        assertThat(collection.iterator().hasNext()).isFalse();
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.dataproviders.common;
+
+import com.acuity.visualisations.rawdatamodel.dataproviders.PopulationDatasetsDataProvider;
+import com.acuity.visualisations.rawdatamodel.vo.LungFunctionRaw;
+import com.acuity.visualisations.rawdatamodel.vo.Subject;
+import com.acuity.visualisations.rawdatamodel.vo.wrappers.LungFunction;
+import com.acuity.va.security.acl.domain.Dataset;
+import com.acuity.va.security.acl.domain.Datasets;
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.acuity.visualisations.config.util.TestConstants.DUMMY_ACUITY_DATASETS;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SubjectAwareDatasetsDataProviderTest {
+
+    private static final int SUBJECTS = 200;
+    private static final int EVENTS_PER_SUBJECT = 50;
+
+    @InjectMocks
+    private TestDataProvider dataProvider;
+
+    @Mock
+    private PopulationDatasetsDataProvider populationDatasetsDataProvider;
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    @Before
+    public void setUp() {
+        List<Subject> subjects = IntStream.range(0, SUBJECTS)
+                .mapToObj(i -> Subject.builder().subjectId("sid" + i).subjectCode("E" + i).build())
+                .collect(Collectors.toList());
+        when(populationDatasetsDataProvider.loadData(any(Datasets.class))).thenReturn(subjects);
+        dataProvider.events = new ScanCountingCollection<>(IntStream.range(0, SUBJECTS * EVENTS_PER_SUBJECT)
+                .mapToObj(i -> LungFunctionRaw.builder().id("lf" + i).subjectId("sid" + i % SUBJECTS).build())
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void shouldLoadSameEventsAsFilteringAllEvents() {
+        for (String subject : new String[]{"sid7", "E7", "sid199", "unknown"}) {
+            List<String> expected = dataProvider.loadData(DUMMY_ACUITY_DATASETS).stream()
+                    .filter(e -> subject.equals(e.getSubjectId()) || subject.equals(e.getSubjectCode()))
+                    .map(LungFunction::getId)
+                    .sorted()
+                    .collect(Collectors.toList());
+
+            List<String> actual = dataProvider.loadSubjectData(DUMMY_ACUITY_DATASETS, subject).stream()
+                    .map(LungFunction::getId)
+                    .sorted()
+                    .collect(Collectors.toList());
+
+            softly.assertThat(actual).as(subject).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void shouldScanDatasetEventsOnceForAllSubjects() {
+        int loaded = 0;
+        for (int i = 0; i < SUBJECTS; i++) {
+            loaded += dataProvider.loadSubjectData(DUMMY_ACUITY_DATASETS, "E" + i).size();
+        }
+
+        softly.assertThat(loaded).isEqualTo(SUBJECTS * EVENTS_PER_SUBJECT);
+        // filtering all events would scan the whole dataset for every subject
+        softly.assertThat(dataProvider.events.scans).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldReuseProjectionWhileDatasetsDataIsTheSame() {
+        AtomicInteger projections = new AtomicInteger();
+        Function<Collection<LungFunction>, List<LungFunction>> firstEventPerSubject = events -> {
+            projections.incrementAndGet();
+            return events.stream()
+                    .filter(e -> Integer.parseInt(e.getId().substring(2)) < SUBJECTS)
+                    .collect(Collectors.toList());
+        };
+
+        Collection<LungFunction> projected = dataProvider.loadProjection(DUMMY_ACUITY_DATASETS, "first", firstEventPerSubject);
+        Collection<LungFunction> reused = dataProvider.loadProjection(DUMMY_ACUITY_DATASETS, "first", firstEventPerSubject);
+
+        softly.assertThat(projected).hasSize(SUBJECTS);
+        softly.assertThat(reused).isSameAs(projected);
+        softly.assertThat(projections.get()).isEqualTo(1);
+
+        dataProvider.loadProjection(DUMMY_ACUITY_DATASETS, "other", firstEventPerSubject);
+        softly.assertThat(projections.get()).isEqualTo(2);
+
+        dataProvider.events = new ScanCountingCollection<>(new ArrayList<>(dataProvider.events.elements));
+        Collection<LungFunction> refreshed = dataProvider.loadProjection(DUMMY_ACUITY_DATASETS, "first", firstEventPerSubject);
+
+        softly.assertThat(refreshed).isNotSameAs(projected).hasSize(SUBJECTS);
+        softly.assertThat(projections.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void shouldFilterEventsOfDataBuiltOnEveryCall() {
+        dataProvider.dataInstanceReused = false;
+        AtomicInteger projections = new AtomicInteger();
+        Function<Collection<LungFunction>, List<LungFunction>> allEvents = events -> {
+            projections.incrementAndGet();
+            return new ArrayList<>(events);
+        };
+
+        List<String> actual = dataProvider.loadSubjectData(DUMMY_ACUITY_DATASETS, "E7").stream()
+                .map(LungFunction::getSubjectId)
+                .distinct()
+                .collect(Collectors.toList());
+        dataProvider.loadProjection(DUMMY_ACUITY_DATASETS, "all", allEvents);
+        dataProvider.loadProjection(DUMMY_ACUITY_DATASETS, "all", allEvents);
+
+        softly.assertThat(actual).containsExactly("sid7");
+        softly.assertThat(projections.get()).isEqualTo(2);
+    }
+
+    private static final class TestDataProvider extends SubjectAwareDatasetsDataProvider<LungFunctionRaw, LungFunction> {
+        private ScanCountingCollection<LungFunctionRaw> events;
+        private boolean dataInstanceReused = true;
+
+        @Override
+        protected Collection<LungFunctionRaw> getData(Dataset dataset) {
+            return dataInstanceReused ? events : new ArrayList<>(events.elements);
+        }
+
+        @Override
+        protected boolean isDataInstanceReused() {
+            return dataInstanceReused;
+        }
+
+        @Override
+        protected Class<LungFunctionRaw> rawDataClass() {
+            return LungFunctionRaw.class;
+        }
+
+        @Override
+        protected LungFunction getWrapperInstance(LungFunctionRaw event, Subject subject) {
+            return new LungFunction(event, subject);
+        }
+    }
+
+    private static final class ScanCountingCollection<E> extends AbstractCollection<E> {
+        private final List<E> elements;
+        private int scans;
+
+        private ScanCountingCollection(List<E> elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            scans++;
+            return elements.iterator();
+        }
+
+        @Override
+        public int size() {
+            return elements.size();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.dataproviders.common.kryo;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DictionaryStringSerializerTest {
+
+    private final Kryo kryo = createKryo();
+
+    @Test
+    public void shouldReadWrittenStrings() {
+        List<String> strings = Arrays.asList("mmol/L", null, "", "mmol/L", "Placebo", null, "Placebo");
+
+        List<String> result = writeAndRead(new ArrayList<>(strings));
+
+        assertThat(result).containsExactlyElementsOf(strings);
+    }
+
+    @Test
+    public void shouldShareInstancesOfEqualStrings() {
+        List<String> strings = new ArrayList<>();
+        strings.add(new String("Nausea"));
+        strings.add(new String("Nausea"));
+
+        List<String> result = writeAndRead(strings);
+        List<String> anotherResult = writeAndRead(strings);
+
+        assertThat(result.get(0)).isSameAs(result.get(1));
+        assertThat(result.get(0)).isSameAs(anotherResult.get(0));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> writeAndRead(List<String> strings) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Output output = new Output(bytes)) {
+            kryo.writeClassAndObject(output, strings);
+        }
+        try (Input input = new Input(bytes.toByteArray())) {
+            return (List<String>) kryo.readClassAndObject(input);
+        }
+    }
+
+    private static Kryo createKryo() {
+        Kryo kryo = new Kryo();
+        kryo.setReferences(true);
+        kryo.register(String.class, new DictionaryStringSerializer());
+        return kryo;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.service;
+
+import com.acuity.visualisations.rawdatamodel.filters.PopulationFilters;
+import com.acuity.visualisations.rawdatamodel.vo.FilterQuery;
+import com.acuity.visualisations.rawdatamodel.vo.FilterResult;
+import com.acuity.visualisations.rawdatamodel.vo.Subject;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FilterResultRequestCacheTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void shouldMemoizeResultWithinRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        long hits = FilterResultRequestCache.getHits();
+
+        FilterResult<Subject> first = FilterResultRequestCache.get("key", String::new, this::query);
+        FilterResult<Subject> second = FilterResultRequestCache.get("key", String::new, this::query);
+        FilterResultRequestCache.get("anotherKey", String::new, this::query);
+
+        assertThat(second.getFilteredResult()).containsExactlyElementsOf(first.getFilteredResult());
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(FilterResultRequestCache.getHits()).isEqualTo(hits + 1);
+    }
+
+    @Test
+    public void shouldNotLetCallersChangeMemoizedResult() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        Subject subject = Subject.builder().subjectId("id1").build();
+
+        FilterResult<Subject> first = FilterResultRequestCache.get("key", String::new, this::query);
+        first.withResults(Collections.emptyList(), Collections.emptyList());
+        FilterResult<Subject> second = FilterResultRequestCache.get("key", String::new, this::query);
+
+        assertThat(second.getFilteredResult()).containsExactly(subject);
+        assertThatThrownBy(() -> second.getFilteredResult().clear()).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldKeepCopyOfKey() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        List<String> key = new ArrayList<>(Collections.singletonList("filter"));
+
+        FilterResultRequestCache.get(key, ArrayList::new, this::query);
+        key.add("changed");
+        FilterResultRequestCache.get(key, ArrayList::new, this::query);
+        FilterResultRequestCache.get(Collections.singletonList("filter"), ArrayList::new, this::query);
+
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldExposeHitsAndMissesAsMetrics() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        MeterRegistry registry = new SimpleMeterRegistry();
+        new FilterResultRequestCacheMetrics().bindTo(registry);
+        double hits = registry.find("vahub.filterresult.requestcache.hits").functionCounter().count();
+        double misses = registry.find("vahub.filterresult.requestcache.misses").functionCounter().count();
+
+        FilterResultRequestCache.get("key", String::new, this::query);
+        FilterResultRequestCache.get("key", String::new, this::query);
+
+        assertThat(registry.find("vahub.filterresult.requestcache.hits").functionCounter().count()).isEqualTo(hits + 1);
+        assertThat(registry.find("vahub.filterresult.requestcache.misses").functionCounter().count()).isEqualTo(misses + 1);
+        assertThat(registry.find("vahub.filterresult.requestcache.hit.rate").gauge().value())
+                .isEqualTo(FilterResultRequestCache.getHitRate());
+    }
+
+    @Test
+    public void shouldNotShareResultsBetweenRequests() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        FilterResultRequestCache.get("key", String::new, this::query);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        FilterResultRequestCache.get("key", String::new, this::query);
+
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldNotMemoizeOutsideOfRequest() {
+        FilterResultRequestCache.get("key", String::new, this::query);
+        FilterResultRequestCache.get("key", String::new, this::query);
+
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    private FilterResult<Subject> query() {
+        calls.incrementAndGet();
+        List<Subject> subjects = new ArrayList<>(Collections.singletonList(Subject.builder().subjectId("id1").build()));
+        return new FilterResult<>(new FilterQuery<>(subjects, PopulationFilters.empty())).withResults(subjects, subjects);
+    }
+}
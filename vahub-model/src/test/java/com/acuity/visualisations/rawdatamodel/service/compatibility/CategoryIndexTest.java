@@ -0,0 +1,98 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.service.compatibility;
+
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CategoryIndexTest {
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    @Test
+    public void shouldFindPositionsLikeListIndexOf() {
+        // Given
+        final List<String> categories = Arrays.asList("b", "a", "c", "a", null);
+
+        // When
+        final CategoryIndex<String> index = CategoryIndex.of(categories);
+
+        // Then
+        for (String category : Arrays.asList("a", "b", "c", null, "d")) {
+            softly.assertThat(index.indexOf(category)).as(String.valueOf(category)).isEqualTo(categories.indexOf(category));
+        }
+        softly.assertThat(index.getCategories()).isSameAs(categories);
+    }
+
+    @Test
+    public void shouldLookUpCategoriesInLinearTime() {
+        // Given
+        final int size = 5000;
+        final AtomicLong comparisons = new AtomicLong();
+        final List<CountingCategory> categories = IntStream.range(0, size)
+                .mapToObj(i -> new CountingCategory(i, comparisons))
+                .collect(Collectors.toList());
+        // equal but not the same instances, so every lookup goes through equals
+        final List<CountingCategory> lookups = IntStream.range(0, size)
+                .mapToObj(i -> new CountingCategory(i, comparisons))
+                .collect(Collectors.toCollection(ArrayList::new));
+        Collections.shuffle(lookups);
+
+        // When
+        final CategoryIndex<CountingCategory> index = CategoryIndex.of(categories);
+        comparisons.set(0);
+        final List<Integer> positions = lookups.stream().map(index::indexOf).collect(Collectors.toList());
+
+        // Then
+        softly.assertThat(positions).isEqualTo(lookups.stream().map(c -> c.value).collect(Collectors.toList()));
+        // List.indexOf would need about size * size / 2 comparisons here
+        softly.assertThat(comparisons.get()).isLessThanOrEqualTo(2L * size);
+    }
+
+    private static final class CountingCategory {
+        private final int value;
+        private final AtomicLong comparisons;
+
+        private CountingCategory(int value, AtomicLong comparisons) {
+            this.value = value;
+            this.comparisons = comparisons;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            comparisons.incrementAndGet();
+            return o instanceof CountingCategory && ((CountingCategory) o).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value;
+        }
+    }
+}
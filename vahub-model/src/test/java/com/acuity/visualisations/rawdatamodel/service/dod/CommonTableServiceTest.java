@@ -27,9 +27,12 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * See also {@link DoDCommonServiceTest}
@@ -104,4 +107,64 @@ public class CommonTableServiceTest {
 
         assertThat(classColumnMetadata.get(REASON_NO_SINUS_RHYTHM).getColumnName()).isEqualTo(REASON_NO_SINUS_RHYTHM);
     }
+
+    @Test
+    public void shouldReadWrapperAndWrappedEventColumns() {
+        LungFunction lungFunctionEvent = new LungFunction(LungFunctionRaw.builder()
+                .id("lf-1").unit("L").baselineFlag("Y").protocolScheduleTimepoint("Week 1").build(),
+                Subject.builder().subjectId("sid-1").build());
+
+        List<Map<String, String>> rows = service.getColumnData(Column.DatasetType.ACUITY, Collections.singletonList(lungFunctionEvent),
+                Collections.emptyList(), 0, Long.MAX_VALUE, false, Column.Type.DOD);
+
+        assertThat(rows).hasSize(1);
+        softly.assertThat(rows.get(0))
+                .containsEntry("resultUnit", "L")
+                .containsEntry("baselineFlag", "Y")
+                .containsEntry("protocolScheduleTimepoint", "Week 1")
+                .doesNotContainKey("eventId");
+    }
+
+    @Test
+    public void shouldReadColumnsOfPublicAndNonPublicClasses() throws NoSuchMethodException {
+        Function<Object, Object> publicReader = ColumnAccessors.of(LungFunctionRaw.class.getMethod("getUnit"));
+        Function<Object, Object> nonPublicReader = ColumnAccessors.of(HiddenEvent.class.getDeclaredMethod("getValue"));
+
+        softly.assertThat(publicReader.apply(LungFunctionRaw.builder().unit("L").build())).isEqualTo("L");
+        softly.assertThat(nonPublicReader.apply(new HiddenEvent())).isEqualTo(42);
+    }
+
+    @Test
+    public void shouldPropagateExceptionsOfColumnReaders() throws NoSuchMethodException {
+        Function<Object, Object> publicReader = ColumnAccessors.of(FailingEvent.class.getMethod("getValue"));
+        Function<Object, Object> nonPublicReader = ColumnAccessors.of(HiddenEvent.class.getDeclaredMethod("getFailure"));
+
+        assertThatThrownBy(() -> publicReader.apply(new FailingEvent())).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> nonPublicReader.apply(new HiddenEvent())).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void shouldReadNullForColumnWithFailingGetter() throws NoSuchMethodException {
+        CommonTableService.ColumnReader reader = new CommonTableService.ColumnReader(CommonTableService.ColumnMetadata.builder()
+                .reader(ColumnAccessors.of(FailingEvent.class.getMethod("getValue")))
+                .build(), false);
+
+        assertThat(reader.read(new FailingEvent())).isNull();
+    }
+
+    public static final class FailingEvent {
+        public Object getValue() {
+            throw new IllegalStateException("no value");
+        }
+    }
+
+    private static final class HiddenEvent {
+        private int getValue() {
+            return 42;
+        }
+
+        private Object getFailure() {
+            throw new IllegalStateException("no value");
+        }
+    }
 }
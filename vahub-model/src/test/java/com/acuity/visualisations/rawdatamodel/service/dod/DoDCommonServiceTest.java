@@ -35,13 +35,17 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.util.StopWatch;
 
+import java.io.StringWriter;
 import java.math.BigDecimal;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static com.acuity.visualisations.rawdatamodel.util.Column.DatasetType;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -114,6 +118,25 @@ public class DoDCommonServiceTest {
         softly.assertThat(doDData.get(1).get("finalDiagnosis")).isEqualTo("finalDiagnosis1");
     }
 
+    @Test
+    public void shouldGetDoDPagesInSortedOrder() {
+        final List<CIEvent> ciEvents = CIEventGenerator.generateCIEventListOfSevenWithEcgAtTheEventTimeAndFinalDiagnosis();
+        final List<SortAttrs> sortAttrs = Arrays.asList(new SortAttrs("subjectId", false), new SortAttrs("finalDiagnosis", true));
+
+        final List<Map<String, String>> expected = doDCommonService.getColumnData(DatasetType.ACUITY, new ArrayList<>(ciEvents),
+                sortAttrs, 0, Integer.MAX_VALUE, true);
+        final List<Map<String, String>> firstPage = doDCommonService.getColumnData(DatasetType.ACUITY, ciEvents, 1,
+                sortAttrs, 0, 3, true);
+        final List<Map<String, String>> secondPage = doDCommonService.getColumnData(DatasetType.ACUITY, ciEvents, 1,
+                sortAttrs, 3, 3, true);
+        final List<Map<String, String>> lastPage = doDCommonService.getColumnData(DatasetType.ACUITY, ciEvents, 1,
+                sortAttrs, 6, 3, true);
+
+        softly.assertThat(firstPage).containsExactlyElementsOf(expected.subList(0, 3));
+        softly.assertThat(secondPage).containsExactlyElementsOf(expected.subList(3, 6));
+        softly.assertThat(lastPage).containsExactlyElementsOf(expected.subList(6, 7));
+    }
+
     @Test
     public void shouldGetCIEventDoDColumns() {
         final List<CIEvent> ciEvents = CIEventGenerator.generateCIEventListOfSevenWithEcgAtTheEventTimeAndFinalDiagnosis();
@@ -210,6 +233,35 @@ public class DoDCommonServiceTest {
         softly.assertThat(Comparators.isInOrder(resultValues, BigDecimal::compareTo)).isTrue();
     }
 
+    @Test
+    public void shouldStreamCsvSameAsColumnData() {
+        final List<CIEvent> ciEvents = CIEventGenerator.generateCIEventListOfSevenWithEcgAtTheEventTimeAndFinalDiagnosis();
+        final Map<String, String> doDColumns = doDCommonService.getDoDColumns(DatasetType.ACUITY, ciEvents);
+
+        StringWriter expected = new StringWriter();
+        doDCommonService.writeCsv(doDCommonService.getColumnData(DatasetType.ACUITY, ciEvents), doDColumns, expected);
+        StringWriter streamed = new StringWriter();
+        doDCommonService.writeCsv(DatasetType.ACUITY, ciEvents, doDColumns, streamed);
+
+        softly.assertThat(streamed.toString()).isNotEmpty();
+        softly.assertThat(streamed.toString()).isEqualTo(expected.toString());
+    }
+
+    @Test
+    public void shouldGetSortedOrderWithoutReorderingItems() {
+        final List<CIEvent> ciEvents = CIEventGenerator.generateCIEventListOfSevenWithEcgAtTheEventTimeAndFinalDiagnosis();
+        final List<CIEvent> original = new ArrayList<>(ciEvents);
+
+        final int[] order = doDCommonService.getSortedOrder(ciEvents, Collections.singletonList(new SortAttrs("studyId", true)),
+                DatasetType.ACUITY, doDCommonService.getType());
+
+        softly.assertThat(ciEvents).containsExactlyElementsOf(original);
+        softly.assertThat(order).hasSize(ciEvents.size());
+        softly.assertThat(ciEvents.get(order[0]).getSubject().getClinicalStudyCode()).isEqualTo("studyId7");
+        softly.assertThat(IntStream.of(order).mapToObj(i -> ciEvents.get(i).getSubject().getClinicalStudyCode())
+                .collect(Collectors.toList())).isSortedAccordingTo(Comparator.reverseOrder());
+    }
+
     @SneakyThrows
     private BigDecimal parseToBigDecimal(String m) {
         Number value = decimalFormat.parse(m);
@@ -32,15 +32,18 @@ import com.acuity.visualisations.rawdatamodel.trellis.grouping.ExposureGroupByOp
 import com.acuity.visualisations.rawdatamodel.util.Constants;
 import com.acuity.visualisations.rawdatamodel.util.DaysUtil;
 import com.acuity.visualisations.rawdatamodel.vo.ExposureRaw;
+import com.acuity.visualisations.rawdatamodel.vo.FilterResult;
 import com.acuity.visualisations.rawdatamodel.vo.Subject;
 import com.acuity.visualisations.rawdatamodel.vo.compatibility.linechart.OutputErrorLineChartEntry;
 import com.acuity.visualisations.rawdatamodel.vo.compatibility.linechart.OutputLineChartData;
 import com.acuity.visualisations.rawdatamodel.vo.compatibility.linechart.OutputLineChartEntry;
 import com.acuity.visualisations.rawdatamodel.vo.compatibility.linechart.TrellisedLineFloatChart;
 import com.acuity.visualisations.rawdatamodel.vo.exposure.Cycle;
+import com.acuity.visualisations.rawdatamodel.vo.exposure.ExposureData;
 import com.acuity.visualisations.rawdatamodel.vo.exposure.ExposureTooltip;
 import com.acuity.visualisations.rawdatamodel.vo.wrappers.Exposure;
 import com.acuity.va.security.acl.domain.Datasets;
+import com.axibase.math.stat.descriptive.DescriptiveStatistics;
 import org.assertj.core.api.JUnitSoftAssertions;
 import org.junit.Before;
 import org.junit.Rule;
@@ -51,11 +54,13 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.math.BigDecimal;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 
 import static com.acuity.visualisations.config.util.TestConstants.DUMMY_ACUITY_DATASETS;
@@ -203,6 +208,7 @@ public class ExposureServiceTest {
         List<Exposure> events = newArrayList(exposure1, exposure2, exposure3, exposure4, exposure5,
                 exposure6, exposure7, exposure8, exposure9, exposureNullVisit);
         when(exposureDatasetsDataProvider.loadData(any(Datasets.class))).thenReturn(events);
+        when(exposureDatasetsDataProvider.loadMultiPointSeriesEventIds(any(Datasets.class), any())).thenCallRealMethod();
         when(populationDatasetsDataProvider.loadData(any(Datasets.class)))
                 .thenReturn(newArrayList(subject1, subject2));
         //Given
@@ -922,6 +928,73 @@ public class ExposureServiceTest {
                 .flatExtracting("trellisOptions").containsOnly(ANALYTE_1, ANALYTE_2);
     }
 
+    @Test
+    public void shouldAggregatePointAsBigDecimalStatistics() {
+        Random random = new Random(42);
+        for (int sample = 0; sample < 20000; sample++) {
+            int points = 1 + random.nextInt(sample < 10000 ? 5 : 200);
+            double[] yValues = new double[points];
+            for (int i = 0; i < points; i++) {
+                yValues[i] = Math.round(random.nextDouble() * (sample % 2 == 0 ? 5_000 : 1_000_000)) / 1000.;
+            }
+            assertRoundedAsBigDecimalStatistics(yValues);
+        }
+    }
+
+    @Test
+    public void shouldRoundMeanOfPointHalfUpFromExactValue() {
+        softly.assertThat(aggregatedPoint(1.52, 2.749, 1.626).getRoundedMean()).isEqualTo(1.97);
+        softly.assertThat(aggregatedPoint(0.1, 0.2, 0.045).getRoundedMean()).isEqualTo(0.12);
+        softly.assertThat(aggregatedPoint(1.0, 1.25).getRoundedPopulationStandardDeviation()).isEqualTo(0.13);
+        softly.assertThat(aggregatedPoint(2.5, 2.5, 2.5).getRoundedPopulationStandardDeviation()).isEqualTo(0.0);
+        assertRoundedAsBigDecimalStatistics(1.52, 2.749, 1.626);
+        assertRoundedAsBigDecimalStatistics(1.0, 1.25);
+    }
+
+    private void assertRoundedAsBigDecimalStatistics(double... yValues) {
+        ExposureService.AggregatedPoint point = aggregatedPoint(yValues);
+        DescriptiveStatistics stats = new DescriptiveStatistics(Arrays.stream(yValues)
+                .mapToObj(y -> new BigDecimal(Double.toString(y))).toArray(BigDecimal[]::new));
+
+        softly.assertThat(point.getCount()).isEqualTo(yValues.length);
+        softly.assertThat(point.getRoundedMean()).as("mean of %s", Arrays.toString(yValues))
+                .isEqualTo(stats.getMean().setScale(2, BigDecimal.ROUND_HALF_UP).doubleValue());
+        softly.assertThat(point.getRoundedPopulationStandardDeviation()).as("deviation of %s", Arrays.toString(yValues))
+                .isEqualTo(stats.getPopulationStandardDeviation().setScale(2, BigDecimal.ROUND_HALF_UP).doubleValue());
+    }
+
+    private static ExposureService.AggregatedPoint aggregatedPoint(double... yValues) {
+        ExposureService.AggregatedPoint point = new ExposureService.AggregatedPoint();
+        for (int i = 0; i < yValues.length; i++) {
+            point.accept(yValues[i], ExposureData.builder().treatmentCycle("cycle" + i % 3).analyte("analyte" + i % 2).build());
+        }
+        return point;
+    }
+
+    @Test
+    public void shouldCollectDistinctSortedLabelsOfPoint() {
+        ExposureService.AggregatedPoint point = new ExposureService.AggregatedPoint();
+        point.accept(1, ExposureData.builder().treatmentCycle(CYCLE_2).analyte(ANALYTE_2).build());
+        point.accept(2, ExposureData.builder().treatmentCycle(CYCLE_1).analyte(ANALYTE_2).build());
+        point.accept(3, ExposureData.builder().treatmentCycle(CYCLE_2).analyte(ANALYTE_1).build());
+
+        softly.assertThat(point.getCycles()).isEqualTo(CYCLE_1 + ", " + CYCLE_2);
+        softly.assertThat(point.getAnalytes()).isEqualTo(ANALYTE_1 + ", " + ANALYTE_2);
+        softly.assertThat(point.getRoundedMean()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldFilterOnlyEventsOfMultiPointSeries() {
+        ChartGroupByOptions<Exposure, ExposureGroupByOptions> settings = getExposureSettings(ANALYTE, NONE);
+        when(exposureDatasetsDataProvider.loadMultiPointSeriesEventIds(DATASETS, settings.getTrellisOptions()))
+                .thenReturn(newHashSet(exposure1.getId(), exposure2.getId()));
+
+        FilterResult<Exposure> result = exposureService.getFilteredDataNoSingleCycleSeries(DATASETS, ExposureFilters.empty(),
+                PopulationFilters.empty(), settings);
+
+        softly.assertThat(result.getFilteredResult()).containsExactlyInAnyOrder(exposure1, exposure2);
+    }
+
     private ChartGroupByOptions<Exposure, ExposureGroupByOptions> getExposureSettings(
             ExposureGroupByOptions seriesBy, ExposureGroupByOptions colorBy) {
         return ChartGroupByOptions.<Exposure, ExposureGroupByOptions>builder()
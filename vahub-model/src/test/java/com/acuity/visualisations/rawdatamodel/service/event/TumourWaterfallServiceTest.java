@@ -51,8 +51,10 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
+import java.util.function.Function;
 
 import static com.acuity.visualisations.config.util.TestConstants.DUMMY_2_ACUITY_DATASETS;
 import static com.acuity.visualisations.rawdatamodel.service.event.TumourWaterfallService.WITH_BEST_RESPONSE_EVENTS;
@@ -86,6 +88,9 @@ public class TumourWaterfallServiceTest {
         MockitoAnnotations.initMocks(this);
         when(tumourDatasetsDataProvider.loadData(any(Datasets.class))).thenReturn(tumours);
         when(populationDatasetsDataProvider.loadData(any(Datasets.class))).thenReturn(population);
+        when(tumourDatasetsDataProvider.loadProjection(any(Datasets.class), any(), any()))
+                .thenAnswer(invocation -> ((Function<Collection<AssessedTargetLesion>, Collection<AssessedTargetLesion>>)
+                        invocation.getArguments()[2]).apply(tumours));
     }
 
     private List<AssessedTargetLesion> tumours = AssessedTargetLesionGenerator.generateTumours();
@@ -52,6 +52,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -751,6 +752,91 @@ public class BarChartServiceTest {
                 );
     }
 
+    @Test
+    public void shouldCountDurationBinRangesSameAsExpandedBins() {
+        //Given
+        final Subject subject1 = Subject.builder().subjectId("id1").subjectCode("E01").firstTreatmentDate(DateUtils.toDate("01.01.2016")).build();
+        final Subject subject2 = Subject.builder().subjectId("id2").subjectCode("E02").firstTreatmentDate(DateUtils.toDate("06.01.2016")).build();
+        final List<Entity> events = Arrays.asList(
+                new Entity("1", DateUtils.toDate("01.01.2016"), DateUtils.toDate("02.01.2016"), Arrays.asList("v1", "v2"), "prop1", subject1),
+                new Entity("2", DateUtils.toDate("01.01.2016"), DateUtils.toDate("09.01.2016"), Arrays.asList("v1", "v2", "v3"), "prop2", subject1),
+                new Entity("3", DateUtils.toDate("31.12.2015"), DateUtils.toDate("02.01.2016"), Arrays.asList("v3", "v4"), "prop3", subject1),
+                new Entity("4", DateUtils.toDate("05.01.2016"), DateUtils.toDate("20.01.2016"), Arrays.asList("v1", "v2"), "prop3", subject2),
+                new Entity("5", DateUtils.toDate("15.01.2016"), DateUtils.toDate("15.01.2016"), Arrays.asList("v2", "v3"), "prop3", subject2),
+                new Entity("6", DateUtils.toDate("15.01.2016"), null, Arrays.asList("v2"), "prop3", subject2)
+        );
+        final List<Subject> subjects = Arrays.asList(subject1, subject2);
+
+        BarChartService<Entity, SomeGroupByOptions> barChartService = new BarChartService<>();
+
+        final FilterResult<Entity> filtered = new FilterResult<>(new FilterQuery<Entity>(subjects, PopulationFilters.empty())).withResults(events, events)
+                .withPopulationFilteredResults(new FilterResult<>(new FilterQuery<Subject>(subjects, PopulationFilters.empty()))
+                        .withResults(subjects, subjects));
+        final ChartGroupByOptions<Entity, SomeGroupByOptions> settings = ChartGroupByOptions.<Entity, SomeGroupByOptions>builder()
+                .withOption(COLOR_BY, SomeGroupByOptions.CATEGORY.getGroupByOptionAndParams())
+                .withOption(X_AXIS, SomeGroupByOptions.DURATION.getGroupByOptionAndParams(
+                        GroupByOption.Params.builder()
+                                .with(GroupByOption.Param.BIN_SIZE, 3)
+                                .with(GroupByOption.Param.BIN_INCL_DURATION, true)
+                                .with(GroupByOption.Param.TIMESTAMP_TYPE, GroupByOption.TimestampType.DAYS_SINCE_FIRST_DOSE)
+                                .build()))
+                .build();
+
+        for (CountType countType : Arrays.asList(CountType.COUNT_OF_EVENTS, CountType.COUNT_OF_SUBJECTS)) {
+            //When
+            Map<GroupByKey<Entity, SomeGroupByOptions>, BarChartCalculationObject<Entity>> expanded = barChartService.getBarChart(
+                    settings, countType, filtered);
+            Map<GroupByKey<Entity, SomeGroupByOptions>, BarChartCalculationObject<Entity>> counted = barChartService.getOverTimeBarChart(
+                    settings, countType, filtered);
+
+            //Then
+            softly.assertThat(counted.keySet()).isEqualTo(expanded.keySet());
+            expanded.forEach((key, bar) -> {
+                softly.assertThat(counted.get(key).getValue()).as("%s %s", countType, key).isEqualTo(bar.getValue());
+                softly.assertThat(counted.get(key).getEvents()).as("%s %s", countType, key).isEqualTo(bar.getEvents());
+                softly.assertThat(counted.get(key).getTotalSubject()).as("%s %s", countType, key).isEqualTo(bar.getTotalSubject());
+                if (countType.getCountBase() == CountType.CountBase.SUBJECT) {
+                    softly.assertThat(counted.get(key).getSubjects()).as("%s %s", countType, key).isEqualTo(bar.getSubjects());
+                }
+            });
+        }
+    }
+
+    @Test
+    public void shouldKeepEventSetsOnlyWhenRequested() {
+        //Given
+        final Subject subject1 = Subject.builder().subjectId("id1").subjectCode("E01").race("R1").build();
+        final Subject subject2 = Subject.builder().subjectId("id2").subjectCode("E02").race("R2").build();
+        final Entity event1 = new Entity("1", DateUtils.toDate("01.01.2016"), DateUtils.toDate("05.01.2016"), Arrays.asList("v1", "v2"), "prop1", subject1);
+        final Entity event2 = new Entity("2", DateUtils.toDate("01.01.2016"), DateUtils.toDate("06.01.2016"), Arrays.asList("v2"), "prop2", subject2);
+        final List<Entity> events = Arrays.asList(event1, event2);
+        final List<Subject> subjects = Arrays.asList(subject1, subject2);
+
+        BarChartService<Entity, SomeGroupByOptions> barChartService = new BarChartService<>();
+
+        final ChartGroupByOptions<Entity, SomeGroupByOptions> settings = ChartGroupByOptions.<Entity, SomeGroupByOptions>builder()
+                .withOption(X_AXIS, SomeGroupByOptions.CATEGORY.getGroupByOptionAndParams())
+                .build();
+        final FilterResult<Entity> filtered = new FilterResult<>(new FilterQuery<Entity>(subjects, PopulationFilters.empty())).withResults(events, events)
+                .withPopulationFilteredResults(new FilterResult<>(new FilterQuery<Subject>(subjects, PopulationFilters.empty()))
+                        .withResults(subjects, subjects));
+
+        //When
+        Map<GroupByKey<Entity, SomeGroupByOptions>, BarChartCalculationObject<Entity>> barChart = barChartService.getBarChart(
+                settings, CountType.COUNT_OF_EVENTS, filtered);
+        Map<GroupByKey<Entity, SomeGroupByOptions>, BarChartCalculationObject<Entity>> barChartWithEvents = barChartService.getBarChart(
+                settings, CountType.COUNT_OF_EVENTS, filtered, true);
+
+        //Then
+        softly.assertThat(barChart.values()).allMatch(b -> b.getEventSet() == null);
+        softly.assertThat(barChartWithEvents.entrySet())
+                .extracting(e -> e.getKey().getValue(X_AXIS), e -> e.getValue().getEventSet(), e -> e.getValue().getSubjects())
+                .containsExactlyInAnyOrder(
+                        tuple("v1", Collections.singletonList(event1), Collections.singleton("E01")),
+                        tuple("v2", Arrays.asList(event1, event2), new HashSet<>(Arrays.asList("E01", "E02")))
+                );
+    }
+
     private enum SomeGroupByOptions implements GroupByOption<Entity> {
         SUBJECT {
             @Override
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.service.plots;
+
+import org.apache.commons.math3.stat.descriptive.rank.Percentile;
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class BoxPlotStatisticsTest {
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    @Test
+    public void shouldMatchCommonsMathR7Percentiles() {
+        Random random = new Random(11);
+        for (int size = 1; size < 60; size++) {
+            double[] values = new double[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = random.nextInt(5) == 0 ? Math.round(random.nextDouble() * 10) : random.nextGaussian() * 100;
+            }
+            Percentile percentile = new Percentile().withEstimationType(Percentile.EstimationType.R_7);
+            double[] sorted = Arrays.copyOf(values, size);
+            BoxPlotStatistics statistics = new BoxPlotStatistics(sorted, size);
+
+            softly.assertThat(statistics.getMedian()).isEqualTo(percentile.evaluate(values, 50));
+            softly.assertThat(statistics.getUpperQuartile()).isEqualTo(percentile.evaluate(values, 75));
+            softly.assertThat(statistics.getLowerQuartile()).isEqualTo(percentile.evaluate(values, 25));
+        }
+    }
+
+    @Test
+    public void shouldFindWhiskersWithinTukeyFences() {
+        double[] values = {15, 1, 2, 2, 1.5, 2.5, -20};
+
+        BoxPlotStatistics statistics = new BoxPlotStatistics(values, values.length);
+
+        softly.assertThat(statistics.getLowerQuartile()).isEqualTo(1.25);
+        softly.assertThat(statistics.getMedian()).isEqualTo(2.0);
+        softly.assertThat(statistics.getUpperQuartile()).isEqualTo(2.25);
+        softly.assertThat(statistics.getLowerWhisker()).isEqualTo(1.0);
+        softly.assertThat(statistics.getUpperWhisker()).isEqualTo(2.5);
+        softly.assertThat(statistics.isOutlier(15)).isTrue();
+        softly.assertThat(statistics.isOutlier(-20)).isTrue();
+        softly.assertThat(statistics.isOutlier(2.5)).isFalse();
+    }
+
+    @Test
+    public void shouldIgnoreNaNValues() {
+        double[] values = {Double.NaN, 3, 1, Double.NaN, 2};
+
+        BoxPlotStatistics statistics = new BoxPlotStatistics(values, 4);
+
+        softly.assertThat(statistics.getMedian()).isEqualTo(2.0);
+        softly.assertThat(statistics.getLowerWhisker()).isEqualTo(1.0);
+        softly.assertThat(statistics.getUpperWhisker()).isEqualTo(3.0);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.service.plots;
+
+import com.acuity.visualisations.rawdatamodel.vo.plots.LineChartEntry;
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+public class LineChartDownsamplingTest {
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    @Test
+    public void shouldKeepSeriesFittingIntoBudget() {
+        List<LineChartEntry> series = series(0, 1, 10, 1, 0);
+
+        softly.assertThat(LineChartDownsampling.downsample(series, 0)).isSameAs(series);
+        softly.assertThat(LineChartDownsampling.downsample(series, 5)).isSameAs(series);
+        softly.assertThat(LineChartDownsampling.downsample(series, 10)).isSameAs(series);
+    }
+
+    @Test
+    public void shouldKeepPeakOfTheSeries() {
+        List<LineChartEntry> series = series(0, 1, 10, 1, 0);
+
+        softly.assertThat(LineChartDownsampling.downsample(series, 3))
+                .containsExactly(series.get(0), series.get(2), series.get(4));
+    }
+
+    @Test
+    public void shouldKeepFirstAndLastPointsWithinBudget() {
+        Random random = new Random(3);
+        double[] ys = new double[1000];
+        for (int i = 0; i < ys.length; i++) {
+            ys[i] = random.nextGaussian();
+        }
+        List<LineChartEntry> series = series(ys);
+
+        for (int maxPoints = 1; maxPoints < 50; maxPoints++) {
+            List<LineChartEntry> sampled = LineChartDownsampling.downsample(series, maxPoints);
+
+            softly.assertThat(sampled).hasSize(maxPoints);
+            softly.assertThat(sampled.get(0)).isSameAs(series.get(0));
+            if (maxPoints > 1) {
+                softly.assertThat(sampled.get(maxPoints - 1)).isSameAs(series.get(series.size() - 1));
+            }
+            softly.assertThat(sampled).isSubsetOf(series).isSortedAccordingTo((e1, e2) ->
+                    Double.compare((Double) e1.getX(), (Double) e2.getX()));
+            softly.assertThat(LineChartDownsampling.downsample(series, maxPoints)).isEqualTo(sampled);
+        }
+    }
+
+    @Test
+    public void shouldDownsampleByDates() {
+        List<LineChartEntry> series = new ArrayList<>();
+        double[] ys = {0, 1, 10, 1, 0};
+        for (int i = 0; i < ys.length; i++) {
+            series.add(new LineChartEntry(new Date(i * 86_400_000L), ys[i], null, null, null));
+        }
+
+        softly.assertThat(LineChartDownsampling.downsample(series, 3))
+                .containsExactly(series.get(0), series.get(2), series.get(4));
+    }
+
+    @Test
+    public void shouldNotDownsampleSeriesWithNonNumericValues() {
+        List<LineChartEntry> series = new ArrayList<>(series(0, 1, 10, 1, 0));
+        series.set(3, new LineChartEntry(3., "(Empty)", null, null, null));
+
+        softly.assertThat(LineChartDownsampling.downsample(series, 3)).isSameAs(series);
+    }
+
+    private static List<LineChartEntry> series(double... ys) {
+        LineChartEntry[] entries = new LineChartEntry[ys.length];
+        for (int i = 0; i < ys.length; i++) {
+            entries[i] = new LineChartEntry((double) i, ys[i], "point" + i, null, (double) i);
+        }
+        return Arrays.asList(entries);
+    }
+}
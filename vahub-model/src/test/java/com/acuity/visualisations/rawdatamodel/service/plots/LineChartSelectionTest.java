@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.service.plots;
+
+import com.acuity.visualisations.rawdatamodel.trellis.grouping.ATLGroupByOptions;
+import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartGroupByOptions;
+import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartGroupByOptions.ChartGroupBySetting;
+import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartSelection;
+import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartSelectionItem;
+import com.acuity.visualisations.rawdatamodel.trellis.grouping.ExposureGroupByOptions;
+import com.acuity.visualisations.rawdatamodel.vo.AssessedTargetLesionRaw;
+import com.acuity.visualisations.rawdatamodel.vo.ExposureRaw;
+import com.acuity.visualisations.rawdatamodel.vo.Subject;
+import com.acuity.visualisations.rawdatamodel.vo.TargetLesionRaw;
+import com.acuity.visualisations.rawdatamodel.vo.wrappers.AssessedTargetLesion;
+import com.acuity.visualisations.rawdatamodel.vo.wrappers.Exposure;
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class LineChartSelectionTest {
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    @Test
+    public void shouldMatchExposureSelectionByDoubleXAxisAndStringValues() {
+        final Subject subject = Subject.builder().subjectId("id1").subjectCode("E01").build();
+        final List<Exposure> events = Arrays.asList(
+                new Exposure(ExposureRaw.builder().id("e1").analyte("1").timeFromAdministration(2.5).build(), subject),
+                new Exposure(ExposureRaw.builder().id("e2").analyte("1").timeFromAdministration(4.0).build(), subject),
+                new Exposure(ExposureRaw.builder().id("e3").analyte("A").timeFromAdministration(2.5).build(), subject));
+        final ChartGroupByOptions<Exposure, ExposureGroupByOptions> settings = ChartGroupByOptions.<Exposure, ExposureGroupByOptions>builder()
+                .withOption(ChartGroupBySetting.X_AXIS, ExposureGroupByOptions.TIME_FROM_ADMINISTRATION.getGroupByOptionAndParams())
+                .withOption(ChartGroupBySetting.COLOR_BY, ExposureGroupByOptions.ANALYTE.getGroupByOptionAndParams())
+                .build();
+
+        final Map<ExposureGroupByOptions, Object> noTrellises = new HashMap<>();
+        final List<ChartSelectionItem<Exposure, ExposureGroupByOptions>> items = Arrays.asList(
+                ChartSelectionItem.of(noTrellises, values(ChartGroupBySetting.X_AXIS, "2.50", ChartGroupBySetting.COLOR_BY, "1")),
+                //analyte "1" is not matched by a number
+                ChartSelectionItem.of(noTrellises, values(ChartGroupBySetting.X_AXIS, 4, ChartGroupBySetting.COLOR_BY, 1.0)));
+
+        final List<Exposure> matchedItems = new ExposureLineChartService().getMatchedItems(events, ChartSelection.of(settings, items));
+
+        softly.assertThat(matchedItems).extracting(Exposure::getId).containsExactly("e1");
+    }
+
+    @Test
+    public void shouldMatchTargetLesionSelectionByIntegerYAxisAndStringXAxis() {
+        final Subject subject1 = Subject.builder().subjectId("id1").subjectCode("01").build();
+        final Subject subject2 = Subject.builder().subjectId("id2").subjectCode("02").build();
+        final List<AssessedTargetLesion> events = Arrays.asList(
+                lesion("atl1", 10, subject1),
+                lesion("atl2", 12, subject1),
+                lesion("atl3", 10, subject2));
+        final ChartGroupByOptions<AssessedTargetLesion, ATLGroupByOptions> settings =
+                ChartGroupByOptions.<AssessedTargetLesion, ATLGroupByOptions>builder()
+                        .withOption(ChartGroupBySetting.X_AXIS, ATLGroupByOptions.SUBJECT.getGroupByOptionAndParams())
+                        .withOption(ChartGroupBySetting.Y_AXIS, ATLGroupByOptions.ABSOLUTE_SUM.getGroupByOptionAndParams())
+                        .build();
+
+        final Map<ATLGroupByOptions, Object> noTrellises = new HashMap<>();
+        final List<ChartSelectionItem<AssessedTargetLesion, ATLGroupByOptions>> items = Arrays.asList(
+                ChartSelectionItem.of(noTrellises, values(ChartGroupBySetting.X_AXIS, "01", ChartGroupBySetting.Y_AXIS, "10")),
+                //subject "02" is not matched by a number
+                ChartSelectionItem.of(noTrellises, values(ChartGroupBySetting.X_AXIS, 2, ChartGroupBySetting.Y_AXIS, 10)));
+
+        final List<AssessedTargetLesion> matchedItems = new TLDLineChartService()
+                .getMatchedItems(events, ChartSelection.of(settings, items));
+
+        softly.assertThat(matchedItems).extracting(AssessedTargetLesion::getId).containsExactly("atl1");
+    }
+
+    private static AssessedTargetLesion lesion(String id, int lesionsDiameter, Subject subject) {
+        return new AssessedTargetLesion(AssessedTargetLesionRaw.builder().id(id)
+                .targetLesionRaw(TargetLesionRaw.builder().lesionsDiameterPerAssessment(lesionsDiameter).build()).build(), subject);
+    }
+
+    private static Map<ChartGroupBySetting, Object> values(ChartGroupBySetting setting1, Object value1,
+                                                          ChartGroupBySetting setting2, Object value2) {
+        final Map<ChartGroupBySetting, Object> values = new HashMap<>();
+        values.put(setting1, value1);
+        values.put(setting2, value2);
+        return values;
+    }
+}
@@ -22,6 +22,9 @@ import com.acuity.visualisations.rawdatamodel.suites.interfaces.RangeChartTests;
 import com.acuity.visualisations.rawdatamodel.suites.interfaces.ShiftPlotTests;
 import com.acuity.visualisations.rawdatamodel.test.TestConfig;
 import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartGroupByOptions;
+import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartSelection;
+import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartSelectionItem;
+import com.acuity.visualisations.rawdatamodel.trellis.grouping.ChartSelectionItemRange;
 import com.acuity.visualisations.rawdatamodel.trellis.grouping.GroupByKey;
 import com.acuity.visualisations.rawdatamodel.trellis.grouping.PopulationGroupByOptions;
 import com.acuity.visualisations.rawdatamodel.trellis.grouping.annotations.PopulationGroupingOption;
@@ -37,6 +40,7 @@ import com.acuity.visualisations.rawdatamodel.vo.HasValueAndBaseline;
 import com.acuity.visualisations.rawdatamodel.vo.Subject;
 import com.acuity.visualisations.rawdatamodel.vo.plots.BoxplotCalculationObject;
 import com.acuity.visualisations.rawdatamodel.vo.plots.RangeChartCalculationObject;
+import com.acuity.visualisations.rawdatamodel.vo.plots.SelectionDetail;
 import com.acuity.visualisations.rawdatamodel.vo.plots.ShiftPlotCalculationObject;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
@@ -53,6 +57,7 @@ import org.springframework.test.context.junit4.SpringRunner;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -302,6 +307,53 @@ public class StatsServiceTest {
     }
 
 
+    @Test
+    public void shouldMatchSelectionsByLookup() {
+        final Subject subject1 = Subject.builder().subjectId("id1").subjectCode("E01").build();
+        final Subject subject2 = Subject.builder().subjectId("id2").subjectCode("E02").build();
+        final List<Entity> events = Arrays.asList(
+                new Entity("01", DateUtils.toDate("05.01.2016"), 1d, 0d, "", "prop1", subject1),
+                new Entity("02", DateUtils.toDate("05.01.2016"), 4d, 0d, "", "prop1", subject2),
+                new Entity("03", DateUtils.toDate("05.01.2016"), 8d, 0d, "", "prop1", subject1),
+                new Entity("04", DateUtils.toDate("05.01.2016"), 12d, 0d, "", "prop1", subject1),
+                new Entity("05", DateUtils.toDate("08.01.2016"), 2d, 0d, "", "prop3", subject1),
+                new Entity("06", DateUtils.toDate("08.01.2016"), 15d, 0d, "", "prop3", subject2)
+        );
+        final List<Subject> subjects = Arrays.asList(subject1, subject2);
+        StatsPlotService<Entity, SomeGroupByOptions> statsPlotService = new StatsPlotService<>();
+        final FilterResult<Entity> filtered = new FilterResult<>(new FilterQuery<Entity>(subjects, PopulationFilters.empty())).withResults(events, events)
+                .withPopulationFilteredResults(new FilterResult<>(new FilterQuery<Subject>(subjects, PopulationFilters.empty()))
+                        .withResults(subjects, subjects));
+        ChartGroupByOptions<Entity, SomeGroupByOptions> settings = ChartGroupByOptions.<Entity, SomeGroupByOptions>builder()
+                .withOption(ChartGroupByOptions.ChartGroupBySetting.X_AXIS, SomeGroupByOptions.SUBJECT.getGroupByOptionAndParams())
+                .withOption(ChartGroupByOptions.ChartGroupBySetting.Y_AXIS, SomeGroupByOptions.VALUE.getGroupByOptionAndParams())
+                .withTrellisOption(SomeGroupByOptions.PROPERTY.getGroupByOptionAndParams())
+                .build();
+
+        final Map<SomeGroupByOptions, Object> prop1 = new HashMap<>();
+        prop1.put(SomeGroupByOptions.PROPERTY, "prop1");
+        final Map<SomeGroupByOptions, Object> prop3 = new HashMap<>();
+        prop3.put(SomeGroupByOptions.PROPERTY, "prop3");
+        final Map<ChartGroupByOptions.ChartGroupBySetting, Object> e01 = new HashMap<>();
+        e01.put(ChartGroupByOptions.ChartGroupBySetting.X_AXIS, "E01");
+        final Map<ChartGroupByOptions.ChartGroupBySetting, Object> e02 = new HashMap<>();
+        e02.put(ChartGroupByOptions.ChartGroupBySetting.X_AXIS, "E02");
+
+        final List<ChartSelectionItemRange<Entity, SomeGroupByOptions, Double>> rangeItems = Arrays.asList(
+                ChartSelectionItemRange.of(prop1, e01, 0.0, 8.0),
+                ChartSelectionItemRange.of(prop3, e02, 10.0, 20.0));
+        final List<ChartSelectionItem<Entity, SomeGroupByOptions>> items = Arrays.asList(
+                ChartSelectionItem.of(prop1, e02),
+                ChartSelectionItem.of(prop3, e01));
+
+        final SelectionDetail rangedSelection = statsPlotService.getRangedSelectionDetails(filtered, ChartSelection.of(settings, rangeItems));
+        final List<Entity> matchedItems = statsPlotService.getMatchedItems(events, ChartSelection.of(settings, items));
+
+        softly.assertThat(rangedSelection.getEventIds()).containsOnly("01", "03", "06");
+        softly.assertThat(rangedSelection.getSubjectIds()).containsOnly("id1", "id2");
+        softly.assertThat(matchedItems).extracting(Entity::getId).containsOnly("02", "05");
+    }
+
     private enum SomeGroupByOptions implements GroupByOption<Entity> {
         SUBJECT {
             @Override
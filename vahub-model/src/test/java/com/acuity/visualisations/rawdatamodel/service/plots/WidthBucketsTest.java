@@ -0,0 +1,83 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.service.plots;
+
+import com.acuity.visualisations.rawdatamodel.vo.plots.BarChartOptionRange;
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Map;
+
+public class WidthBucketsTest {
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    @Test
+    public void shouldSplitValuesIntoEqualWidthBuckets() {
+        WidthBuckets buckets = new WidthBuckets(3);
+        buckets.add("a", 0);
+        buckets.add("b", 2);
+        buckets.add("c", 3);
+        buckets.add("d", 8);
+        buckets.add("e", 6);
+
+        Map<String, BarChartOptionRange<Long>> ranges = buckets.toRanges(Long::valueOf);
+
+        softly.assertThat(ranges).hasSize(5);
+        softly.assertThat(ranges.get("a")).isEqualTo(new BarChartOptionRange<>(0L, 2L));
+        softly.assertThat(ranges.get("b")).isSameAs(ranges.get("a"));
+        softly.assertThat(ranges.get("c")).isEqualTo(new BarChartOptionRange<>(3L, 3L));
+        softly.assertThat(ranges.get("d")).isEqualTo(new BarChartOptionRange<>(6L, 8L));
+        softly.assertThat(ranges.get("e")).isSameAs(ranges.get("d"));
+        softly.assertThat(ranges.get("unknown")).isNull();
+    }
+
+    @Test
+    public void shouldPutEqualValuesIntoFirstBucket() {
+        WidthBuckets buckets = new WidthBuckets(6);
+        buckets.add("a", 5);
+        buckets.add("b", 5);
+
+        softly.assertThat(buckets.toRanges(Long::valueOf).values()).containsOnly(new BarChartOptionRange<>(5L, 5L));
+    }
+
+    @Test
+    public void shouldExcludeIdsWithoutValues() {
+        WidthBuckets buckets = new WidthBuckets(6);
+        buckets.add("a", 100);
+        buckets.add("b", 200);
+        buckets.addEmpty("c");
+        buckets.add("b", 150);
+        buckets.addEmpty("a");
+
+        Map<String, BarChartOptionRange<Double>> ranges = buckets.toRanges(value -> (double) value / 100);
+
+        softly.assertThat(ranges).containsOnlyKeys("b");
+        softly.assertThat(ranges.get("b")).isEqualTo(new BarChartOptionRange<>(1.5, 1.5));
+        softly.assertThat(ranges.containsKey("a")).isFalse();
+    }
+
+    @Test
+    public void shouldGetNoRangesWithoutValues() {
+        WidthBuckets buckets = new WidthBuckets(6);
+        buckets.addEmpty("a");
+
+        softly.assertThat(buckets.toRanges(Long::valueOf)).isEmpty();
+    }
+}
@@ -40,6 +40,7 @@ import com.acuity.visualisations.rawdatamodel.dataproviders.TargetLesionDatasets
 import com.acuity.visualisations.rawdatamodel.dataset.info.InfoService;
 import com.acuity.visualisations.rawdatamodel.test.TestConfig;
 import com.acuity.va.security.acl.domain.Datasets;
+import org.apache.commons.io.IOUtils;
 import org.assertj.core.api.JUnitSoftAssertions;
 import org.docx4j.openpackaging.exceptions.Docx4JException;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
@@ -60,7 +61,13 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import static com.acuity.visualisations.rawdatamodel.Constants.DATASETS;
 import static com.acuity.visualisations.rawdatamodel.service.PopulationServiceTest.SUBJECTS;
@@ -69,6 +76,7 @@ import static com.acuity.visualisations.rawdatamodel.service.event.PatientOutcom
 import static com.acuity.visualisations.rawdatamodel.service.event.PatientOutcomeSummaryServiceTest.DOSE_DISCS;
 import static com.acuity.visualisations.rawdatamodel.service.event.PatientOutcomeSummaryServiceTest.SERIOUS_AES;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.when;
 
@@ -156,9 +164,53 @@ public class PatientSummaryDocumentServiceTest {
         when(seriousAeDatasetsDataProvider.loadData(any(Datasets.class))).thenReturn(SERIOUS_AES);
         when(medicalHistoryDatasetsDataProvider.loadData(any(Datasets.class))).thenReturn(MEDICAL_HISTORIES);
 
-        final Optional<ByteArrayOutputStream> doc = documentService.generateDocument(DATASETS, "sid1", true, "03:00");
-        assertThat(doc).isPresent();
-        assertThat(doc.get().toByteArray().length).isGreaterThan(0);
+        final ByteArrayOutputStream doc = new ByteArrayOutputStream();
+        assertThat(documentService.writeDocument(DATASETS, "sid1", true, "03:00", doc)).isTrue();
+        assertThat(doc.toByteArray().length).isGreaterThan(0);
+    }
+
+    @Test
+    public void shouldNotWriteDocumentForUnknownSubject() throws Docx4JException, JAXBException {
+        when(populationDatasetsDataProvider.loadData(any(Datasets.class))).thenReturn(SUBJECTS);
+
+        final ByteArrayOutputStream doc = new ByteArrayOutputStream();
+        softly.assertThat(documentService.writeDocument(DATASETS, "unknown", true, "03:00", doc)).isFalse();
+        softly.assertThat(doc.size()).isZero();
+    }
+
+    @Test
+    public void shouldWriteZipOfDocumentsForSubjects() throws IOException, Docx4JException, JAXBException {
+        when(populationDatasetsDataProvider.loadData(any(Datasets.class))).thenReturn(SUBJECTS);
+        when(deathDatasetsDataProvider.loadData(any(Datasets.class))).thenReturn(DEATHS);
+        when(doseDiscDatasetsDataProvider.loadData(any(Datasets.class))).thenReturn(DOSE_DISCS);
+        when(seriousAeDatasetsDataProvider.loadData(any(Datasets.class))).thenReturn(SERIOUS_AES);
+        when(medicalHistoryDatasetsDataProvider.loadData(any(Datasets.class))).thenReturn(MEDICAL_HISTORIES);
+
+        final ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        documentService.writeDocuments(DATASETS, Arrays.asList("sid1", "sid2", "unknown", "sid3", "sid1"), true, "03:00", zip);
+
+        List<String> entryNames = new ArrayList<>();
+        try (ZipInputStream entries = new ZipInputStream(new ByteArrayInputStream(zip.toByteArray()))) {
+            for (ZipEntry entry = entries.getNextEntry(); entry != null; entry = entries.getNextEntry()) {
+                entryNames.add(entry.getName());
+                WordprocessingMLPackage doc = WordprocessingMLPackage.load(new ByteArrayInputStream(IOUtils.toByteArray(entries)));
+                softly.assertThat(doc.getMainDocumentPart().getContent()).isNotEmpty();
+            }
+        }
+        // subjects sid2 and sid3 share the same code
+        softly.assertThat(entryNames).containsExactly("E01.docx", "E02.docx", "E02_2.docx");
+    }
+
+    @Test
+    public void shouldRejectDocumentsForTooManySubjects() {
+        List<String> subjectIds = IntStream.rangeClosed(0, PatientSummaryDocumentService.MAX_DOCUMENTS_SUBJECTS)
+                .mapToObj(i -> "sid" + i)
+                .collect(Collectors.toList());
+        final ByteArrayOutputStream zip = new ByteArrayOutputStream();
+
+        assertThatThrownBy(() -> documentService.writeDocuments(DATASETS, subjectIds, true, "03:00", zip))
+                .isInstanceOf(IllegalArgumentException.class);
+        softly.assertThat(zip.size()).isZero();
     }
 
     @Test
@@ -179,8 +231,9 @@ public class PatientSummaryDocumentServiceTest {
         when(seriousAeDatasetsDataProvider.loadData(any(Datasets.class))).thenReturn(SERIOUS_AES);
         when(medicalHistoryDatasetsDataProvider.loadData(any(Datasets.class))).thenReturn(MEDICAL_HISTORIES);
 
-        final Optional<ByteArrayOutputStream> document = documentService.generateDocument(DATASETS, "sid1", true, "03:00");
-        WordprocessingMLPackage doc = WordprocessingMLPackage.load(new ByteArrayInputStream(document.get().toByteArray()));
+        final ByteArrayOutputStream document = new ByteArrayOutputStream();
+        documentService.writeDocument(DATASETS, "sid1", true, "03:00", document);
+        WordprocessingMLPackage doc = WordprocessingMLPackage.load(new ByteArrayInputStream(document.toByteArray()));
         FooterPart footer = (FooterPart) doc.getParts().getParts().values().stream().filter(p -> p instanceof FooterPart).findFirst().get();
         Assert.assertNotNull(footer);
         Assert.assertTrue(footer instanceof FooterPart);
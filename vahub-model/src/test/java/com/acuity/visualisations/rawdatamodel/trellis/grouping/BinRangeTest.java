@@ -0,0 +1,70 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.trellis.grouping;
+
+import com.acuity.visualisations.rawdatamodel.util.Attributes;
+import com.acuity.visualisations.rawdatamodel.util.DaysUtil;
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+public class BinRangeTest {
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    @Test
+    public void shouldContainSameBinsAsExpandedRange() {
+        final Bin first = Bin.newInstance(-7, 3);
+        final Bin last = Bin.newInstance(10, 3);
+
+        final BinRange range = BinRange.of(first, last);
+
+        softly.assertThat(range).hasSize(7);
+        softly.assertThat(new ArrayList<>(range)).isEqualTo(Attributes.getBinsBetween(first, last));
+        softly.assertThat(range.get(6)).isEqualTo(last);
+        softly.assertThat(range.getFirst().getPosition()).isEqualTo(-3);
+        softly.assertThat(range.getLast().getPosition()).isEqualTo(3);
+    }
+
+    @Test
+    public void shouldContainSameBinsAsExpandedDateRange() {
+        final Bin first = Bin.newInstance(DaysUtil.toDate("1981-03-24"), 7);
+        final Bin last = Bin.newInstance(DaysUtil.toDate("1981-05-24"), 7);
+
+        final BinRange range = BinRange.of(first, last);
+
+        softly.assertThat(range).hasSize(Attributes.getBinsBetween(first, last).size());
+        softly.assertThat(new ArrayList<>(range)).isEqualTo(Attributes.getBinsBetween(first, last));
+    }
+
+    @Test
+    public void shouldContainEmptyBinOnlyForInvalidRange() {
+        softly.assertThat(BinRange.of(Bin.newInstance(5, 1), Bin.newInstance(4, 1))).containsExactly(Bin.empty());
+        softly.assertThat(BinRange.of(Bin.empty(), Bin.newInstance(4, 1))).containsExactly(Bin.empty());
+        softly.assertThat(BinRange.of(Bin.newInstance(4, 1), Bin.newInstance(4, 1))).containsExactly(Bin.newInstance(4, 1));
+        softly.assertThat(BinRange.of(Bin.newInstance(5, 1), Bin.newInstance(4, 1)).isEmptyRange()).isTrue();
+    }
+
+    @Test
+    public void shouldGiveEmptyBinNoPosition() {
+        softly.assertThat(Bin.empty().getPosition()).isEqualTo(Bin.NO_POSITION);
+        softly.assertThat(BinRange.of(Bin.newInstance(5, 1), Bin.newInstance(4, 1)).size()).isEqualTo(1);
+    }
+}
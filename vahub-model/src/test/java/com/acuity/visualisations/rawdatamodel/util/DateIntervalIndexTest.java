@@ -0,0 +1,113 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rawdatamodel.util;
+
+import lombok.Value;
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import static java.util.stream.Collectors.toList;
+
+public class DateIntervalIndexTest {
+
+    private static final long DAY = DaysUtil.MILLISECONDS_IN_DAY;
+    private static final long ORIGIN = DaysUtil.toDate("2018-01-01").getTime();
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    @Value
+    private static class Period {
+        private int id;
+        private Date startDate;
+        private Date endDate;
+    }
+
+    @Test
+    public void shouldFindOverlappingPeriodsIncludingOpenOnes() {
+        Period closed = new Period(1, day(1), day(3));
+        Period noEnd = new Period(2, day(10), null);
+        Period noStart = new Period(3, null, day(2));
+        Period later = new Period(4, day(5), day(6));
+        DateIntervalIndex<Period> index = DateIntervalIndex.of(listOf(later, closed, noEnd, noStart),
+                Period::getStartDate, Period::getEndDate);
+
+        softly.assertThat(index.overlapping(day(3), day(4))).containsExactly(closed);
+        softly.assertThat(index.overlapping(day(0), day(1))).containsExactly(noStart, closed);
+        softly.assertThat(index.containing(day(20))).containsExactly(noEnd);
+        softly.assertThat(index.overlapping(null, null)).containsExactly(noStart, closed, later, noEnd);
+        softly.assertThat(index.within(day(1), day(7))).containsExactly(closed, later);
+        softly.assertThat(index.within(null, day(2))).containsExactly(noStart);
+    }
+
+    @Test
+    public void shouldMatchScanOverRandomPeriods() {
+        Random random = new Random(7);
+        List<Period> periods = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            periods.add(randomPeriod(i, random));
+        }
+        DateIntervalIndex<Period> index = DateIntervalIndex.of(periods, Period::getStartDate, Period::getEndDate);
+
+        for (int i = 0; i < 200; i++) {
+            Period query = randomPeriod(-1, random);
+            if (query.getStartDate() == null) {
+                continue;
+            }
+            int shift = random.nextInt(4);
+
+            softly.assertThat(ids(index.overlapping(query.getStartDate(), query.getEndDate())))
+                    .containsExactlyInAnyOrderElementsOf(ids(periods.stream()
+                            .filter(p -> DaysUtil.periodsOverlapped(query.getStartDate(), query.getEndDate(), p.getStartDate(), p.getEndDate()))
+                            .collect(toList())));
+            softly.assertThat(ids(index.overlappingWithShift(query.getStartDate(), query.getEndDate(), shift)))
+                    .containsExactlyInAnyOrderElementsOf(ids(periods.stream()
+                            .filter(p -> DaysUtil.periodsOverlappedWithShift(query.getStartDate(), query.getEndDate(),
+                                    p.getStartDate(), p.getEndDate(), shift))
+                            .collect(toList())));
+        }
+    }
+
+    private static Period randomPeriod(int id, Random random) {
+        long start = ORIGIN + random.nextInt(365) * DAY + random.nextInt(24) * DaysUtil.MILLISECONDS_IN_HOUR;
+        long end = start + random.nextInt(30) * DAY + random.nextInt(24) * DaysUtil.MILLISECONDS_IN_HOUR;
+        int kind = random.nextInt(10);
+        return new Period(id, kind == 0 ? null : new Date(start), kind == 1 ? null : new Date(end));
+    }
+
+    private static List<Integer> ids(List<Period> periods) {
+        return periods.stream().map(Period::getId).collect(toList());
+    }
+
+    private static Date day(int day) {
+        return new Date(ORIGIN + day * DAY);
+    }
+
+    private static List<Period> listOf(Period... periods) {
+        List<Period> list = new ArrayList<>();
+        for (Period period : periods) {
+            list.add(period);
+        }
+        return list;
+    }
+}
@@ -19,6 +19,9 @@ package com.acuity.visualisations.rawdatamodel.util;
 import org.apache.commons.lang3.tuple.MutablePair;
 import org.junit.Test;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.Date;
 
 import static java.lang.Math.round;
@@ -287,4 +290,41 @@ public class DaysUtilTest {
         double dayHoursBetween = DaysUtil.dayHoursSinceDate(date1, date2).getAsDouble();
         assertThat(dayHoursBetween).isEqualTo(-0.75);
     }
+
+    @Test
+    public void shouldCountEpochDaysSameAsTruncatedTimeIncludingDatesBefore1970() {
+        long[] times = {0, 1, -1, DaysUtil.MILLISECONDS_IN_DAY, -DaysUtil.MILLISECONDS_IN_DAY, -DaysUtil.MILLISECONDS_IN_DAY - 1,
+                DaysUtil.toDate("1969-12-31 23:59").getTime(), DaysUtil.toDate("1950-06-15 12:30").getTime(),
+                DaysUtil.toDate("2011-11-02 08:00").getTime()};
+
+        for (long time : times) {
+            assertThat(DaysUtil.toEpochDay(time) * DaysUtil.MILLISECONDS_IN_DAY).as("time %s", time)
+                    .isEqualTo(DaysUtil.truncLocalTime(time));
+        }
+    }
+
+    @Test
+    public void shouldCalculatePeriodsOnTimesSameAsOnDates() {
+        Date[] dates = {DaysUtil.toDate("1950-06-15 12:30"), DaysUtil.toDate("1969-12-31 23:59"), DaysUtil.toDate("1970-01-01"),
+                DaysUtil.toDate("1970-01-05 04:00"), DATE_1, DaysUtil.toDate("2011-11-02 23:00"), DATE_2, DATE_4};
+
+        for (Date from : dates) {
+            for (Date to : dates) {
+                long timeFrom = from.getTime();
+                long timeTo = to.getTime();
+                assertThat(DaysUtil.daysBetween(timeFrom, timeTo)).as("days from %s to %s", from, to)
+                        .isEqualTo(DaysUtil.daysBetween(from, to).getAsInt())
+                        .isEqualTo((int) ((DaysUtil.truncLocalTime(timeTo) - DaysUtil.truncLocalTime(timeFrom)) / DaysUtil.MILLISECONDS_IN_DAY));
+                assertThat(DaysUtil.weeksBetween(timeFrom, timeTo)).as("weeks from %s to %s", from, to)
+                        .isEqualTo(DaysUtil.weeksBetween(from, to).getAsInt())
+                        .isEqualTo((int) Math.floor(DaysUtil.daysBetween(timeFrom, timeTo) / 7.0));
+                assertThat(DaysUtil.dayHoursSinceDate(timeFrom, timeTo)).as("day hours from %s to %s", from, to)
+                        .isEqualTo(DaysUtil.dayHoursSinceDate(from, to).getAsDouble());
+                assertThat(DaysUtil.monthsBetween(from, to).getAsInt()).as("months from %s to %s", from, to)
+                        .isEqualTo((int) ChronoUnit.MONTHS.between(
+                                LocalDateTime.ofInstant(from.toInstant(), ZoneId.systemDefault()).toLocalDate(),
+                                LocalDateTime.ofInstant(to.toInstant(), ZoneId.systemDefault()).toLocalDate()));
+            }
+        }
+    }
 }
@@ -16,10 +16,12 @@
 
 package com.acuity.visualisations.rest.config.oauth.config;
 
+import com.acuity.visualisations.rest.config.oauth.jwt.AzureJwksKeyProvider;
 import com.acuity.visualisations.rest.config.oauth.jwt.AzureJwtAuthenticationTokenFilter;
 import com.acuity.visualisations.rest.config.oauth.jwt.JwtAuthenticationProvider;
 import com.acuity.va.security.auth.azure.AzureSecurityAutoConfiguration;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -29,8 +31,10 @@ import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.oauth2.config.annotation.web.configuration.EnableOAuth2Client;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.web.client.RestTemplate;
 
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
 @Order(97)
 @Configuration
@@ -41,14 +45,32 @@ public class AzureJwtWebSecurityConfiguration extends AzureSecurityAutoConfigura
     @Autowired
     private JwtAuthenticationProvider authenticationProvider;
 
+    @Value("${azure.openIdConfigUrl:" + AzureJwksKeyProvider.AZURE_CONFIG_URL + "}")
+    private String openIdConfigUrl;
+
+    @Value("${azure.appIdUri:}")
+    private String appIdUri;
+
+    @Value("${azure.jwks.refreshMinutes:60}")
+    private long jwksRefreshMinutes;
+
+    @Value("${azure.jwks.minRefetchSeconds:60}")
+    private long jwksMinRefetchSeconds;
+
     @Bean
     @Override
     public AuthenticationManager authenticationManager() {
         return new ProviderManager(Collections.singletonList(authenticationProvider));
     }
 
+    @Bean(initMethod = "start", destroyMethod = "shutdown")
+    public AzureJwksKeyProvider azureJwksKeyProvider() {
+        return new AzureJwksKeyProvider(new RestTemplate(), openIdConfigUrl,
+                TimeUnit.MINUTES.toMillis(jwksRefreshMinutes), TimeUnit.SECONDS.toMillis(jwksMinRefetchSeconds));
+    }
+
     private AzureJwtAuthenticationTokenFilter azureJwtAuthenticationTokenFilter() {
-        AzureJwtAuthenticationTokenFilter authenticationTokenFilter = new AzureJwtAuthenticationTokenFilter();
+        AzureJwtAuthenticationTokenFilter authenticationTokenFilter = new AzureJwtAuthenticationTokenFilter(azureJwksKeyProvider(), appIdUri);
         authenticationTokenFilter.setAuthenticationManager(authenticationManager());
         return authenticationTokenFilter;
     }
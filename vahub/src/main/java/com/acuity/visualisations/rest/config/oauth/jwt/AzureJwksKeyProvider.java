@@ -0,0 +1,134 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rest.config.oauth.jwt;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.RestOperations;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.security.PublicKey;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the signing keys published in the JWKS document of an OpenID provider, indexed by key id.
+ * Keys are refreshed in the background; an unknown key id triggers a refetch, at most once per {@code minRefetchIntervalMs}.
+ */
+@Slf4j
+public class AzureJwksKeyProvider {
+    public static final String AZURE_CONFIG_URL = "https://login.microsoftonline.com/common/.well-known/openid-configuration";
+    private static final String JWKS_URI_PARAMETER_NAME = "jwks_uri";
+    private static final String KEY_ID_PARAMETER_NAME = "kid";
+    private static final String KEYS_PARAMETER_NAME = "keys";
+    private static final String X_509_CERTIFICATE_CHAIN = "x5c";
+    private static final String X_509_CERTIFICATE_NAME = "X.509";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final RestOperations restTemplate;
+    private final String configUrl;
+    private final long refreshIntervalMs;
+    private final long minRefetchIntervalMs;
+
+    private volatile Map<String, PublicKey> keys = Collections.emptyMap();
+    private volatile long lastFetchTime;
+    private ScheduledExecutorService refreshExecutor;
+
+    public AzureJwksKeyProvider(RestOperations restTemplate, String configUrl, long refreshIntervalMs, long minRefetchIntervalMs) {
+        this.restTemplate = restTemplate;
+        this.configUrl = configUrl;
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.minRefetchIntervalMs = minRefetchIntervalMs;
+    }
+
+    public synchronized void start() {
+        if (refreshExecutor == null) {
+            refreshExecutor = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("jwks-refresh-%d").setDaemon(true).build());
+            refreshExecutor.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public synchronized void shutdown() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+            refreshExecutor = null;
+        }
+    }
+
+    /**
+     * Returns the public key with the given id, refetching the keys if it is not known yet, or null if there is no such key.
+     */
+    public PublicKey getKey(String keyId) {
+        if (keyId == null) {
+            return null;
+        }
+        PublicKey key = keys.get(keyId);
+        if (key == null) {
+            synchronized (this) {
+                key = keys.get(keyId);
+                if (key == null && System.currentTimeMillis() - lastFetchTime >= minRefetchIntervalMs) {
+                    log.debug("Unknown key id {}, refetching signing keys", keyId);
+                    refreshQuietly();
+                    key = keys.get(keyId);
+                }
+            }
+        }
+        return key;
+    }
+
+    public synchronized void refresh() throws IOException, CertificateException {
+        lastFetchTime = System.currentTimeMillis();
+        Map<?, ?> config = restTemplate.getForObject(configUrl, Map.class);
+        String keysUrl = config.get(JWKS_URI_PARAMETER_NAME).toString();
+        JsonNode keysNode = OBJECT_MAPPER.readTree(restTemplate.getForObject(keysUrl, String.class)).get(KEYS_PARAMETER_NAME);
+
+        CertificateFactory certFactory = CertificateFactory.getInstance(X_509_CERTIFICATE_NAME);
+        Map<String, PublicKey> newKeys = new HashMap<>();
+        for (JsonNode keyNode : keysNode) {
+            JsonNode keyId = keyNode.get(KEY_ID_PARAMETER_NAME);
+            JsonNode certChain = keyNode.get(X_509_CERTIFICATE_CHAIN);
+            if (keyId == null || certChain == null || certChain.size() == 0) {
+                continue;
+            }
+            byte[] certificate = Base64.getDecoder().decode(certChain.get(0).asText());
+            X509Certificate cert = (X509Certificate) certFactory.generateCertificate(new ByteArrayInputStream(certificate));
+            newKeys.put(keyId.asText(), cert.getPublicKey());
+        }
+        keys = Collections.unmodifiableMap(newKeys);
+        log.debug("Loaded {} signing keys from {}", newKeys.size(), keysUrl);
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Unable to refresh signing keys, keeping the previous ones.", e);
+        }
+    }
+}
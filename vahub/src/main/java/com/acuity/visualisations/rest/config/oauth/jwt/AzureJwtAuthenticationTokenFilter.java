@@ -16,24 +16,22 @@
 
 package com.acuity.visualisations.rest.config.oauth.jwt;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwt;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.impl.DefaultHeader;
-import io.jsonwebtoken.impl.DefaultJwtParser;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.security.web.authentication.AbstractAuthenticationProcessingFilter;
-import org.springframework.web.client.RestOperations;
-import org.springframework.web.client.RestTemplate;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -41,16 +39,10 @@ import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.security.PublicKey;
-import java.security.cert.CertificateException;
-import java.security.cert.CertificateFactory;
-import java.security.cert.X509Certificate;
-import java.util.Base64;
-import java.util.Map;
-import java.util.stream.StreamSupport;
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Filter that orchestrates authentication by using supplied Azure access_token (JWT token)
@@ -58,21 +50,22 @@ import java.util.stream.StreamSupport;
  */
 @Slf4j
 public class AzureJwtAuthenticationTokenFilter extends AbstractAuthenticationProcessingFilter {
-    private static final String AZURE_CONFIG_URL = "https://login.microsoftonline.com/common/.well-known/openid-configuration";
     private static final String NAME = "unique_name";
-    private static final String JWKS_URI_PARAMETER_NAME = "jwks_uri";
-    private static final String KEY_ID_PARAMETER_NAME = "kid";
-    private static final String KEYS_PARAMETER_NAME = "keys";
-    private static final String X_509_CERTIFICATE_CHAIN = "x5c";
-    private static final String X_509_CERTIFICATE_NAME = "X.509";
-
-    private RestOperations restTemplate = new RestTemplate();
-
-    @Value("${azure.appIdUri:}")
-    private String appIdUri;
-
-    public AzureJwtAuthenticationTokenFilter() {
+    private static final int VALIDATED_TOKENS_CACHE_SIZE = 10000;
+    private static final long VALIDATED_TOKENS_MAX_AGE_HOURS = 24;
+
+    private final AzureJwksKeyProvider keyProvider;
+    private final String appIdUri;
+    // tokens whose signature, audience and validity period were already checked; the period is checked again on every use
+    private final Cache<String, ValidatedToken> validatedTokens = CacheBuilder.newBuilder()
+            .maximumSize(VALIDATED_TOKENS_CACHE_SIZE)
+            .expireAfterWrite(VALIDATED_TOKENS_MAX_AGE_HOURS, TimeUnit.HOURS)
+            .build();
+
+    public AzureJwtAuthenticationTokenFilter(AzureJwksKeyProvider keyProvider, String appIdUri) {
         super("/**");
+        this.keyProvider = keyProvider;
+        this.appIdUri = appIdUri;
         this.setAuthenticationSuccessHandler(new JwtAuthenticationSuccessHandler());
         this.setAuthenticationFailureHandler(new JwtAuthenticationFailureHandler());
     }
@@ -103,54 +96,62 @@ public class AzureJwtAuthenticationTokenFilter extends AbstractAuthenticationPro
         }
     }
 
-    private Claims parseAndValidateToken(String authToken) {
+    Claims parseAndValidateToken(String authToken) {
+        ValidatedToken validatedToken = validatedTokens.getIfPresent(authToken);
+        if (validatedToken != null) {
+            if (validatedToken.isValidAt(new Date())) {
+                return validatedToken.getClaims();
+            }
+            validatedTokens.invalidate(authToken);
+        }
         try {
-            String certificate = retrieveCertificate(authToken);
-
-            byte[] certChain = Base64.getDecoder().decode(certificate);
-            InputStream in = new ByteArrayInputStream(certChain);
-
-            CertificateFactory certFactory = CertificateFactory.getInstance(X_509_CERTIFICATE_NAME);
-            X509Certificate cert = (X509Certificate) certFactory.generateCertificate(in);
-            PublicKey pubKeyNew = cert.getPublicKey();
-            return Jwts.parser()
-                    .setSigningKey(pubKeyNew)
-                    .requireAudience(appIdUri)
-                    .parseClaimsJws(authToken).getBody();
+            JwtParser parser = Jwts.parser()
+                    .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                        @Override
+                        public Key resolveSigningKey(JwsHeader header, Claims tokenClaims) {
+                            Key key = keyProvider.getKey(header.getKeyId());
+                            if (key == null) {
+                                throw new SignatureException("Unknown signing key: " + header.getKeyId());
+                            }
+                            return key;
+                        }
+                    });
+            // azure.appIdUri is optional, the audience is checked only when it is configured
+            if (StringUtils.isNotBlank(appIdUri)) {
+                parser.requireAudience(appIdUri);
+            }
+            Claims claims = parser.parseClaimsJws(authToken).getBody();
+            if (claims.getExpiration() != null) {
+                validatedTokens.put(authToken, new ValidatedToken(claims));
+            }
+            return claims;
         } catch (JwtException jwtException) {
             log.error("JWT validation failed.", jwtException);
             return null;
-        } catch (CertificateException e) {
-            log.error("Unable to generate certificate.", e);
-            return null;
         } catch (Exception e) {
             log.error("Exception caught.", e);
             return null;
         }
     }
 
-    private String retrieveCertificate(String authToken) throws IOException {
-
-        String unsignedToken = authToken.substring(0, authToken.lastIndexOf(".") + 1);
-        DefaultJwtParser parser = new DefaultJwtParser();
-        Jwt<?, ?> jwt = parser.parse(unsignedToken);
-        DefaultHeader headerClaims = (DefaultHeader) jwt.getHeader();
-        log.debug("HeaderClaims: {}", headerClaims);
-
-        ResponseEntity<Map> azureConfigResponse = restTemplate.getForEntity(AZURE_CONFIG_URL, Map.class);
-
-        String keysUrl = azureConfigResponse.getBody().get(JWKS_URI_PARAMETER_NAME).toString();
-
-        ResponseEntity<String> azureKeysResponse = restTemplate.getForEntity(keysUrl, String.class);
-
-        ObjectMapper objectMapper = new ObjectMapper();
-        final JsonNode arrNode = objectMapper.readTree(azureKeysResponse.getBody()).get(KEYS_PARAMETER_NAME);
+    /**
+     * Claims of a validated token with its nbf and exp, so a cached token is used only within its validity period
+     */
+    static final class ValidatedToken {
+        @Getter
+        private final Claims claims;
+        private final Date notBefore;
+        private final Date expiration;
+
+        ValidatedToken(Claims claims) {
+            this.claims = claims;
+            this.notBefore = claims.getNotBefore();
+            this.expiration = claims.getExpiration();
+        }
 
-        return StreamSupport.stream(arrNode.spliterator(), false)
-                .filter(o -> headerClaims.get(KEY_ID_PARAMETER_NAME).equals(o.findPath(KEY_ID_PARAMETER_NAME).asText()))
-                .map(o -> o.findPath(X_509_CERTIFICATE_CHAIN).elements().next().asText())
-                .findAny()
-                .orElse("");
+        boolean isValidAt(Date now) {
+            return (notBefore == null || !now.before(notBefore)) && now.before(expiration);
+        }
     }
 
     @Override
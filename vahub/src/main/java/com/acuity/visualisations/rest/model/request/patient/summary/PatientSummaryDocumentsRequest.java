@@ -0,0 +1,35 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rest.model.request.patient.summary;
+
+import com.acuity.va.security.acl.domain.DatasetsRequest;
+import com.acuity.visualisations.rawdatamodel.service.ssv.PatientSummaryDocumentService;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class PatientSummaryDocumentsRequest extends DatasetsRequest {
+    @NotNull
+    @Size(max = PatientSummaryDocumentService.MAX_DOCUMENTS_SUBJECTS)
+    private List<String> subjectIds;
+    private String timeZoneOffset;
+}
@@ -64,12 +64,15 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
 import java.util.Map;
 
+import static com.acuity.visualisations.rest.resources.util.DetailsOnDemandCsvDownloadingUtils.getDownloadWriter;
 import static com.acuity.visualisations.rest.resources.util.DetailsOnDemandCsvDownloadingUtils.setDownloadHeaders;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.web.bind.annotation.RequestMethod.POST;
@@ -376,10 +379,12 @@ public class AesResource {
     )
     @RequestMapping(value = "/download-details-on-demand", method = POST)
     public void downloadAllDetailsOnDemandData(@RequestBody @Valid AesRequest requestBody,
-                                               HttpServletResponse response) throws IOException {
+                                               HttpServletRequest request, HttpServletResponse response) throws IOException {
         setDownloadHeaders(response);
-        aesService.writeAllDetailsOnDemandCsv(requestBody.getDatasetsObject(), response.getWriter(),
-                requestBody.getEventFilters(), requestBody.getPopulationFilters());
+        try (Writer writer = getDownloadWriter(request, response)) {
+            aesService.writeAllDetailsOnDemandCsv(requestBody.getDatasetsObject(), writer,
+                    requestBody.getEventFilters(), requestBody.getPopulationFilters());
+        }
     }
 
     @ApiOperation(
@@ -481,9 +486,11 @@ public class AesResource {
     @RequestMapping(value = "/aes-ml-export", method = POST)
     public void getAesMLTableDataCsv(
             @ApiParam(value = "Datasets to get the export data for Azure ML needs", required = true)
-            @RequestBody @Valid DatasetsRequest requestBody, HttpServletResponse response) throws IOException {
+            @RequestBody @Valid DatasetsRequest requestBody, HttpServletRequest request, HttpServletResponse response) throws IOException {
         setDownloadHeaders(response, "aes_table.csv");
-        aesService.writeAMLDataCsv(requestBody.getDatasetsObject(), response.getWriter(), Ae.class, AeRaw.class);
+        try (Writer writer = getDownloadWriter(request, response)) {
+            aesService.writeAMLDataCsv(requestBody.getDatasetsObject(), writer, Ae.class, AeRaw.class);
+        }
     }
 
     @RequestMapping(value = "/summaries-any-category", method = POST)
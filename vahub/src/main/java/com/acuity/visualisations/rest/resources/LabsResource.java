@@ -52,9 +52,11 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
 import java.util.Map;
 
@@ -221,11 +223,14 @@ public class LabsResource {
     }
 
     @RequestMapping(value = "/download-details-on-demand", method = POST)
-    public void getAllDetailsOnDemandData(@RequestBody @Valid LabsRequest requestBody, HttpServletResponse response) throws IOException {
+    public void getAllDetailsOnDemandData(@RequestBody @Valid LabsRequest requestBody, HttpServletRequest request,
+                                          HttpServletResponse response) throws IOException {
 
         DetailsOnDemandCsvDownloadingUtils.setDownloadHeaders(response);
-        labService.writeAllDetailsOnDemandCsv(requestBody.getDatasetsObject(), response.getWriter(),
-                requestBody.getEventFilters(), requestBody.getPopulationFilters());
+        try (Writer writer = DetailsOnDemandCsvDownloadingUtils.getDownloadWriter(request, response)) {
+            labService.writeAllDetailsOnDemandCsv(requestBody.getDatasetsObject(), writer,
+                    requestBody.getEventFilters(), requestBody.getPopulationFilters());
+        }
     }
 
     @RequestMapping(value = "/download-selected-details-on-demand", method = POST)
@@ -251,8 +256,10 @@ public class LabsResource {
     @RequestMapping(value = "/lab-ml-export", method = POST)
     public void getLabMLTableDataCsv(
             @ApiParam(value = "Datasets to get the export data for Azure ML needs", required = true)
-            @RequestBody @Valid DatasetsRequest requestBody, HttpServletResponse response) throws IOException {
+            @RequestBody @Valid DatasetsRequest requestBody, HttpServletRequest request, HttpServletResponse response) throws IOException {
         DetailsOnDemandCsvDownloadingUtils.setDownloadHeaders(response, "labs_table.csv");
-        labService.writeAMLDataCsv(requestBody.getDatasetsObject(), response.getWriter(), Lab.class, LabRaw.class);
+        try (Writer writer = DetailsOnDemandCsvDownloadingUtils.getDownloadWriter(request, response)) {
+            labService.writeAMLDataCsv(requestBody.getDatasetsObject(), writer, Lab.class, LabRaw.class);
+        }
     }
 }
@@ -57,6 +57,7 @@ import com.acuity.visualisations.rawdatamodel.service.event.TargetLesionService;
 import com.acuity.visualisations.rawdatamodel.service.ssv.PatientSummaryDocumentService;
 import com.acuity.visualisations.rawdatamodel.service.ssv.SingleSubjectViewSummaryService;
 import com.acuity.visualisations.rest.model.request.patient.summary.PatientSummaryDocumentRequest;
+import com.acuity.visualisations.rest.model.request.patient.summary.PatientSummaryDocumentsRequest;
 import com.acuity.visualisations.rest.model.request.SingleSubjectRequest;
 import com.acuity.va.security.acl.domain.Dataset;
 import com.acuity.visualisations.rest.util.Constants;
@@ -78,11 +79,9 @@ import org.springframework.web.bind.annotation.RestController;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.xml.bind.JAXBException;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 import static com.acuity.visualisations.rawdatamodel.service.ssv.SingleSubjectViewSummaryService.SsvTableMetadata;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
@@ -154,18 +153,30 @@ public class PatientSummaryResource {
     public void getDocument(@RequestBody @Valid PatientSummaryDocumentRequest requestBody, HttpServletResponse response)
             throws JAXBException, IOException, Docx4JException {
 
-        final Optional<ByteArrayOutputStream> byteArrayOutputStream = documentService.generateDocument(requestBody.getDatasetsObject(),
-                requestBody.getSubjectId(), hasTumourAccess(requestBody.getDatasets()), requestBody.getTimeZoneOffset());
-
-        if (byteArrayOutputStream.isPresent()) {
-            response.setContentType("application/vnd.openxmlformats-officedocument.wordprocessingml.document");
-            response.getOutputStream().write(byteArrayOutputStream.get().toByteArray());
+        response.setContentType("application/vnd.openxmlformats-officedocument.wordprocessingml.document");
+        if (documentService.writeDocument(requestBody.getDatasetsObject(), requestBody.getSubjectId(),
+                hasTumourAccess(requestBody.getDatasets()), requestBody.getTimeZoneOffset(), response.getOutputStream())) {
             response.flushBuffer();
         } else {
             response.sendError(HttpStatus.NOT_FOUND.value(), "Subject not found");
         }
     }
 
+    @ApiOperation(
+            value = "Generates a .zip archive of .docx documents that contain summary data for each of the subjects",
+            nickname = "getDocuments",
+            httpMethod = "POST"
+    )
+    @RequestMapping(value = "/documents", method = POST)
+    public void getDocuments(@RequestBody @Valid PatientSummaryDocumentsRequest requestBody, HttpServletResponse response)
+            throws JAXBException, IOException, Docx4JException {
+
+        response.setContentType("application/zip");
+        documentService.writeDocuments(requestBody.getDatasetsObject(), requestBody.getSubjectIds(),
+                hasTumourAccess(requestBody.getDatasets()), requestBody.getTimeZoneOffset(), response.getOutputStream());
+        response.flushBuffer();
+    }
+
 
     @ApiOperation(
             value = "Gets details for a single subject tables",
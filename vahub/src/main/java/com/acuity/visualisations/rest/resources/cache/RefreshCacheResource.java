@@ -16,6 +16,8 @@
 
 package com.acuity.visualisations.rest.resources.cache;
 
+import com.acuity.visualisations.cache.CacheSize;
+import com.acuity.visualisations.cache.CustomEhCacheCacheManager;
 import com.acuity.visualisations.common.cache.ClearCacheStatus;
 import com.acuity.visualisations.common.cache.RefreshCacheService;
 import com.acuity.visualisations.common.study.metadata.InstanceMetadataService;
@@ -27,6 +29,7 @@ import io.swagger.annotations.ApiOperation;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
 import org.springframework.security.core.Authentication;
@@ -36,7 +39,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.Callable;
@@ -74,6 +79,8 @@ import static org.springframework.web.bind.annotation.RequestMethod.GET;
  *
  * /reload/acuity/{id}
  * /reload/detect/{id}
+ *
+ * /cachesizes
  * </code>
  */
 @RestController
@@ -92,6 +99,8 @@ public class RefreshCacheResource {
     private InstanceMetadataService instanceMetadataService;
     @Autowired
     private InfoService infoService;
+    @Autowired
+    private CacheManager cacheManager;
 
     @ApiOperation(
             value = "Clear detect cache for dataset",
@@ -272,4 +281,18 @@ public class RefreshCacheResource {
 
         return CollectionUtils.subtract(allDatasets, listPrimedCachedDatasets);
     }
+
+    @ApiOperation(
+            value = "Lists entries and bytes held by each cache",
+            nickname = "listCacheSizes",
+            response = Map.class,
+            httpMethod = "GET"
+    )
+    @RequestMapping(value = "/cachesizes", method = GET)
+    public Map<String, CacheSize> listCacheSizes() {
+        if (cacheManager instanceof CustomEhCacheCacheManager) {
+            return ((CustomEhCacheCacheManager) cacheManager).getCacheSizes();
+        }
+        return Collections.emptyMap();
+    }
 }
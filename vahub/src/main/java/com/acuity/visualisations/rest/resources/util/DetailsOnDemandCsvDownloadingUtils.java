@@ -17,13 +17,23 @@
 package com.acuity.visualisations.rest.resources.util;
 
 import lombok.experimental.UtilityClass;
+import org.springframework.http.HttpHeaders;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.zip.GZIPOutputStream;
 
 @SuppressWarnings("checkstyle:HideUtilityClassConstructor")
 @UtilityClass
 public class DetailsOnDemandCsvDownloadingUtils {
 
+    private static final String GZIP_ENCODING = "gzip";
+    private static final String X_GZIP_ENCODING = "x-gzip";
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
     public static void setDownloadHeaders(HttpServletResponse response, String filename) {
         response.addHeader("Content-disposition", "attachment;filename=" + filename);
         response.setContentType("txt/csv");
@@ -32,4 +42,55 @@ public class DetailsOnDemandCsvDownloadingUtils {
     public static void setDownloadHeaders(HttpServletResponse response) {
         setDownloadHeaders(response, "details_on_demand.csv");
     }
+
+    /**
+     * Returns a writer for the csv download, gzip compressed if the client accepts it.
+     * The writer has to be closed to complete the compressed response.
+     */
+    public static Writer getDownloadWriter(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            return response.getWriter();
+        }
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING);
+        return new OutputStreamWriter(new GZIPOutputStream(response.getOutputStream(), GZIP_BUFFER_SIZE),
+                response.getCharacterEncoding());
+    }
+
+    /**
+     * Whether the Accept-Encoding header accepts gzip with a non-zero quality, either by name or by the * wildcard
+     * if gzip isn't listed, e.g. "gzip;q=0" refuses it
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double anyQuality = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            double quality = getQuality(parts);
+            if (GZIP_ENCODING.equalsIgnoreCase(name) || X_GZIP_ENCODING.equalsIgnoreCase(name)) {
+                gzipQuality = gzipQuality == null ? quality : Math.max(gzipQuality, quality);
+            } else if ("*".equals(name)) {
+                anyQuality = quality;
+            }
+        }
+        Double quality = gzipQuality != null ? gzipQuality : anyQuality;
+        return quality != null && quality > 0;
+    }
+
+    private static double getQuality(String[] codingParts) {
+        for (int i = 1; i < codingParts.length; i++) {
+            String[] parameter = codingParts[i].split("=", 2);
+            if (parameter.length == 2 && "q".equalsIgnoreCase(parameter[0].trim())) {
+                try {
+                    return Double.parseDouble(parameter[1].trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
 }
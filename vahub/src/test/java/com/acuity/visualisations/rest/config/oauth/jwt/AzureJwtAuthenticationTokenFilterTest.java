@@ -0,0 +1,184 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.acuity.visualisations.rest.config.oauth.jwt;
+
+import com.google.common.io.Resources;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AzureJwtAuthenticationTokenFilterTest {
+
+    private static final String APP_ID_URI = "api://vahub";
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    private final AtomicInteger keysRequests = new AtomicInteger();
+    private volatile String servedKeyId = "key1";
+    private HttpServer jwksServer;
+    private String configUrl;
+    private String certificate;
+    private PrivateKey privateKey;
+
+    @Before
+    public void setUp() throws Exception {
+        certificate = readResource("jwt/test-certificate.b64");
+        privateKey = KeyFactory.getInstance("RSA")
+                .generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(readResource("jwt/test-private-key.b64"))));
+
+        jwksServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        String baseUrl = "http://localhost:" + jwksServer.getAddress().getPort();
+        configUrl = baseUrl + "/openid-configuration";
+        jwksServer.createContext("/openid-configuration", exchange -> respond(exchange, "{\"jwks_uri\": \"" + baseUrl + "/keys\"}"));
+        jwksServer.createContext("/keys", exchange -> {
+            keysRequests.incrementAndGet();
+            respond(exchange, "{\"keys\": [{\"kid\": \"" + servedKeyId + "\", \"x5c\": [\"" + certificate + "\"]}]}");
+        });
+        jwksServer.start();
+    }
+
+    @After
+    public void tearDown() {
+        jwksServer.stop(0);
+    }
+
+    @Test
+    public void shouldFetchKeysOnceForKnownKeyId() {
+        AzureJwksKeyProvider keyProvider = keyProvider(TimeUnit.HOURS.toMillis(1));
+
+        softly.assertThat(keyProvider.getKey("key1")).isNotNull();
+        softly.assertThat(keyProvider.getKey("key1")).isNotNull();
+        softly.assertThat(keysRequests.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotRefetchKeysForUnknownKeyIdWithinInterval() {
+        AzureJwksKeyProvider keyProvider = keyProvider(TimeUnit.HOURS.toMillis(1));
+
+        softly.assertThat(keyProvider.getKey("key1")).isNotNull();
+        softly.assertThat(keyProvider.getKey("unknown")).isNull();
+        softly.assertThat(keyProvider.getKey("unknown")).isNull();
+        softly.assertThat(keysRequests.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldRefetchKeysWhenKeyIdIsRotated() {
+        AzureJwksKeyProvider keyProvider = keyProvider(0);
+
+        softly.assertThat(keyProvider.getKey("key1")).isNotNull();
+        servedKeyId = "key2";
+        softly.assertThat(keyProvider.getKey("key2")).isNotNull();
+        softly.assertThat(keyProvider.getKey("key1")).isNull();
+        softly.assertThat(keysRequests.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void shouldValidateTokenAndReuseResultUntilExpiry() {
+        AzureJwtAuthenticationTokenFilter filter = new AzureJwtAuthenticationTokenFilter(keyProvider(0), APP_ID_URI);
+        String token = token("key1", APP_ID_URI, new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)));
+
+        Claims claims = filter.parseAndValidateToken(token);
+        jwksServer.stop(0);
+
+        softly.assertThat(claims).isNotNull();
+        softly.assertThat(claims.get("unique_name")).isEqualTo("user@vahub");
+        softly.assertThat(filter.parseAndValidateToken(token)).isSameAs(claims);
+        softly.assertThat(keysRequests.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldRejectInvalidTokens() {
+        AzureJwtAuthenticationTokenFilter filter = new AzureJwtAuthenticationTokenFilter(keyProvider(0), APP_ID_URI);
+        Date expiry = new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+
+        softly.assertThat(filter.parseAndValidateToken(token("unknown", APP_ID_URI, expiry))).isNull();
+        softly.assertThat(filter.parseAndValidateToken(token("key1", "api://other", expiry))).isNull();
+        softly.assertThat(filter.parseAndValidateToken(token("key1", APP_ID_URI, new Date(System.currentTimeMillis() - 1000)))).isNull();
+    }
+
+    @Test
+    public void shouldNotCheckAudienceWhenAppIdUriIsNotConfigured() {
+        AzureJwtAuthenticationTokenFilter filter = new AzureJwtAuthenticationTokenFilter(keyProvider(0), "");
+        Date expiry = new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+
+        softly.assertThat(filter.parseAndValidateToken(token("key1", APP_ID_URI, expiry))).isNotNull();
+        softly.assertThat(filter.parseAndValidateToken(token("key1", "api://other", expiry))).isNotNull();
+        softly.assertThat(filter.parseAndValidateToken(token("unknown", APP_ID_URI, expiry))).isNull();
+        softly.assertThat(filter.parseAndValidateToken(token("key1", APP_ID_URI, new Date(System.currentTimeMillis() - 1000)))).isNull();
+    }
+
+    @Test
+    public void shouldUseCachedTokenOnlyWithinItsValidityPeriod() {
+        long now = System.currentTimeMillis();
+        AzureJwtAuthenticationTokenFilter.ValidatedToken token = new AzureJwtAuthenticationTokenFilter.ValidatedToken(Jwts.claims()
+                .setNotBefore(new Date(now))
+                .setExpiration(new Date(now + TimeUnit.HOURS.toMillis(1))));
+
+        softly.assertThat(token.isValidAt(new Date(now - 1000))).isFalse();
+        softly.assertThat(token.isValidAt(new Date(now))).isTrue();
+        softly.assertThat(token.isValidAt(new Date(now + TimeUnit.MINUTES.toMillis(59)))).isTrue();
+        softly.assertThat(token.isValidAt(new Date(now + TimeUnit.HOURS.toMillis(1)))).isFalse();
+    }
+
+    private AzureJwksKeyProvider keyProvider(long minRefetchIntervalMs) {
+        return new AzureJwksKeyProvider(new RestTemplate(), configUrl, TimeUnit.HOURS.toMillis(1), minRefetchIntervalMs);
+    }
+
+    private String token(String keyId, String audience, Date expiration) {
+        return Jwts.builder()
+                .setHeaderParam("kid", keyId)
+                .setAudience(audience)
+                .setExpiration(expiration)
+                .claim("unique_name", "user@vahub")
+                .signWith(SignatureAlgorithm.RS256, privateKey)
+                .compact();
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String readResource(String name) throws IOException {
+        return Resources.toString(Resources.getResource(name), StandardCharsets.UTF_8).trim();
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2021 The University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.acuity.visualisations.rest.resources.util;
+
+import org.assertj.core.api.JUnitSoftAssertions;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class DetailsOnDemandCsvDownloadingUtilsTest {
+
+    @Rule
+    public final JUnitSoftAssertions softly = new JUnitSoftAssertions();
+
+    @Test
+    public void shouldAcceptGzipOnlyWithNonZeroQuality() {
+        softly.assertThat(DetailsOnDemandCsvDownloadingUtils.acceptsGzip(null)).isFalse();
+        softly.assertThat(DetailsOnDemandCsvDownloadingUtils.acceptsGzip("gzip, deflate, br")).isTrue();
+        softly.assertThat(DetailsOnDemandCsvDownloadingUtils.acceptsGzip("deflate, gzip;q=0.5")).isTrue();
+        softly.assertThat(DetailsOnDemandCsvDownloadingUtils.acceptsGzip("gzip;q=0, deflate")).isFalse();
+        softly.assertThat(DetailsOnDemandCsvDownloadingUtils.acceptsGzip("gzip; q=0.0")).isFalse();
+        softly.assertThat(DetailsOnDemandCsvDownloadingUtils.acceptsGzip("*")).isTrue();
+        softly.assertThat(DetailsOnDemandCsvDownloadingUtils.acceptsGzip("gzip;q=0, *")).isFalse();
+        softly.assertThat(DetailsOnDemandCsvDownloadingUtils.acceptsGzip("identity")).isFalse();
+    }
+}